@@ -0,0 +1,147 @@
+package board;
+
+import java.util.Arrays;
+
+/**
+ * Tables of the squares a piece can reach from every square of an empty board, built once when the class is loaded.
+ * Knights and kings have a set of target squares, sliding pieces have a ray for each of the 8 directions:
+ * the squares in that direction ordered from the nearest to the edge of the board.
+ * Move generators walk these tables instead of stepping through coordinates and checking the bounds.
+ *
+ * Squares use the index of Coordinate.getIndex (a8 = 0, h1 = 63).
+ * Note: the arrays returned are shared and must not be modified.
+ */
+public final class AttackTables {
+    private static final int SQUARES = 64;
+
+    /**
+     * Change of x and y for every direction, the diagonal directions come first, then the straight ones.
+     * NB: this is the order the Queen has always searched in.
+     */
+    private static final int[] DIRECTION_X = {-1, -1, 1, 1, -1, 0, 0, 1};
+    private static final int[] DIRECTION_Y = {1, -1, -1, 1, 0, -1, 1, 0};
+
+    /**
+     * Directions a bishop, rook and queen travel in
+     */
+    public static final int[] BISHOP_DIRECTIONS = {0, 1, 2, 3};
+    public static final int[] ROOK_DIRECTIONS = {4, 5, 6, 7};
+    public static final int[] QUEEN_DIRECTIONS = {0, 1, 2, 3, 4, 5, 6, 7};
+
+    /**
+     * NB: 2 and 2 integers represent x and y. [0] = x [1] = y etc.
+     */
+    private static final int[] KNIGHT_OFFSETS = {-2, 1, -1, 2, 1, 2, 2, 1, -2, -1, -1, -2, 1, -2, 2, -1};
+    private static final int[] KING_OFFSETS = {-1, 0, -1, -1, 0, -1, 1, -1, 1, 0, 1, 1, 0, 1, -1, 1};
+
+    private static final int[][] KNIGHT_TARGETS = createStepTargets(KNIGHT_OFFSETS);
+    private static final int[][] KING_TARGETS = createStepTargets(KING_OFFSETS);
+    private static final long[] KNIGHT_ATTACKS = createMasks(KNIGHT_TARGETS);
+    private static final long[] KING_ATTACKS = createMasks(KING_TARGETS);
+    // [direction][square]
+    private static final int[][][] RAYS = createRays();
+    private static final long[][] RAY_MASKS = createRayMasks();
+
+    private AttackTables() {
+        throw new RuntimeException("Do not initialise");
+    }
+
+    private static int[][] createStepTargets(int[] offsets) {
+        final int[][] targets = new int[SQUARES][];
+        for (int square = 0; square < SQUARES; square++) {
+            final int x = square % 8, y = square / 8;
+            int[] squareTargets = new int[offsets.length / 2];
+            int count = 0;
+            for (int i = 0; i < offsets.length; i += 2) {
+                final int toX = x + offsets[i], toY = y + offsets[i + 1];
+                if (toX >= 0 && toX < 8 && toY >= 0 && toY < 8) squareTargets[count++] = toY * 8 + toX;
+            }
+            targets[square] = Arrays.copyOf(squareTargets, count);
+        }
+        return targets;
+    }
+
+    private static long[] createMasks(int[][] targets) {
+        final long[] masks = new long[SQUARES];
+        for (int square = 0; square < SQUARES; square++) {
+            for (int target : targets[square]) masks[square] |= 1L << target;
+        }
+        return masks;
+    }
+
+    private static int[][][] createRays() {
+        final int[][][] rays = new int[DIRECTION_X.length][SQUARES][];
+        for (int direction = 0; direction < DIRECTION_X.length; direction++) {
+            for (int square = 0; square < SQUARES; square++) {
+                final int[] ray = new int[7];
+                int length = 0;
+                int x = square % 8 + DIRECTION_X[direction], y = square / 8 + DIRECTION_Y[direction];
+                while (x >= 0 && x < 8 && y >= 0 && y < 8) {
+                    ray[length++] = y * 8 + x;
+                    x += DIRECTION_X[direction];
+                    y += DIRECTION_Y[direction];
+                }
+                rays[direction][square] = Arrays.copyOf(ray, length);
+            }
+        }
+        return rays;
+    }
+
+    private static long[][] createRayMasks() {
+        final long[][] masks = new long[RAYS.length][];
+        for (int direction = 0; direction < RAYS.length; direction++) {
+            masks[direction] = createMasks(RAYS[direction]);
+        }
+        return masks;
+    }
+
+    /**
+     * @param square index of the square
+     * @return squares a knight on the square can move to, in the order the Knight has always searched in
+     */
+    public static int[] getKnightTargets(int square) {
+        return KNIGHT_TARGETS[square];
+    }
+
+    /**
+     * @param square index of the square
+     * @return squares a king on the square can move to (castling excluded), in the order the King has always searched in
+     */
+    public static int[] getKingTargets(int square) {
+        return KING_TARGETS[square];
+    }
+
+    /**
+     * @param square index of the square
+     * @return bit mask of the squares a knight on the square attacks
+     */
+    public static long getKnightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    /**
+     * @param square index of the square
+     * @return bit mask of the squares a king on the square attacks
+     */
+    public static long getKingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * @param direction index of the direction (0-7), see BISHOP_DIRECTIONS and ROOK_DIRECTIONS
+     * @param square index of the square
+     * @return squares in the direction, from the nearest to the edge of the board
+     */
+    public static int[] getRay(int direction, int square) {
+        return RAYS[direction][square];
+    }
+
+    /**
+     * @param direction index of the direction (0-7), see BISHOP_DIRECTIONS and ROOK_DIRECTIONS
+     * @param square index of the square
+     * @return bit mask of the squares in the direction
+     */
+    public static long getRayMask(int direction, int square) {
+        return RAY_MASKS[direction][square];
+    }
+}
@@ -0,0 +1,169 @@
+package board;
+
+import pieces.Alliance;
+import pieces.Piece;
+import pieces.Piece.PieceType;
+
+/**
+ * Bitboard representation of a board layout.
+ * Every combination of alliance and piece type has its own 64-bit word where bit n is set if
+ * the square with index n holds such a piece. The square index of a coordinate is y * 8 + x,
+ * which is the same integer representation as the one given by BoardUtils (a8 = 0, h1 = 63).
+ *
+ * Note: only classes in the board package are able to change the content of a BitBoard,
+ * a Board only exposes it as a read-only view of its layout.
+ */
+public final class BitBoard {
+    private static final int SQUARES = 64;
+
+    // [alliance][piece type] -> squares holding such a piece
+    private final long[][] pieceBoards = new long[Alliance.values().length][PieceType.values().length];
+    // [alliance] -> squares holding a piece of the alliance
+    private final long[] allianceBoards = new long[Alliance.values().length];
+    private long occupied;
+
+    /**
+     * Constructs an empty bitboard
+     */
+    BitBoard() {
+    }
+
+    /**
+     * Get the square index of a coordinate
+     * @param coordinate on the board
+     * @return index between 0 and 63 of the given coordinate
+     */
+    public static int squareOf(Coordinate coordinate) {
+        return coordinate.getIndex();
+    }
+
+    /**
+     * @param square index of a square
+     * @return the single bit representing the given square
+     */
+    static long bitOf(int square) {
+        return 1L << square;
+    }
+
+    /**
+     * Places a piece on its own coordinate
+     * @param piece to place
+     */
+    void setPiece(Piece piece) {
+        addPiece(squareOf(piece.getPieceCoordinate()), piece.getPieceType(), piece.getPieceAlliance());
+    }
+
+    /**
+     * Places a piece of the given type and alliance on a square
+     * @param square index of the square
+     * @param pieceType type of the piece
+     * @param alliance alliance of the piece
+     */
+    void addPiece(int square, PieceType pieceType, Alliance alliance) {
+        final long bit = bitOf(square);
+        this.pieceBoards[alliance.ordinal()][pieceType.ordinal()] |= bit;
+        this.allianceBoards[alliance.ordinal()] |= bit;
+        this.occupied |= bit;
+    }
+
+    /**
+     * Removes a piece of the given type and alliance from a square
+     * @param square index of the square
+     * @param pieceType type of the piece
+     * @param alliance alliance of the piece
+     */
+    void removePiece(int square, PieceType pieceType, Alliance alliance) {
+        final long mask = ~bitOf(square);
+        this.pieceBoards[alliance.ordinal()][pieceType.ordinal()] &= mask;
+        this.allianceBoards[alliance.ordinal()] &= mask;
+        this.occupied &= mask;
+    }
+
+    /**
+     * @param pieceType type of piece
+     * @param alliance alliance of piece
+     * @return the squares holding a piece of the given type and alliance
+     */
+    public long getPieces(PieceType pieceType, Alliance alliance) {
+        return this.pieceBoards[alliance.ordinal()][pieceType.ordinal()];
+    }
+
+    /**
+     * @param alliance alliance of pieces
+     * @return the squares holding a piece of the given alliance
+     */
+    public long getPieces(Alliance alliance) {
+        return this.allianceBoards[alliance.ordinal()];
+    }
+
+    /**
+     * @return the squares holding a piece of any alliance
+     */
+    public long getOccupied() {
+        return this.occupied;
+    }
+
+    /**
+     * @param square index of the square
+     * @return true if the square holds a piece, false otherwise
+     */
+    public boolean isOccupied(int square) {
+        return (this.occupied & bitOf(square)) != 0;
+    }
+
+    /**
+     * @param square index of the square
+     * @param alliance to check for
+     * @return true if the square holds a piece of the given alliance, false otherwise
+     */
+    public boolean isOccupiedBy(int square, Alliance alliance) {
+        return (this.allianceBoards[alliance.ordinal()] & bitOf(square)) != 0;
+    }
+
+    /**
+     * Find the type of the piece placed on a square
+     * @param square index of the square
+     * @return the type of the piece on the square, null if the square is empty
+     */
+    public PieceType getPieceTypeAt(int square) {
+        if (!isOccupied(square)) return null;
+        final long bit = bitOf(square);
+        for (PieceType pieceType : PieceType.values()) {
+            for (long[] allianceBoard : this.pieceBoards) {
+                if ((allianceBoard[pieceType.ordinal()] & bit) != 0) return pieceType;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param pieceType type of piece
+     * @param alliance alliance of piece
+     * @return number of pieces of the given type and alliance
+     */
+    public int count(PieceType pieceType, Alliance alliance) {
+        return Long.bitCount(getPieces(pieceType, alliance));
+    }
+
+    /**
+     * @param alliance alliance of pieces
+     * @return number of pieces of the given alliance
+     */
+    public int count(Alliance alliance) {
+        return Long.bitCount(getPieces(alliance));
+    }
+
+    /**
+     * Constructs a text visualisation of the occupied squares
+     * @return a string with one row of the board per line, 'x' marks an occupied square
+     */
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        for (int square = 0; square < SQUARES; square++) {
+            builder.append(isOccupied(square) ? 'x' : '-');
+            if (square % 8 == 7) builder.append("\n");
+        }
+        return builder.toString();
+    }
+}
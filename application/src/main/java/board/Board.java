@@ -1,6 +1,7 @@
 package board;
 
 import pieces.*;
+import pieces.Piece.PieceType;
 import player.MoveTransition;
 import player.Player;
 import player.basicAI.MiniMax;
@@ -11,44 +12,65 @@ import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * This class represents a chessboard.
- * Note: a Map<Coordinate, Tile> is the base representation of the board layout,
- * where a Coordinate object as key gives a Tile object as value with some content.
+ * Note: a BitBoard is the base representation of the board layout, which is used for all queries about
+ * the occupation of a square. An array of 64 tiles indexed by square index (see Coordinate.getIndex)
+ * is kept alongside it for the GUI and the pieces.
  */
 public class Board {
-    private final Map<Coordinate, Tile> gameBoard;
+    private final BitBoard bitBoard;
+    private final Tile[] gameBoard;
     private final Collection<Piece> whitePieces, blackPieces;
     private final Player whitePlayer, blackPlayer, currentPlayer;
     private final Pawn enPassantPawn;
     private final Move transitionMove;
+    private final long zobristKey;
+    private final int castlingRights;
 
     private Board(Builder builder) {
+        this.bitBoard = createBitBoard(builder);
         this.gameBoard = createGameBoard(builder);
         this.whitePieces = calculateActivePieces(builder, Alliance.WHITE);
         this.blackPieces = calculateActivePieces(builder, Alliance.BLACK);
         this.enPassantPawn = builder.enPassantPawn;
 
-        Collection<Move> whiteLegalMoves = calculateLegalMoves(this.whitePieces);
-        Collection<Move> blackLegalMoves = calculateLegalMoves(this.blackPieces);
-        this.whitePlayer = new Player(this, Alliance.WHITE, whiteLegalMoves, blackLegalMoves);
-        this.blackPlayer = new Player(this, Alliance.BLACK, blackLegalMoves, whiteLegalMoves);
+        // the players calculate their moves on first access
+        this.whitePlayer = new Player(this, Alliance.WHITE);
+        this.blackPlayer = new Player(this, Alliance.BLACK);
 
         this.currentPlayer = builder.nextMoveMaker.choosePlayerByAlliance(this.whitePlayer, this.blackPlayer);
         this.transitionMove = builder.transitionMove;
+        // a move gives the key it calculated from the previous board, other boards are hashed from scratch
+        this.castlingRights = builder.castlingRights != null ? builder.castlingRights : Zobrist.castlingRights(this);
+        this.zobristKey = builder.zobristKey != null ? builder.zobristKey : Zobrist.calculateKey(this);
     }
 
     /**
      * Creates a chessboard with a the layout given by the builder object
      * @param builder defines the layout/settings of the board
-     * @return a Map with coordinates as keys and tiles as values
+     * @return an array with the tile of square index n at position n
      */
-    private Map<Coordinate, Tile> createGameBoard(Builder builder) {
-        Map<Coordinate, Tile> coordToTile = new HashMap<>();
+    private static Tile[] createGameBoard(Builder builder) {
+        final Tile[] tiles = new Tile[BoardUtils.getInstance().getWidth() * BoardUtils.getInstance().getHeight()];
         for (int i = 0; i < BoardUtils.getInstance().getHeight(); i++) {
             for (int j = 0; j < BoardUtils.getInstance().getWidth(); j++) {
-                coordToTile.put(new Coordinate(j,i), Tile.createTile(new Coordinate(j,i), builder.boardConfig.get(new Coordinate(j,i))));
+                final Coordinate coordinate = Coordinate.of(j, i);
+                tiles[coordinate.getIndex()] = Tile.createTile(coordinate, builder.boardConfig.get(coordinate));
             }
         }
-        return coordToTile;
+        return tiles;
+    }
+
+    /**
+     * Creates the bitboards for the layout given by the builder object
+     * @param builder defines the layout/settings of the board
+     * @return a BitBoard holding every piece of the builder
+     */
+    private static BitBoard createBitBoard(Builder builder) {
+        final BitBoard pieceBoards = new BitBoard();
+        for (Piece piece : builder.boardConfig.values()) {
+            pieceBoards.setPiece(piece);
+        }
+        return pieceBoards;
     }
 
     /**
@@ -68,25 +90,104 @@ public class Board {
     }
 
     /**
-     * Generates a list of all legal moves given a collection of pieces
-     * @param pieces to evaluate legal moves for
-     * @return a list with all possible legal moves
+     * Returns a tile object given a coordinate
+     * @param tileCoordinate coordinate of tile to get
+     * @return the Tile-object at a given coordinate, null if the coordinate is not on the board
      */
-    private Collection<Move> calculateLegalMoves(Collection<Piece> pieces) {
-        final List<Move> legalMoves = new ArrayList<>();
-        for (Piece piece : pieces) {
-            legalMoves.addAll(piece.calculateLegalMoves(this));
+    public Tile getTile(Coordinate tileCoordinate) {
+        if (!BoardUtils.getInstance().isValidCoordinate(tileCoordinate)) return null;
+        return this.gameBoard[tileCoordinate.getIndex()];
+    }
+
+    /**
+     * @return a read-only bitboard view of the board layout
+     */
+    public BitBoard getBitBoard() {
+        return this.bitBoard;
+    }
+
+    /**
+     * Looks outwards from a square along the pawn, knight, king and slider lines to see if a piece of the given
+     * alliance attacks it. This costs a handful of lookups, where filtering the moves of the attacking player
+     * needs all of them to be generated.
+     * Note: a pawn attacks the squares diagonally in front of it, whether or not there is a piece to take.
+     *
+     * @param square index of the square (see Coordinate.getIndex)
+     * @param attacker alliance of the attacking pieces
+     * @return true if the square is attacked
+     */
+    public boolean isSquareAttacked(int square, Alliance attacker) {
+        final int x = square % 8, y = square / 8;
+        // a pawn attacks the square from one row behind it, seen from the pawn's direction
+        final int pawnY = y - attacker.getDirection();
+        if (pawnY >= 0 && pawnY <= 7) {
+            final long pawns = this.bitBoard.getPieces(PieceType.PAWN, attacker);
+            if (x > 0 && (pawns & BitBoard.bitOf(pawnY * 8 + x - 1)) != 0) return true;
+            if (x < 7 && (pawns & BitBoard.bitOf(pawnY * 8 + x + 1)) != 0) return true;
         }
-        return legalMoves;
+        if ((AttackTables.getKnightAttacks(square) & this.bitBoard.getPieces(PieceType.KNIGHT, attacker)) != 0) return true;
+        if ((AttackTables.getKingAttacks(square) & this.bitBoard.getPieces(PieceType.KING, attacker)) != 0) return true;
+        final long queens = this.bitBoard.getPieces(PieceType.QUEEN, attacker);
+        return isAttackedBySlider(square, AttackTables.ROOK_DIRECTIONS, this.bitBoard.getPieces(PieceType.ROOK, attacker) | queens) ||
+                isAttackedBySlider(square, AttackTables.BISHOP_DIRECTIONS, this.bitBoard.getPieces(PieceType.BISHOP, attacker) | queens);
     }
 
     /**
-     * Returns a tile object given a coordinate
-     * @param tileCoordinate coordinate of tile to get
-     * @return the Tile-object at a given coordinate
+     * @param coordinate of the square
+     * @param attacker alliance of the attacking pieces
+     * @return true if the square is attacked
+     * @see #isSquareAttacked(int, Alliance)
      */
-    public Tile getTile(Coordinate tileCoordinate) {
-        return this.gameBoard.get(tileCoordinate);
+    public boolean isSquareAttacked(Coordinate coordinate, Alliance attacker) {
+        return isSquareAttacked(coordinate.getIndex(), attacker);
+    }
+
+    /**
+     * Static exchange evaluation: the material a move wins when both players go on capturing on its square with
+     * their least valuable piece, including the sliders that attack through the pieces that have captured.
+     * See StaticExchange
+     *
+     * @param move of a piece of this board
+     * @return material won by the move and the exchange that follows, in piece values (negative if it loses)
+     */
+    public int staticExchangeEvaluation(Move move) {
+        return StaticExchange.evaluate(this.bitBoard, Move.MoveFactory.toPackedMove(move),
+                move.getMovedPiece().getPieceAlliance(), new int[StaticExchange.MAX_CAPTURES]);
+    }
+
+    /**
+     * Walks the rays from a square and checks if the first piece on one of them is one of the given sliders
+     */
+    private boolean isAttackedBySlider(int square, int[] directions, long sliders) {
+        final long occupied = this.bitBoard.getOccupied();
+        for (int direction : directions) {
+            for (int from : AttackTables.getRay(direction, square)) {
+                final long bit = BitBoard.bitOf(from);
+                if ((occupied & bit) != 0) {
+                    if ((sliders & bit) != 0) return true;
+                    break;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The Zobrist key identifies the position: the pieces, who makes the next move, the castling rights and the
+     * 'en passant' file. Boards with the same position have the same key.
+     * @return 64-bit Zobrist key of the board
+     * @see Zobrist
+     */
+    public long getZobristKey() {
+        return this.zobristKey;
+    }
+
+    /**
+     * The castling rights are kept with the key, a move derives the rights of the next board from these
+     * @return combination of Zobrist.WHITE_KING_SIDE, WHITE_QUEEN_SIDE, BLACK_KING_SIDE and BLACK_QUEEN_SIDE
+     */
+    public int getCastlingRights() {
+        return this.castlingRights;
     }
 
     /**
@@ -131,8 +232,7 @@ public class Board {
      * @return true if friendly, false if piece at c is an enemy or c does not contain a piece
      */
     public boolean isFriendly(Piece piece, Coordinate c) {
-        Piece pieceAtCoordinate = this.getTile(c).getPiece();
-        return pieceAtCoordinate != null && piece.getPieceAlliance() == pieceAtCoordinate.getPieceAlliance();
+        return this.bitBoard.isOccupiedBy(BitBoard.squareOf(c), piece.getPieceAlliance());
     }
 
     /**
@@ -142,8 +242,8 @@ public class Board {
      * @return true if enemy, false if piece at c is a friendly or c does not contain a piece
      */
     public boolean isEnemy(Piece piece, Coordinate c) {
-        Piece pieceAtCoordinate = this.getTile(c).getPiece();
-        return pieceAtCoordinate != null && piece.getPieceAlliance() != pieceAtCoordinate.getPieceAlliance();
+        final int square = BitBoard.squareOf(c);
+        return this.bitBoard.isOccupied(square) && !this.bitBoard.isOccupiedBy(square, piece.getPieceAlliance());
     }
 
     /**
@@ -180,7 +280,7 @@ public class Board {
         final StringBuilder builder = new StringBuilder();
         for (int i = 0; i < BoardUtils.getInstance().getHeight(); i++) {
             for (int j = 0; j < BoardUtils.getInstance().getWidth(); j++) {
-                final String tileText = this.gameBoard.get(new Coordinate(j,i)).toString();
+                final String tileText = this.gameBoard[Coordinate.of(j,i).getIndex()].toString();
                 builder.append(String.format("%3s", tileText));
             }
             builder.append("\n");
@@ -195,28 +295,28 @@ public class Board {
     public static Board createStandardBoard() {
         final Builder builder = new Builder();
         // Black pieces
-        builder.setPiece(new Rook(new Coordinate(0,0), Alliance.BLACK));
-        builder.setPiece(new Knight(new Coordinate(1,0), Alliance.BLACK));
-        builder.setPiece(new Bishop(new Coordinate(2,0), Alliance.BLACK));
-        builder.setPiece(new Queen(new Coordinate(3,0), Alliance.BLACK));
-        builder.setPiece(new King(new Coordinate(4,0), Alliance.BLACK));
-        builder.setPiece(new Bishop(new Coordinate(5,0), Alliance.BLACK));
-        builder.setPiece(new Knight(new Coordinate(6,0), Alliance.BLACK));
-        builder.setPiece(new Rook(new Coordinate(7,0), Alliance.BLACK));
+        builder.setPiece(Rook.of(Coordinate.of(0,0), Alliance.BLACK, true));
+        builder.setPiece(Knight.of(Coordinate.of(1,0), Alliance.BLACK, true));
+        builder.setPiece(Bishop.of(Coordinate.of(2,0), Alliance.BLACK, true));
+        builder.setPiece(Queen.of(Coordinate.of(3,0), Alliance.BLACK, true));
+        builder.setPiece(King.of(Coordinate.of(4,0), Alliance.BLACK, true, false));
+        builder.setPiece(Bishop.of(Coordinate.of(5,0), Alliance.BLACK, true));
+        builder.setPiece(Knight.of(Coordinate.of(6,0), Alliance.BLACK, true));
+        builder.setPiece(Rook.of(Coordinate.of(7,0), Alliance.BLACK, true));
         for (int i = 0; i < 8; i++) {
-            builder.setPiece(new Pawn(new Coordinate(i, 1), Alliance.BLACK, false));
+            builder.setPiece(Pawn.of(Coordinate.of(i, 1), Alliance.BLACK, true, false));
         }
         // White pieces
-        builder.setPiece(new Rook(new Coordinate(0,7), Alliance.WHITE));
-        builder.setPiece(new Knight(new Coordinate(1,7), Alliance.WHITE));
-        builder.setPiece(new Bishop(new Coordinate(2,7), Alliance.WHITE));
-        builder.setPiece(new Queen(new Coordinate(3,7), Alliance.WHITE));
-        builder.setPiece(new King(new Coordinate(4,7), Alliance.WHITE));
-        builder.setPiece(new Bishop(new Coordinate(5,7), Alliance.WHITE));
-        builder.setPiece(new Knight(new Coordinate(6,7), Alliance.WHITE));
-        builder.setPiece(new Rook(new Coordinate(7,7), Alliance.WHITE));
+        builder.setPiece(Rook.of(Coordinate.of(0,7), Alliance.WHITE, true));
+        builder.setPiece(Knight.of(Coordinate.of(1,7), Alliance.WHITE, true));
+        builder.setPiece(Bishop.of(Coordinate.of(2,7), Alliance.WHITE, true));
+        builder.setPiece(Queen.of(Coordinate.of(3,7), Alliance.WHITE, true));
+        builder.setPiece(King.of(Coordinate.of(4,7), Alliance.WHITE, true, false));
+        builder.setPiece(Bishop.of(Coordinate.of(5,7), Alliance.WHITE, true));
+        builder.setPiece(Knight.of(Coordinate.of(6,7), Alliance.WHITE, true));
+        builder.setPiece(Rook.of(Coordinate.of(7,7), Alliance.WHITE, true));
         for (int i = 0; i < 8; i++) {
-            builder.setPiece(new Pawn(new Coordinate(i, 6), Alliance.WHITE, false));
+            builder.setPiece(Pawn.of(Coordinate.of(i, 6), Alliance.WHITE, true, false));
         }
 
         builder.setMoveMaker(Alliance.WHITE);
@@ -229,7 +329,8 @@ public class Board {
      */
     public static Board createRandomBoard() {
         Board board = Board.createStandardBoard();
-        final MoveStrategy AI = new MiniMax(1, 0, true, false);
+        // a search of one ply gets nothing from a transposition table
+        final MoveStrategy AI = new MiniMax(1, 0, true, false, 0);
 
         // create empty board to hold last board before change
         Board boardBeforeChange = new Board(new Builder().setMoveMaker(Alliance.WHITE));
@@ -251,7 +352,7 @@ public class Board {
         }
 
         // check that player is not put in checkmate when the ai makes its next move
-        MoveStrategy smarterAI = new MiniMax(4, 100, true, false);
+        MoveStrategy smarterAI = new MiniMax(4, MiniMax.DEFAULT_MAX_QUIESCENCE, true, false);
         Move aiNextMove = smarterAI.execute(board);
         Board nextIterationBoard = null;
         if (board.currentPlayer().makeMove(aiNextMove).getMoveStatus().isDone()) {
@@ -263,7 +364,7 @@ public class Board {
         }
 
         if (nextIterationBoard != null &&
-            (board.currentPlayer().isInCheckmate() || board.currentPlayer().isInStalemate() ||
+            (board.currentPlayer().getGameStatus().isGameOver() ||
              board.currentPlayer().getOpponent().isInCheck() || board.currentPlayer().getOpponent().isInStalemate() ||
              nextIterationBoard.currentPlayer().isInCheck())) {
 
@@ -283,31 +384,31 @@ public class Board {
     public static Board createHordeBoard() {
         final Builder builder = new Builder();
         // Black pieces
-        builder.setPiece(new Pawn(new Coordinate(0,0), Alliance.BLACK, false));
-        builder.setPiece(new Pawn(new Coordinate(1,0), Alliance.BLACK, false));
-        builder.setPiece(new Pawn(new Coordinate(2,0), Alliance.BLACK, false));
-        builder.setPiece(new Pawn(new Coordinate(5,0), Alliance.BLACK, false));
-        builder.setPiece(new Pawn(new Coordinate(6,0), Alliance.BLACK, false));
-        builder.setPiece(new Pawn(new Coordinate(7,0), Alliance.BLACK, false));
+        builder.setPiece(Pawn.of(Coordinate.of(0,0), Alliance.BLACK, true, false));
+        builder.setPiece(Pawn.of(Coordinate.of(1,0), Alliance.BLACK, true, false));
+        builder.setPiece(Pawn.of(Coordinate.of(2,0), Alliance.BLACK, true, false));
+        builder.setPiece(Pawn.of(Coordinate.of(5,0), Alliance.BLACK, true, false));
+        builder.setPiece(Pawn.of(Coordinate.of(6,0), Alliance.BLACK, true, false));
+        builder.setPiece(Pawn.of(Coordinate.of(7,0), Alliance.BLACK, true, false));
         for (int i = 1; i < 4; i++) {
             for (int j = 0; j < 8; j++) {
-                builder.setPiece(new Pawn(new Coordinate(j, i), Alliance.BLACK, false));
+                builder.setPiece(Pawn.of(Coordinate.of(j, i), Alliance.BLACK, true, false));
             }
         }
-        builder.setPiece(new Pawn(new Coordinate(3, 4), Alliance.BLACK, false));
-        builder.setPiece(new Pawn(new Coordinate(4, 4), Alliance.BLACK, false));
+        builder.setPiece(Pawn.of(Coordinate.of(3, 4), Alliance.BLACK, true, false));
+        builder.setPiece(Pawn.of(Coordinate.of(4, 4), Alliance.BLACK, true, false));
 
         // White pieces
-        builder.setPiece(new Rook(new Coordinate(0,7), Alliance.WHITE));
-        builder.setPiece(new Knight(new Coordinate(1,7), Alliance.WHITE));
-        builder.setPiece(new Bishop(new Coordinate(2,7), Alliance.WHITE));
-        builder.setPiece(new Queen(new Coordinate(3,7), Alliance.WHITE));
-        builder.setPiece(new King(new Coordinate(4,7), Alliance.WHITE));
-        builder.setPiece(new Bishop(new Coordinate(5,7), Alliance.WHITE));
-        builder.setPiece(new Knight(new Coordinate(6,7), Alliance.WHITE));
-        builder.setPiece(new Rook(new Coordinate(7,7), Alliance.WHITE));
+        builder.setPiece(Rook.of(Coordinate.of(0,7), Alliance.WHITE, true));
+        builder.setPiece(Knight.of(Coordinate.of(1,7), Alliance.WHITE, true));
+        builder.setPiece(Bishop.of(Coordinate.of(2,7), Alliance.WHITE, true));
+        builder.setPiece(Queen.of(Coordinate.of(3,7), Alliance.WHITE, true));
+        builder.setPiece(King.of(Coordinate.of(4,7), Alliance.WHITE, true, false));
+        builder.setPiece(Bishop.of(Coordinate.of(5,7), Alliance.WHITE, true));
+        builder.setPiece(Knight.of(Coordinate.of(6,7), Alliance.WHITE, true));
+        builder.setPiece(Rook.of(Coordinate.of(7,7), Alliance.WHITE, true));
         for (int i = 0; i < 8; i++) {
-            builder.setPiece(new Pawn(new Coordinate(i, 6), Alliance.WHITE, false));
+            builder.setPiece(Pawn.of(Coordinate.of(i, 6), Alliance.WHITE, true, false));
         }
 
         builder.setMoveMaker(Alliance.WHITE);
@@ -321,30 +422,96 @@ public class Board {
     public static Board createLightBrigadeBoard() {
         final Builder builder = new Builder();
         //Black pieces
-        builder.setPiece(new Knight(new Coordinate(0,0), Alliance.BLACK));
-        builder.setPiece(new Knight(new Coordinate(1,0), Alliance.BLACK));
-        builder.setPiece(new Knight(new Coordinate(2,0), Alliance.BLACK));
-        builder.setPiece(new Knight(new Coordinate(3,0), Alliance.BLACK));
-        builder.setPiece(new King(new Coordinate(4,0), Alliance.BLACK));
-        builder.setPiece(new Knight(new Coordinate(5,0), Alliance.BLACK));
-        builder.setPiece(new Knight(new Coordinate(6,0), Alliance.BLACK));
-        builder.setPiece(new Knight(new Coordinate(7,0), Alliance.BLACK));
+        builder.setPiece(Knight.of(Coordinate.of(0,0), Alliance.BLACK, true));
+        builder.setPiece(Knight.of(Coordinate.of(1,0), Alliance.BLACK, true));
+        builder.setPiece(Knight.of(Coordinate.of(2,0), Alliance.BLACK, true));
+        builder.setPiece(Knight.of(Coordinate.of(3,0), Alliance.BLACK, true));
+        builder.setPiece(King.of(Coordinate.of(4,0), Alliance.BLACK, true, false));
+        builder.setPiece(Knight.of(Coordinate.of(5,0), Alliance.BLACK, true));
+        builder.setPiece(Knight.of(Coordinate.of(6,0), Alliance.BLACK, true));
+        builder.setPiece(Knight.of(Coordinate.of(7,0), Alliance.BLACK, true));
         for (int i = 0; i < 8; i++) {
-            builder.setPiece(new Pawn(new Coordinate(i, 1), Alliance.BLACK, true));
+            builder.setPiece(Pawn.of(Coordinate.of(i, 1), Alliance.BLACK, true, true));
         }
 
         //White pieces
         for (int i = 0; i < 8; i++) {
-            builder.setPiece(new Pawn(new Coordinate(i, 6), Alliance.WHITE, true));
+            builder.setPiece(Pawn.of(Coordinate.of(i, 6), Alliance.WHITE, true, true));
         }
-        builder.setPiece(new Queen(new Coordinate(1, 7), Alliance.WHITE));
-        builder.setPiece(new Queen(new Coordinate(3, 7), Alliance.WHITE));
-        builder.setPiece(new King(new Coordinate(4, 7), Alliance.WHITE));
-        builder.setPiece(new Queen(new Coordinate(6, 7), Alliance.WHITE));
+        builder.setPiece(Queen.of(Coordinate.of(1, 7), Alliance.WHITE, true));
+        builder.setPiece(Queen.of(Coordinate.of(3, 7), Alliance.WHITE, true));
+        builder.setPiece(King.of(Coordinate.of(4, 7), Alliance.WHITE, true, false));
+        builder.setPiece(Queen.of(Coordinate.of(6, 7), Alliance.WHITE, true));
         builder.setMoveMaker(Alliance.WHITE);
         return builder.build();
     }
 
+    /**
+     * Constructs a board from the first four fields of a FEN string: layout, side to move, castling rights and
+     * 'en passant' square. The move counters are ignored.
+     * Pieces have not moved if the FEN allows it: pawns on their home row, and kings and corner rooks that keep a
+     * castling right. Every other piece counts as moved.
+     *
+     * @param fen position in Forsyth-Edwards Notation, e.g. "8/8/8/8/8/8/8/K1k5 w - -"
+     * @return board with the position
+     * @throws IllegalArgumentException if the FEN can not be read
+     * @see <a href="https://chessprogramming.wikispaces.com/Forsyth-Edwards+Notation">Forsyth-Edwards Notation</a>
+     */
+    public static Board createBoardFromFen(String fen) {
+        final String[] fields = fen.trim().split("\\s+");
+        final String[] rows = fields[0].split("/");
+        if (fields.length < 2 || rows.length != 8) throw new IllegalArgumentException("Invalid FEN: " + fen);
+        final String castling = fields.length > 2 ? fields[2] : "-";
+        final Builder builder = new Builder();
+
+        for (int y = 0; y < rows.length; y++) {
+            int x = 0;
+            for (char c : rows[y].toCharArray()) {
+                if (Character.isDigit(c)) {
+                    x += c - '0';
+                    continue;
+                }
+                final Alliance alliance = Character.isUpperCase(c) ? Alliance.WHITE : Alliance.BLACK;
+                final int file = x++;
+                final Coordinate coordinate = Coordinate.of(file, y);
+                final boolean homeRow = y == (alliance == Alliance.WHITE ? 7 : 0);
+                switch (Character.toLowerCase(c)) {
+                    case 'p': builder.setPiece(Pawn.of(coordinate, alliance, y == (alliance == Alliance.WHITE ? 6 : 1), false)); break;
+                    case 'n': builder.setPiece(Knight.of(coordinate, alliance, false)); break;
+                    case 'b': builder.setPiece(Bishop.of(coordinate, alliance, false)); break;
+                    case 'q': builder.setPiece(Queen.of(coordinate, alliance, false)); break;
+                    case 'r': {
+                        final char right = file == 7 ? 'k' : 'q';
+                        final boolean unmoved = homeRow && (file == 0 || file == 7) && castling.indexOf(
+                                alliance == Alliance.WHITE ? Character.toUpperCase(right) : right) >= 0;
+                        builder.setPiece(Rook.of(coordinate, alliance, unmoved));
+                        break;
+                    }
+                    case 'k': {
+                        final boolean unmoved = homeRow && (alliance == Alliance.WHITE ?
+                                castling.indexOf('K') >= 0 || castling.indexOf('Q') >= 0 :
+                                castling.indexOf('k') >= 0 || castling.indexOf('q') >= 0);
+                        builder.setPiece(King.of(coordinate, alliance, unmoved, false));
+                        break;
+                    }
+                    default: throw new IllegalArgumentException("Invalid FEN: " + fen);
+                }
+            }
+            if (x != 8) throw new IllegalArgumentException("Invalid FEN: " + fen);
+        }
+
+        final Alliance sideToMove = fields[1].equals("b") ? Alliance.BLACK : Alliance.WHITE;
+        builder.setMoveMaker(sideToMove);
+        if (fields.length > 3 && !fields[3].equals("-")) {
+            // the pawn that jumped stands one row past the 'en passant' square
+            final Coordinate passed = BoardUtils.getInstance().getCoordinateFromAlgebraicNotation(fields[3]);
+            final Piece pawn = builder.boardConfig.get(Coordinate.of(passed.getX(), passed.getY() + sideToMove.getOppositeDirection()));
+            if (!(pawn instanceof Pawn)) throw new IllegalArgumentException("Invalid FEN: " + fen);
+            builder.setEnPassantPawn((Pawn) pawn);
+        }
+        return builder.build();
+    }
+
     /**
      * Creates a board which in the player will be able to win in 3-5 moves
      * @return populated board
@@ -352,33 +519,33 @@ public class Board {
     public static Board createTutorBoardOne() {
         final Builder builder = new Builder();
         //Black pieces
-        builder.setPiece(new Rook(new Coordinate(0,0), Alliance.BLACK));
-        builder.setPiece(new Bishop(new Coordinate(2,0), Alliance.BLACK));
-        builder.setPiece(new Queen(new Coordinate(3,0), Alliance.BLACK));
-        builder.setPiece(new Bishop(new Coordinate(5,0), Alliance.BLACK));
-        builder.setPiece(new King(new Coordinate(6,0), Alliance.BLACK, false, false));
-        builder.setPiece(new Rook(new Coordinate(7,0), Alliance.BLACK));
-        builder.setPiece(new Pawn(new Coordinate(0,1), Alliance.BLACK, false));
-        builder.setPiece(new Pawn(new Coordinate(1,1), Alliance.BLACK, false));
-        builder.setPiece(new Pawn(new Coordinate(2,1), Alliance.BLACK, false));
-        builder.setPiece(new Pawn(new Coordinate(6,1), Alliance.BLACK, false));
-        builder.setPiece(new Pawn(new Coordinate(7,1), Alliance.BLACK, false));
-        builder.setPiece(new Knight(new Coordinate(2,2), Alliance.BLACK));
-        builder.setPiece(new Pawn(new Coordinate(4,3), Alliance.BLACK, false));
+        builder.setPiece(Rook.of(Coordinate.of(0,0), Alliance.BLACK, true));
+        builder.setPiece(Bishop.of(Coordinate.of(2,0), Alliance.BLACK, true));
+        builder.setPiece(Queen.of(Coordinate.of(3,0), Alliance.BLACK, true));
+        builder.setPiece(Bishop.of(Coordinate.of(5,0), Alliance.BLACK, true));
+        builder.setPiece(King.of(Coordinate.of(6,0), Alliance.BLACK, false, false));
+        builder.setPiece(Rook.of(Coordinate.of(7,0), Alliance.BLACK, true));
+        builder.setPiece(Pawn.of(Coordinate.of(0,1), Alliance.BLACK, true, false));
+        builder.setPiece(Pawn.of(Coordinate.of(1,1), Alliance.BLACK, true, false));
+        builder.setPiece(Pawn.of(Coordinate.of(2,1), Alliance.BLACK, true, false));
+        builder.setPiece(Pawn.of(Coordinate.of(6,1), Alliance.BLACK, true, false));
+        builder.setPiece(Pawn.of(Coordinate.of(7,1), Alliance.BLACK, true, false));
+        builder.setPiece(Knight.of(Coordinate.of(2,2), Alliance.BLACK, true));
+        builder.setPiece(Pawn.of(Coordinate.of(4,3), Alliance.BLACK, true, false));
         //White pieces
-        builder.setPiece(new Bishop(new Coordinate(2, 4), Alliance.WHITE));
-        builder.setPiece(new Rook(new Coordinate(0,7), Alliance.WHITE));
-        builder.setPiece(new Knight(new Coordinate(1,7), Alliance.WHITE));
-        builder.setPiece(new Bishop(new Coordinate(2,7), Alliance.WHITE));
-        builder.setPiece(new King(new Coordinate(4,7), Alliance.WHITE));
-        builder.setPiece(new Rook(new Coordinate(7,7), Alliance.WHITE));
-        builder.setPiece(new Pawn(new Coordinate(0,6), Alliance.WHITE, false));
-        builder.setPiece(new Pawn(new Coordinate(1,6), Alliance.WHITE, false));
-        builder.setPiece(new Pawn(new Coordinate(2,6), Alliance.WHITE, false));
-        builder.setPiece(new Pawn(new Coordinate(3,6), Alliance.WHITE, false));
-        builder.setPiece(new Pawn(new Coordinate(5,6), Alliance.WHITE, false));
-        builder.setPiece(new Pawn(new Coordinate(6,6), Alliance.WHITE, false));
-        builder.setPiece(new Pawn(new Coordinate(7,6), Alliance.WHITE, false));
+        builder.setPiece(Bishop.of(Coordinate.of(2, 4), Alliance.WHITE, true));
+        builder.setPiece(Rook.of(Coordinate.of(0,7), Alliance.WHITE, true));
+        builder.setPiece(Knight.of(Coordinate.of(1,7), Alliance.WHITE, true));
+        builder.setPiece(Bishop.of(Coordinate.of(2,7), Alliance.WHITE, true));
+        builder.setPiece(King.of(Coordinate.of(4,7), Alliance.WHITE, true, false));
+        builder.setPiece(Rook.of(Coordinate.of(7,7), Alliance.WHITE, true));
+        builder.setPiece(Pawn.of(Coordinate.of(0,6), Alliance.WHITE, true, false));
+        builder.setPiece(Pawn.of(Coordinate.of(1,6), Alliance.WHITE, true, false));
+        builder.setPiece(Pawn.of(Coordinate.of(2,6), Alliance.WHITE, true, false));
+        builder.setPiece(Pawn.of(Coordinate.of(3,6), Alliance.WHITE, true, false));
+        builder.setPiece(Pawn.of(Coordinate.of(5,6), Alliance.WHITE, true, false));
+        builder.setPiece(Pawn.of(Coordinate.of(6,6), Alliance.WHITE, true, false));
+        builder.setPiece(Pawn.of(Coordinate.of(7,6), Alliance.WHITE, true, false));
         builder.setMoveMaker(Alliance.BLACK);
         return builder.build();
     }
@@ -390,23 +557,23 @@ public class Board {
     public static Board createTutorBoardTwo() {
         final Builder builder = new Builder();
         //Black pieces
-        builder.setPiece(new Rook(new Coordinate(0,1), Alliance.BLACK, false));
-        builder.setPiece(new Pawn(new Coordinate(0,2), Alliance.BLACK, false, false));
-        builder.setPiece(new Pawn(new Coordinate(6,2), Alliance.BLACK, false, false));
-        builder.setPiece(new Pawn(new Coordinate(7,2), Alliance.BLACK, false, false));
-        builder.setPiece(new Rook(new Coordinate(3,3), Alliance.BLACK, false));
-        builder.setPiece(new Pawn(new Coordinate(4,3), Alliance.BLACK, false, false));
-        builder.setPiece(new King(new Coordinate(5,3), Alliance.BLACK, false, false));
-        builder.setPiece(new Pawn(new Coordinate(5,4), Alliance.BLACK, false));
+        builder.setPiece(Rook.of(Coordinate.of(0,1), Alliance.BLACK, false));
+        builder.setPiece(Pawn.of(Coordinate.of(0,2), Alliance.BLACK, false, false));
+        builder.setPiece(Pawn.of(Coordinate.of(6,2), Alliance.BLACK, false, false));
+        builder.setPiece(Pawn.of(Coordinate.of(7,2), Alliance.BLACK, false, false));
+        builder.setPiece(Rook.of(Coordinate.of(3,3), Alliance.BLACK, false));
+        builder.setPiece(Pawn.of(Coordinate.of(4,3), Alliance.BLACK, false, false));
+        builder.setPiece(King.of(Coordinate.of(5,3), Alliance.BLACK, false, false));
+        builder.setPiece(Pawn.of(Coordinate.of(5,4), Alliance.BLACK, true, false));
         //White piece
-        builder.setPiece(new Rook(new Coordinate(2,2), Alliance.WHITE, false));
-        builder.setPiece(new Rook(new Coordinate(5,2), Alliance.WHITE, false));
-        builder.setPiece(new Pawn(new Coordinate(0, 3), Alliance.WHITE, false, false));
-        builder.setPiece(new Pawn(new Coordinate(3, 5), Alliance.WHITE, false, false));
-        builder.setPiece(new Pawn(new Coordinate(5, 5), Alliance.WHITE, false, false));
-        builder.setPiece(new Pawn(new Coordinate(7, 5), Alliance.WHITE, false, false));
-        builder.setPiece(new Pawn(new Coordinate(6, 6), Alliance.WHITE, false, false));
-        builder.setPiece(new King(new Coordinate(6, 7), Alliance.WHITE, false, false));
+        builder.setPiece(Rook.of(Coordinate.of(2,2), Alliance.WHITE, false));
+        builder.setPiece(Rook.of(Coordinate.of(5,2), Alliance.WHITE, false));
+        builder.setPiece(Pawn.of(Coordinate.of(0, 3), Alliance.WHITE, false, false));
+        builder.setPiece(Pawn.of(Coordinate.of(3, 5), Alliance.WHITE, false, false));
+        builder.setPiece(Pawn.of(Coordinate.of(5, 5), Alliance.WHITE, false, false));
+        builder.setPiece(Pawn.of(Coordinate.of(7, 5), Alliance.WHITE, false, false));
+        builder.setPiece(Pawn.of(Coordinate.of(6, 6), Alliance.WHITE, false, false));
+        builder.setPiece(King.of(Coordinate.of(6, 7), Alliance.WHITE, false, false));
         builder.setMoveMaker(Alliance.BLACK);
         return builder.build();
     }
@@ -418,35 +585,35 @@ public class Board {
     public static Board createTutorBoardThree() {
         final Builder builder = new Builder();
         //Black pieces
-        builder.setPiece(new Rook(new Coordinate(0,0), Alliance.BLACK));
-        builder.setPiece(new Rook(new Coordinate(5,0), Alliance.BLACK, false));
-        builder.setPiece(new Pawn(new Coordinate(0,1), Alliance.BLACK, false));
-        builder.setPiece(new Bishop(new Coordinate(1,1), Alliance.BLACK, false));
-        builder.setPiece(new Pawn(new Coordinate(2,1), Alliance.BLACK, false));
-        builder.setPiece(new Knight(new Coordinate(3,1), Alliance.BLACK, false));
-        builder.setPiece(new Queen(new Coordinate(4,1), Alliance.BLACK, false));
-        builder.setPiece(new King(new Coordinate(5,1), Alliance.BLACK, false, false));
-        builder.setPiece(new Pawn(new Coordinate(6,1), Alliance.BLACK, false, false));
-        builder.setPiece(new Pawn(new Coordinate(1, 2), Alliance.BLACK, false, false));
-        builder.setPiece(new Pawn(new Coordinate(3, 2), Alliance.BLACK, false, false));
-        builder.setPiece(new Pawn(new Coordinate(4, 2), Alliance.BLACK, false, false));
-        builder.setPiece(new Bishop(new Coordinate(5, 2), Alliance.BLACK, false));
-        builder.setPiece(new Pawn(new Coordinate(7, 2), Alliance.BLACK, false, false));
+        builder.setPiece(Rook.of(Coordinate.of(0,0), Alliance.BLACK, true));
+        builder.setPiece(Rook.of(Coordinate.of(5,0), Alliance.BLACK, false));
+        builder.setPiece(Pawn.of(Coordinate.of(0,1), Alliance.BLACK, true, false));
+        builder.setPiece(Bishop.of(Coordinate.of(1,1), Alliance.BLACK, false));
+        builder.setPiece(Pawn.of(Coordinate.of(2,1), Alliance.BLACK, true, false));
+        builder.setPiece(Knight.of(Coordinate.of(3,1), Alliance.BLACK, false));
+        builder.setPiece(Queen.of(Coordinate.of(4,1), Alliance.BLACK, false));
+        builder.setPiece(King.of(Coordinate.of(5,1), Alliance.BLACK, false, false));
+        builder.setPiece(Pawn.of(Coordinate.of(6,1), Alliance.BLACK, false, false));
+        builder.setPiece(Pawn.of(Coordinate.of(1, 2), Alliance.BLACK, false, false));
+        builder.setPiece(Pawn.of(Coordinate.of(3, 2), Alliance.BLACK, false, false));
+        builder.setPiece(Pawn.of(Coordinate.of(4, 2), Alliance.BLACK, false, false));
+        builder.setPiece(Bishop.of(Coordinate.of(5, 2), Alliance.BLACK, false));
+        builder.setPiece(Pawn.of(Coordinate.of(7, 2), Alliance.BLACK, false, false));
         //White pieces
-        builder.setPiece(new Knight(new Coordinate(2, 3), Alliance.WHITE, false));
-        builder.setPiece(new Pawn(new Coordinate(3,4), Alliance.WHITE, false, false));
-        builder.setPiece(new Pawn(new Coordinate(6,4), Alliance.WHITE, false, false));
-        builder.setPiece(new Pawn(new Coordinate(7,4), Alliance.WHITE, false, false));
-        builder.setPiece(new Pawn(new Coordinate(2,5), Alliance.WHITE, false, false));
-        builder.setPiece(new Queen(new Coordinate(3,5), Alliance.WHITE, false));
-        builder.setPiece(new Knight(new Coordinate(5,5), Alliance.WHITE, false));
-        builder.setPiece(new Pawn(new Coordinate(0,6), Alliance.WHITE,  false));
-        builder.setPiece(new Pawn(new Coordinate(1,6), Alliance.WHITE,  false));
-        builder.setPiece(new Bishop(new Coordinate(2,6), Alliance.WHITE,  false));
-        builder.setPiece(new Pawn(new Coordinate(5,6), Alliance.WHITE,  false));
-        builder.setPiece(new King(new Coordinate(2,7), Alliance.WHITE,  false, true));
-        builder.setPiece(new Rook(new Coordinate(3,7), Alliance.WHITE, false));
-        builder.setPiece(new Rook(new Coordinate(7,7), Alliance.WHITE));
+        builder.setPiece(Knight.of(Coordinate.of(2, 3), Alliance.WHITE, false));
+        builder.setPiece(Pawn.of(Coordinate.of(3,4), Alliance.WHITE, false, false));
+        builder.setPiece(Pawn.of(Coordinate.of(6,4), Alliance.WHITE, false, false));
+        builder.setPiece(Pawn.of(Coordinate.of(7,4), Alliance.WHITE, false, false));
+        builder.setPiece(Pawn.of(Coordinate.of(2,5), Alliance.WHITE, false, false));
+        builder.setPiece(Queen.of(Coordinate.of(3,5), Alliance.WHITE, false));
+        builder.setPiece(Knight.of(Coordinate.of(5,5), Alliance.WHITE, false));
+        builder.setPiece(Pawn.of(Coordinate.of(0,6), Alliance.WHITE, true, false));
+        builder.setPiece(Pawn.of(Coordinate.of(1,6), Alliance.WHITE, true, false));
+        builder.setPiece(Bishop.of(Coordinate.of(2,6), Alliance.WHITE, false));
+        builder.setPiece(Pawn.of(Coordinate.of(5,6), Alliance.WHITE, true, false));
+        builder.setPiece(King.of(Coordinate.of(2,7), Alliance.WHITE, false, true));
+        builder.setPiece(Rook.of(Coordinate.of(3,7), Alliance.WHITE, false));
+        builder.setPiece(Rook.of(Coordinate.of(7,7), Alliance.WHITE, true));
         builder.setMoveMaker(Alliance.BLACK);
         return builder.build();
     }
@@ -458,28 +625,28 @@ public class Board {
     public static Board createTutorBoardFour() {
         final Builder builder = new Builder();
         //Black pieces
-        builder.setPiece(new Rook(new Coordinate(2,0), Alliance.BLACK, false));
-        builder.setPiece(new Rook(new Coordinate(4,0), Alliance.BLACK, false));
-        builder.setPiece(new King(new Coordinate(6,0), Alliance.BLACK, false, false));
-        builder.setPiece(new Pawn(new Coordinate(0, 1), Alliance.BLACK, false));
-        builder.setPiece(new Bishop(new Coordinate(1, 1), Alliance.BLACK, false));
-        builder.setPiece(new Pawn(new Coordinate(5, 1), Alliance.BLACK, false));
-        builder.setPiece(new Pawn(new Coordinate(6, 1), Alliance.BLACK, false));
-        builder.setPiece(new Pawn(new Coordinate(1, 2), Alliance.BLACK, false));
-        builder.setPiece(new Pawn(new Coordinate(7, 2), Alliance.BLACK, false));
-        builder.setPiece(new Queen(new Coordinate(6, 6), Alliance.BLACK, false));
+        builder.setPiece(Rook.of(Coordinate.of(2,0), Alliance.BLACK, false));
+        builder.setPiece(Rook.of(Coordinate.of(4,0), Alliance.BLACK, false));
+        builder.setPiece(King.of(Coordinate.of(6,0), Alliance.BLACK, false, false));
+        builder.setPiece(Pawn.of(Coordinate.of(0, 1), Alliance.BLACK, true, false));
+        builder.setPiece(Bishop.of(Coordinate.of(1, 1), Alliance.BLACK, false));
+        builder.setPiece(Pawn.of(Coordinate.of(5, 1), Alliance.BLACK, true, false));
+        builder.setPiece(Pawn.of(Coordinate.of(6, 1), Alliance.BLACK, true, false));
+        builder.setPiece(Pawn.of(Coordinate.of(1, 2), Alliance.BLACK, true, false));
+        builder.setPiece(Pawn.of(Coordinate.of(7, 2), Alliance.BLACK, true, false));
+        builder.setPiece(Queen.of(Coordinate.of(6, 6), Alliance.BLACK, false));
         //White pieces
-        builder.setPiece(new Knight(new Coordinate(5,3), Alliance.WHITE, false));
-        builder.setPiece(new Bishop(new Coordinate(6,3), Alliance.WHITE, false));
-        builder.setPiece(new Queen(new Coordinate(7,3), Alliance.WHITE, false));
-        builder.setPiece(new Pawn(new Coordinate(6,4), Alliance.WHITE, false, false));
-        builder.setPiece(new Rook(new Coordinate(2,5), Alliance.WHITE, false));
-        builder.setPiece(new Bishop(new Coordinate(3,5), Alliance.WHITE, false));
-        builder.setPiece(new Pawn(new Coordinate(4,5), Alliance.WHITE, false, false));
-        builder.setPiece(new Pawn(new Coordinate(0,6), Alliance.WHITE, false));
-        builder.setPiece(new Pawn(new Coordinate(1,6), Alliance.WHITE, false));
-        builder.setPiece(new Pawn(new Coordinate(7,6), Alliance.WHITE, false));
-        builder.setPiece(new King(new Coordinate(4,6), Alliance.WHITE));
+        builder.setPiece(Knight.of(Coordinate.of(5,3), Alliance.WHITE, false));
+        builder.setPiece(Bishop.of(Coordinate.of(6,3), Alliance.WHITE, false));
+        builder.setPiece(Queen.of(Coordinate.of(7,3), Alliance.WHITE, false));
+        builder.setPiece(Pawn.of(Coordinate.of(6,4), Alliance.WHITE, false, false));
+        builder.setPiece(Rook.of(Coordinate.of(2,5), Alliance.WHITE, false));
+        builder.setPiece(Bishop.of(Coordinate.of(3,5), Alliance.WHITE, false));
+        builder.setPiece(Pawn.of(Coordinate.of(4,5), Alliance.WHITE, false, false));
+        builder.setPiece(Pawn.of(Coordinate.of(0,6), Alliance.WHITE, true, false));
+        builder.setPiece(Pawn.of(Coordinate.of(1,6), Alliance.WHITE, true, false));
+        builder.setPiece(Pawn.of(Coordinate.of(7,6), Alliance.WHITE, true, false));
+        builder.setPiece(King.of(Coordinate.of(4,6), Alliance.WHITE, true, false));
         builder.setMoveMaker(Alliance.BLACK);
         return builder.build();
     }
@@ -492,6 +659,8 @@ public class Board {
         Alliance nextMoveMaker;
         Pawn enPassantPawn;
         Move transitionMove = null;
+        Long zobristKey = null;
+        Integer castlingRights = null;
 
         /**
          * Construct a Builder object with an empty map.
@@ -534,6 +703,23 @@ public class Board {
             this.transitionMove = transitionMove;
         }
 
+        /**
+         * Set the Zobrist key of the board, calculated by the move that changes the board
+         * @param zobristKey of the board to build
+         */
+        void setZobristKey(final long zobristKey) {
+            this.zobristKey = zobristKey;
+        }
+
+        /**
+         * Set the castling rights of the board, derived by the move that changes the board from the rights of the
+         * board before it
+         * @param castlingRights of the board to build, see Zobrist
+         */
+        void setCastlingRights(final int castlingRights) {
+            this.castlingRights = castlingRights;
+        }
+
         /**
          * Construct a new board object with the "settings" for this Builder object
          * @return a Board object
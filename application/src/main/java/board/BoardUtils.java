@@ -10,14 +10,12 @@ public class BoardUtils {
     private static BoardUtils boardUtils = null;
     private final Map<Coordinate, String> COORDINATE_TO_ALGEBRAIC;
     private final Map<String, Coordinate> ALGEBRAIC_TO_COORDINATE;
-    private final Map<Coordinate, Integer> COORDINATE_TO_INTEGER;
     private final int height;
     private final int width;
 
     private BoardUtils() {
         this.COORDINATE_TO_ALGEBRAIC = initializeAlgebraicNotation();
         this.ALGEBRAIC_TO_COORDINATE = initializeAlgebraicToCoordinateMap();
-        this.COORDINATE_TO_INTEGER = initializeIntegerToCoordinateMap();
         this.height = 8;
         this.width = 8;
     }
@@ -84,7 +82,7 @@ public class BoardUtils {
      * @return integer representation
      */
     public int getIntegerRepresentationFromCoordinate(Coordinate coordinate) {
-        return COORDINATE_TO_INTEGER.get(coordinate);
+        return coordinate.getIndex();
     }
 
     /**
@@ -99,7 +97,7 @@ public class BoardUtils {
         for (int i = 0; i < 8; i++) {
             for (int j = 0; j < 8; j++) {
                 String algebraic = letter++ + "" + (8 - i);
-                coordToString.put(new Coordinate(j, i), algebraic);
+                coordToString.put(Coordinate.of(j, i), algebraic);
             }
             letter = 'a';
         }
@@ -115,28 +113,12 @@ public class BoardUtils {
         Map<String, Coordinate> stringToCoord = new HashMap<>();
         for (int i = 0; i < 8; i++) {
             for (int j = 0; j < 8; j++) {
-                stringToCoord.put(COORDINATE_TO_ALGEBRAIC.get(new Coordinate(j, i)), new Coordinate(j, i));
+                stringToCoord.put(COORDINATE_TO_ALGEBRAIC.get(Coordinate.of(j, i)), Coordinate.of(j, i));
             }
         }
         return stringToCoord;
     }
 
-    /**
-     * Maps all coordinates on the board to a integer representation (8x8 = 0-64 ints)
-     *
-     * @return Map with key Coordinate and value Integer
-     */
-    private Map<Coordinate, Integer> initializeIntegerToCoordinateMap() {
-        Map<Coordinate, Integer> coordToInteger = new HashMap<>();
-        int integerRepresentation = 0;
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                coordToInteger.put(new Coordinate(j,i), integerRepresentation++);
-            }
-        }
-        return coordToInteger;
-    }
-
     /**
      * Retrieve the last moves (n) that has happened on a board
      * @param board to get moves from
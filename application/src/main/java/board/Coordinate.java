@@ -1,12 +1,19 @@
 package board;
 
-import java.util.Objects;
-
 /**
  * Class represent a coordinate with x and y values
  */
 public class Coordinate {
+    // the engine works on a 8x8 board, see BoardUtils
+    private static final int BOARD_WIDTH = 8, BOARD_HEIGHT = 8;
+
+    /**
+     * an array that contains a shared coordinate for every square on the board, indexed by square index
+     */
+    private static final Coordinate[] COORDINATE_CACHE = createAllCoordinates();
+
     private final int x, y;
+    private final int index;
 
     /**
      * Construct a new coordinate
@@ -16,6 +23,42 @@ public class Coordinate {
     public Coordinate(int x, int y) {
         this.x = x;
         this.y = y;
+        this.index = y * BOARD_WIDTH + x;
+    }
+
+    /**
+     * Creates one coordinate for every square on the board
+     * @return array where the coordinate with square index n is placed at position n
+     */
+    private static Coordinate[] createAllCoordinates() {
+        final Coordinate[] coordinates = new Coordinate[BOARD_WIDTH * BOARD_HEIGHT];
+        for (int i = 0; i < BOARD_HEIGHT; i++) {
+            for (int j = 0; j < BOARD_WIDTH; j++) {
+                coordinates[i * BOARD_WIDTH + j] = new Coordinate(j, i);
+            }
+        }
+        return coordinates;
+    }
+
+    /**
+     * Get the shared coordinate object for the given x and y values.
+     * Coordinates outside of the board are not cached, a new object is returned for those.
+     * @param x value of coordinate
+     * @param y value of coordinate
+     * @return Coordinate with the given values
+     */
+    public static Coordinate of(int x, int y) {
+        if (x >= 0 && x < BOARD_WIDTH && y >= 0 && y < BOARD_HEIGHT) return COORDINATE_CACHE[y * BOARD_WIDTH + x];
+        return new Coordinate(x, y);
+    }
+
+    /**
+     * Get the shared coordinate object for a square index
+     * @param index of the square (0-63)
+     * @return Coordinate of the given square
+     */
+    public static Coordinate of(int index) {
+        return COORDINATE_CACHE[index];
     }
 
     /**
@@ -32,6 +75,15 @@ public class Coordinate {
         return y;
     }
 
+    /**
+     * The square index of a coordinate is y * 8 + x, (a8 = 0, h1 = 63).
+     * Only meaningful for coordinates that are on the board.
+     * @return square index of coordinate
+     */
+    public int getIndex() {
+        return index;
+    }
+
     @Override
     public String toString() {
         return "Coordinate{" +
@@ -51,6 +103,6 @@ public class Coordinate {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y);
+        return 31 * x + y;
     }
 }
@@ -2,8 +2,10 @@ package board;
 
 import pieces.*;
 import pieces.Piece.PieceType;
+import player.Player;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
@@ -105,9 +107,42 @@ public abstract class Move {
         builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
         // this move changed the board
         builder.setMoveTransition(this);
+        builder.setCastlingRights(nextCastlingRights());
+        builder.setZobristKey(nextZobristKey(movedPieceKeys(), -1));
         return builder.build();
     }
 
+    /**
+     * @return XOR of the Zobrist keys of the moved piece on its current square and on its destination
+     */
+    long movedPieceKeys() {
+        return Zobrist.piece(this.movedPiece) ^
+               Zobrist.piece(this.movedPiece.getPieceType(), this.movedPiece.getPieceAlliance(), this.destinationCoordinate.getIndex());
+    }
+
+    /**
+     * The castling rights lost by the move follow from the squares it moves from and to
+     * @return castling rights of the board after this move, see Zobrist
+     */
+    int nextCastlingRights() {
+        int lostRights = Zobrist.rightsLostAt(this.movedPiece.getPieceCoordinate().getIndex()) |
+                         Zobrist.rightsLostAt(this.destinationCoordinate.getIndex());
+        if (this.movedPiece.getPieceType() == PieceType.KING) lostRights |= Zobrist.rightsOf(this.movedPiece.getPieceAlliance());
+        return this.board.getCastlingRights() & ~lostRights;
+    }
+
+    /**
+     * Calculates the Zobrist key of the board after this move from the key of the board the move is made on
+     * @param pieceChanges XOR of the keys of the pieces the move removes and places
+     * @param enPassantFile file of the pawn that can be taken 'en passant' after the move, -1 if there is none
+     * @return Zobrist key of the next board
+     */
+    long nextZobristKey(long pieceChanges, int enPassantFile) {
+        return this.board.getZobristKey() ^ pieceChanges ^ Zobrist.blackToMove() ^
+               Zobrist.castling(this.board.getCastlingRights()) ^ Zobrist.castling(nextCastlingRights()) ^
+               Zobrist.enPassant(Zobrist.enPassantFile(this.board)) ^ Zobrist.enPassant(enPassantFile);
+    }
+
     /**
      * @return Board object which the move is operating on
      */
@@ -267,16 +302,21 @@ public abstract class Move {
 
             Piece upgradePiece;
             switch (upgradeType) {
-                case QUEEN: {upgradePiece = new Queen(decoratedMove.getDestinationCoordinate(), promotedPawn.getPieceAlliance(), false); break;}
-                case KNIGHT: {upgradePiece = new Knight(decoratedMove.getDestinationCoordinate(), promotedPawn.getPieceAlliance(), false); break;}
-                case BISHOP: {upgradePiece = new Bishop(decoratedMove.getDestinationCoordinate(), promotedPawn.getPieceAlliance(), false); break;}
-                case ROOK: {upgradePiece = new Rook(decoratedMove.getDestinationCoordinate(), promotedPawn.getPieceAlliance(), false); break;}
-                default: upgradePiece = new Queen(decoratedMove.getDestinationCoordinate(), promotedPawn.getPieceAlliance(), false);
+                case QUEEN: {upgradePiece = Queen.of(decoratedMove.getDestinationCoordinate(), promotedPawn.getPieceAlliance(), false); break;}
+                case KNIGHT: {upgradePiece = Knight.of(decoratedMove.getDestinationCoordinate(), promotedPawn.getPieceAlliance(), false); break;}
+                case BISHOP: {upgradePiece = Bishop.of(decoratedMove.getDestinationCoordinate(), promotedPawn.getPieceAlliance(), false); break;}
+                case ROOK: {upgradePiece = Rook.of(decoratedMove.getDestinationCoordinate(), promotedPawn.getPieceAlliance(), false); break;}
+                default: upgradePiece = Queen.of(decoratedMove.getDestinationCoordinate(), promotedPawn.getPieceAlliance(), false);
             }
             builder.setPiece(upgradePiece);
 
             builder.setMoveMaker(pawnMovedBoard.currentPlayer().getAlliance());
             builder.setMoveTransition(this);
+            builder.setCastlingRights(pawnMovedBoard.getCastlingRights());
+            // swap the pawn for the upgraded piece in the key of the board where the pawn has moved
+            builder.setZobristKey(pawnMovedBoard.getZobristKey() ^
+                    Zobrist.piece(PieceType.PAWN, promotedPawn.getPieceAlliance(), decoratedMove.getDestinationCoordinate().getIndex()) ^
+                    Zobrist.piece(upgradePiece));
             return builder.build();
         }
 
@@ -342,6 +382,9 @@ public abstract class Move {
             builder.setEnPassantPawn(movedPawn);
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
             builder.setMoveTransition(this);
+            builder.setCastlingRights(nextCastlingRights());
+            builder.setZobristKey(nextZobristKey(movedPieceKeys(), Zobrist.enPassantFile(this.board.getBitBoard(),
+                    this.destinationCoordinate.getIndex(), movedPawn.getPieceAlliance())));
             return builder.build();
         }
     }
@@ -384,9 +427,12 @@ public abstract class Move {
             }
             builder.setPiece(this.movedPiece.movePiece(this));
             // set a new rook that represents the one involved in the castling
-            builder.setPiece(new Rook(this.castleRookDestination, this.castleRook.getPieceAlliance(), false));
+            builder.setPiece(Rook.of(this.castleRookDestination, this.castleRook.getPieceAlliance(), false));
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
             builder.setMoveTransition(this);
+            builder.setCastlingRights(nextCastlingRights());
+            builder.setZobristKey(nextZobristKey(movedPieceKeys() ^ Zobrist.piece(this.castleRook) ^
+                    Zobrist.piece(PieceType.ROOK, this.castleRook.getPieceAlliance(), this.castleRookDestination.getIndex()), -1));
             return builder.build();
         }
 
@@ -481,6 +527,8 @@ public abstract class Move {
             builder.setPiece(this.movedPiece.movePiece(this));
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getAlliance());
             builder.setMoveTransition(this);
+            builder.setCastlingRights(nextCastlingRights());
+            builder.setZobristKey(nextZobristKey(movedPieceKeys() ^ Zobrist.piece(this.getAttackedPiece()), -1));
             return builder.build();
         }
 
@@ -576,20 +624,75 @@ public abstract class Move {
             throw new RuntimeException("Do not initialise");
         }
 
+        /**
+         * Finds the move of a board between two coordinates, looked up in the moves of the player to move first
+         * @param board the move is made on
+         * @param currentCoordinate coordinate the piece moves from
+         * @param destinationCoordinate coordinate the piece moves to
+         * @return the move of the board, the first promotion for a pawn that promotes, a NullMove if there is none
+         */
         public static Move createMove(Board board, Coordinate currentCoordinate, Coordinate destinationCoordinate) {
-            for (Move move : board.getAllLegalMoves()) {
-                if (move.getCurrentCoordinate().equals(currentCoordinate) &&
-                    move.getDestinationCoordinate().equals(destinationCoordinate)) {
-                    return move;
+            return createMove(board, currentCoordinate, destinationCoordinate, null);
+        }
+
+        /**
+         * Finds the move of a board between two coordinates that promotes to the given type
+         * @param board the move is made on
+         * @param currentCoordinate coordinate the piece moves from
+         * @param destinationCoordinate coordinate the piece moves to
+         * @param promotionType type the pawn promotes to, null for the first move between the coordinates
+         * @return the move of the board, a NullMove if there is none
+         */
+        public static Move createMove(Board board, Coordinate currentCoordinate, Coordinate destinationCoordinate,
+                                      PieceType promotionType) {
+            for (Player player : Arrays.asList(board.currentPlayer(), board.currentPlayer().getOpponent())) {
+                for (Move move : player.getLegalMovesBetween(currentCoordinate, destinationCoordinate)) {
+                    if (promotionType == null ||
+                            (move instanceof PawnPromotion && ((PawnPromotion) move).getUpgradeType() == promotionType)) {
+                        return move;
+                    }
                 }
             }
             return NULL_MOVE;
         }
 
+        /**
+         * Finds the move of a board that corresponds to a packed move
+         * @param board the move is made on
+         * @param packedMove see PackedMove
+         * @return the move of the board, a NullMove if there is none
+         */
+        public static Move createMove(Board board, int packedMove) {
+            if (packedMove == PackedMove.NO_MOVE) return NULL_MOVE;
+            return createMove(board, Coordinate.of(PackedMove.getFrom(packedMove)),
+                    Coordinate.of(PackedMove.getTo(packedMove)), PackedMove.getPromotionType(packedMove));
+        }
+
+        /**
+         * Packs a move into an int, see PackedMove
+         * @param move to pack
+         * @return the packed move, PackedMove.NO_MOVE for a NullMove
+         */
+        public static int toPackedMove(Move move) {
+            if (move.getMovedPiece() == null) return PackedMove.NO_MOVE;
+            int flags = 0;
+            if (move.isCastlingMove()) flags |= PackedMove.CASTLE_FLAG;
+            if (move instanceof PawnEnPassantAttackMove) flags |= PackedMove.EN_PASSANT_FLAG;
+            if (move instanceof PawnJump) flags |= PackedMove.PAWN_JUMP_FLAG;
+            return PackedMove.create(move.getCurrentCoordinate().getIndex(),
+                    move.getDestinationCoordinate().getIndex(),
+                    move.getMovedPiece().getPieceType(),
+                    move.isAttack() ? move.getAttackedPiece().getPieceType() : null,
+                    move instanceof PawnPromotion ? ((PawnPromotion) move).getUpgradeType() : null,
+                    flags);
+        }
+
         public static List<PawnPromotion> getPromotionMoves(Board board) {
             List<PawnPromotion> promotionMoves = new ArrayList<>();
-            for (Move move : board.getAllLegalMoves()) {
-                if (move instanceof PawnPromotion) promotionMoves.add((PawnPromotion) move);
+            for (Player player : Arrays.asList(board.currentPlayer(), board.currentPlayer().getOpponent())) {
+                for (Move move : player.getLegalMoves()) {
+                    if (move instanceof PawnPromotion) promotionMoves.add((PawnPromotion) move);
+                }
             }
             return promotionMoves;
         }
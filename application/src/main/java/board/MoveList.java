@@ -0,0 +1,121 @@
+package board;
+
+import java.util.Arrays;
+
+/**
+ * A list of packed moves backed by an int array.
+ * A move list is meant to be reused: a generator clears it and adds moves to it, which does not allocate
+ * as long as the moves fit in the capacity of the list.
+ *
+ * @see PackedMove
+ */
+public final class MoveList {
+    /**
+     * Upper bound for the number of moves a side can have in one position
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private int[] moves;
+    private int size;
+
+    /**
+     * Constructs an empty move list with the default capacity
+     */
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty move list
+     * @param capacity number of moves the list holds before it has to grow
+     */
+    public MoveList(int capacity) {
+        this.moves = new int[capacity];
+    }
+
+    /**
+     * Adds a move to the end of the list
+     * @param move packed move
+     */
+    public void add(int move) {
+        if (this.size == this.moves.length) this.moves = Arrays.copyOf(this.moves, Math.max(1, this.size * 2));
+        this.moves[this.size++] = move;
+    }
+
+    /**
+     * @param index of the move
+     * @return the packed move at the index
+     */
+    public int get(int index) {
+        if (index >= this.size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        return this.moves[index];
+    }
+
+    /**
+     * Replaces the move at an index, used when the moves are ordered
+     * @param index of the move
+     * @param move packed move
+     */
+    public void set(int index, int move) {
+        if (index >= this.size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        this.moves[index] = move;
+    }
+
+    /**
+     * @return number of moves in the list
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Drops the moves past the given size, used when the moves are filtered in place
+     * @param size new number of moves, not larger than the current size
+     */
+    public void truncate(int size) {
+        if (size > this.size) throw new IndexOutOfBoundsException("Size: " + size + ", Size: " + this.size);
+        this.size = size;
+    }
+
+    /**
+     * @return true if the list holds no moves
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Removes all moves, the capacity of the list is kept
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * @param move packed move
+     * @return true if the list holds the move
+     */
+    public boolean contains(int move) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.moves[i] == move) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return a copy of the moves in the list
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(this.moves, this.size);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < this.size; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(PackedMove.toString(this.moves[i]));
+        }
+        return builder.append("]").toString();
+    }
+}
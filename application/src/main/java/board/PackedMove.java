@@ -0,0 +1,157 @@
+package board;
+
+import pieces.Piece.PieceType;
+
+/**
+ * A move packed into a single int, used by the search where creating a Move object for every move is too costly.
+ * The bits of a packed move are:
+ *
+ *     bits  0-5   square the move starts from
+ *     bits  6-11  square the move ends on
+ *     bits 12-14  type of the moved piece (ordinal)
+ *     bits 15-17  type of the captured piece (ordinal + 1, 0 if nothing is captured)
+ *     bits 18-20  type a pawn is promoted to (ordinal + 1, 0 if the move is not a promotion)
+ *     bit  21     castling move
+ *     bit  22     'en passant' attack
+ *     bit  23     pawn jump
+ *
+ * Squares use the index of Coordinate.getIndex. MoveFactory converts between packed moves and Move objects.
+ */
+public final class PackedMove {
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int TYPE_MASK = 0x7;
+    private static final int TO_SHIFT = 6;
+    private static final int PIECE_SHIFT = 12;
+    private static final int CAPTURED_SHIFT = 15;
+    private static final int PROMOTION_SHIFT = 18;
+
+    public static final int CASTLE_FLAG = 1 << 21;
+    public static final int EN_PASSANT_FLAG = 1 << 22;
+    public static final int PAWN_JUMP_FLAG = 1 << 23;
+
+    /**
+     * Number of bits used by a packed move, higher bits are always 0
+     */
+    public static final int BITS = 24;
+
+    /**
+     * Value that never represents a move (a piece can't move to its own square)
+     */
+    public static final int NO_MOVE = 0;
+
+    private PackedMove() {
+        throw new RuntimeException("Do not initialise");
+    }
+
+    /**
+     * Packs a move
+     * @param from square the move starts from
+     * @param to square the move ends on
+     * @param piece type of the moved piece
+     * @param captured type of the captured piece, null if nothing is captured
+     * @param promotion type a pawn is promoted to, null if the move is not a promotion
+     * @param flags any of CASTLE_FLAG, EN_PASSANT_FLAG and PAWN_JUMP_FLAG
+     * @return the packed move
+     */
+    public static int create(int from, int to, PieceType piece, PieceType captured, PieceType promotion, int flags) {
+        return from | to << TO_SHIFT | piece.ordinal() << PIECE_SHIFT |
+                (captured == null ? 0 : captured.ordinal() + 1) << CAPTURED_SHIFT |
+                (promotion == null ? 0 : promotion.ordinal() + 1) << PROMOTION_SHIFT | flags;
+    }
+
+    /**
+     * @param move packed move
+     * @return square the move starts from
+     */
+    public static int getFrom(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    /**
+     * @param move packed move
+     * @return square the move ends on
+     */
+    public static int getTo(int move) {
+        return (move >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    /**
+     * @param move packed move
+     * @return type of the moved piece
+     */
+    public static PieceType getPieceType(int move) {
+        return PIECE_TYPES[(move >>> PIECE_SHIFT) & TYPE_MASK];
+    }
+
+    /**
+     * @param move packed move
+     * @return type of the captured piece, null if the move captures nothing
+     */
+    public static PieceType getCapturedType(int move) {
+        final int captured = (move >>> CAPTURED_SHIFT) & TYPE_MASK;
+        return captured == 0 ? null : PIECE_TYPES[captured - 1];
+    }
+
+    /**
+     * @param move packed move
+     * @return the type a pawn is promoted to, null if the move is not a promotion
+     */
+    public static PieceType getPromotionType(int move) {
+        final int promotion = (move >>> PROMOTION_SHIFT) & TYPE_MASK;
+        return promotion == 0 ? null : PIECE_TYPES[promotion - 1];
+    }
+
+    /**
+     * @param move packed move
+     * @return true if the move captures a piece
+     */
+    public static boolean isCapture(int move) {
+        return ((move >>> CAPTURED_SHIFT) & TYPE_MASK) != 0;
+    }
+
+    /**
+     * @param move packed move
+     * @return true if the move is a promotion
+     */
+    public static boolean isPromotion(int move) {
+        return ((move >>> PROMOTION_SHIFT) & TYPE_MASK) != 0;
+    }
+
+    /**
+     * @param move packed move
+     * @return true if the move is a castling move
+     */
+    public static boolean isCastle(int move) {
+        return (move & CASTLE_FLAG) != 0;
+    }
+
+    /**
+     * @param move packed move
+     * @return true if the move is an 'en passant' attack
+     */
+    public static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT_FLAG) != 0;
+    }
+
+    /**
+     * @param move packed move
+     * @return true if the move is a pawn jump
+     */
+    public static boolean isPawnJump(int move) {
+        return (move & PAWN_JUMP_FLAG) != 0;
+    }
+
+    /**
+     * @param move packed move
+     * @return the move in algebraic notation (from-to square, plus the promotion type), for debugging
+     */
+    public static String toString(int move) {
+        final BoardUtils utils = BoardUtils.getInstance();
+        final PieceType promotion = getPromotionType(move);
+        return utils.getAlgebraicNotationFromCoordinate(Coordinate.of(getFrom(move))) +
+                utils.getAlgebraicNotationFromCoordinate(Coordinate.of(getTo(move))) +
+                (promotion == null ? "" : promotion.toString());
+    }
+}
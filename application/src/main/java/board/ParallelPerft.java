@@ -0,0 +1,244 @@
+package board;
+
+import player.MoveTransition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Perft on all cores. A Board never changes, so the subtrees of a position can be counted by different threads
+ * without sharing anything but the result. The tree is split into fork/join tasks for the first splitDepth plys
+ * (1 = one task per root move), below that every task counts its subtree on its own thread.
+ *
+ * An optional hash table keeps the count of every subtree by Zobrist key and depth, and is shared by all threads.
+ * It is lock free: an entry is stored as the key XOR the data next to the data, an entry torn by two threads
+ * writing at once does not verify and is a miss.
+ * Note: the key does not hold the first move flag of a pawn, use the table only for positions where pawns that
+ * have not moved are on their home row (not horde mode).
+ *
+ * Usage: java board.ParallelPerft [depth] [position name or FEN] [threads=n] [split=n] [hash=MB]
+ *
+ * @see Perft
+ */
+public final class ParallelPerft {
+    private static final int DEFAULT_DEPTH = 5, DEFAULT_SPLIT_DEPTH = 2;
+
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+    private final HashTable hashTable;
+
+    // positions counted by every thread and the time it spent on it, from the subtrees it walked itself
+    private final Map<String, LongAdder> threadNodes = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> threadNanos = new ConcurrentHashMap<>();
+    private final LongAdder hashHits = new LongAdder();
+
+    /**
+     * @param threads    number of worker threads
+     * @param splitDepth number of plys from the root that are split into parallel tasks, at least 1
+     * @param hashSizeMb size of the shared hash table in megabytes, 0 for no table
+     */
+    public ParallelPerft(int threads, int splitDepth, int hashSizeMb) {
+        if (threads < 1 || splitDepth < 1 || hashSizeMb < 0) throw new IllegalArgumentException("Invalid perft settings");
+        this.pool = new ForkJoinPool(threads);
+        this.splitDepth = splitDepth;
+        this.hashTable = hashSizeMb == 0 ? null : new HashTable(hashSizeMb);
+    }
+
+    /**
+     * Counts the positions reached after the given number of moves, see Perft.perft
+     * @param board to start from
+     * @param depth number of moves
+     * @return number of positions
+     */
+    public long perft(Board board, int depth) {
+        return this.pool.invoke(new PerftTask(board, depth, 0));
+    }
+
+    /**
+     * @return number of positions counted by every worker thread, by thread name
+     */
+    public Map<String, Long> getThreadNodes() {
+        final Map<String, Long> nodes = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : this.threadNodes.entrySet()) nodes.put(entry.getKey(), entry.getValue().sum());
+        return nodes;
+    }
+
+    /**
+     * @return nanoseconds every worker thread spent walking its own subtrees, by thread name
+     */
+    public Map<String, Long> getThreadNanos() {
+        final Map<String, Long> nanos = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : this.threadNanos.entrySet()) nanos.put(entry.getKey(), entry.getValue().sum());
+        return nanos;
+    }
+
+    /**
+     * @return number of subtrees found in the hash table
+     */
+    public long getHashHits() {
+        return this.hashHits.sum();
+    }
+
+    /**
+     * Stops the worker threads
+     */
+    public void shutdown() {
+        this.pool.shutdown();
+    }
+
+    /**
+     * Counts a subtree on the current thread
+     */
+    private long perftSequential(Board board, int depth) {
+        if (depth == 0) return 1;
+        final long cached = probe(board, depth);
+        if (cached >= 0) return cached;
+        long nodes = 0;
+        for (Move move : board.currentPlayer().getLegalMoves()) {
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if (transition.getMoveStatus().isDone()) nodes += perftSequential(transition.getTransitionBoard(), depth - 1);
+        }
+        store(board, depth, nodes);
+        return nodes;
+    }
+
+    private long probe(Board board, int depth) {
+        if (this.hashTable == null || depth < 2) return -1;
+        final long nodes = this.hashTable.probe(board.getZobristKey(), depth);
+        if (nodes >= 0) this.hashHits.increment();
+        return nodes;
+    }
+
+    private void store(Board board, int depth, long nodes) {
+        if (this.hashTable != null && depth >= 2) this.hashTable.store(board.getZobristKey(), depth, nodes);
+    }
+
+    /**
+     * Counts a subtree, by forking a task for every move while the task is within splitDepth plys of the root
+     */
+    private final class PerftTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final Board board;
+        private final int depth, ply;
+
+        PerftTask(Board board, int depth, int ply) {
+            this.board = board;
+            this.depth = depth;
+            this.ply = ply;
+        }
+
+        @Override
+        protected Long compute() {
+            if (this.ply >= splitDepth || this.depth <= 1) {
+                final long start = System.nanoTime();
+                final long nodes = perftSequential(this.board, this.depth);
+                final String thread = Thread.currentThread().getName();
+                threadNodes.computeIfAbsent(thread, name -> new LongAdder()).add(nodes);
+                threadNanos.computeIfAbsent(thread, name -> new LongAdder()).add(System.nanoTime() - start);
+                return nodes;
+            }
+            final long cached = probe(this.board, this.depth);
+            if (cached >= 0) return cached;
+
+            final List<PerftTask> tasks = new ArrayList<>();
+            for (Move move : this.board.currentPlayer().getLegalMoves()) {
+                final MoveTransition transition = this.board.currentPlayer().makeMove(move);
+                if (transition.getMoveStatus().isDone()) {
+                    tasks.add(new PerftTask(transition.getTransitionBoard(), this.depth - 1, this.ply + 1));
+                }
+            }
+            long nodes = 0;
+            for (PerftTask task : invokeAll(tasks)) nodes += task.join();
+            store(this.board, this.depth, nodes);
+            return nodes;
+        }
+    }
+
+    /**
+     * Table of subtree counts, one entry of two longs per slot: key ^ data and data, where data holds the count
+     * in the upper 56 bits and the depth in the lower 8 bits
+     */
+    private static final class HashTable {
+        private static final int DEPTH_BITS = 8;
+        private static final long DEPTH_MASK = (1L << DEPTH_BITS) - 1;
+
+        private final long[] keys, data;
+        private final int mask;
+
+        HashTable(int sizeMb) {
+            // two longs of 8 bytes per entry, rounded down to a power of two
+            final int entries = Integer.highestOneBit((int) Math.min(1L << 30, sizeMb * (1L << 20) / 16));
+            this.keys = new long[entries];
+            this.data = new long[entries];
+            this.mask = entries - 1;
+        }
+
+        long probe(long key, int depth) {
+            final int index = (int) key & this.mask;
+            final long entry = this.data[index];
+            if ((this.keys[index] ^ entry) != key || (entry & DEPTH_MASK) != depth) return -1;
+            return entry >>> DEPTH_BITS;
+        }
+
+        void store(long key, int depth, long nodes) {
+            final int index = (int) key & this.mask;
+            final long entry = nodes << DEPTH_BITS | depth;
+            this.keys[index] = key ^ entry;
+            this.data[index] = entry;
+        }
+    }
+
+    /**
+     * Runs a parallel perft from the command line and prints the count and throughput of every thread, over the
+     * time it spent walking its own subtrees, and the total throughput over the time of the whole run
+     * @param args [depth] [position name or FEN] [threads=n] [split=n] [hash=MB]
+     */
+    public static void main(String[] args) {
+        int depth = DEFAULT_DEPTH, threads = Runtime.getRuntime().availableProcessors(), split = DEFAULT_SPLIT_DEPTH, hash = 0;
+        Perft.ReferencePosition referencePosition = Perft.ReferencePosition.START;
+        String fen = null;
+        for (String arg : args) {
+            if (arg.startsWith("threads=")) threads = Integer.parseInt(arg.substring("threads=".length()));
+            else if (arg.startsWith("split=")) split = Integer.parseInt(arg.substring("split=".length()));
+            else if (arg.startsWith("hash=")) hash = Integer.parseInt(arg.substring("hash=".length()));
+            else if (arg.matches("\\d+")) depth = Integer.parseInt(arg);
+            else {
+                fen = arg;
+                for (Perft.ReferencePosition position : Perft.ReferencePosition.values()) {
+                    if (position.name().equalsIgnoreCase(arg)) {
+                        referencePosition = position;
+                        fen = null;
+                    }
+                }
+            }
+        }
+
+        final Board board = fen != null ? Board.createBoardFromFen(fen) : referencePosition.createBoard();
+        final ParallelPerft parallelPerft = new ParallelPerft(threads, split, hash);
+        final long start = System.nanoTime();
+        final long nodes = parallelPerft.perft(board, depth);
+        final long nanos = Math.max(1, System.nanoTime() - start);
+        parallelPerft.shutdown();
+
+        final Map<String, Long> threadNanos = parallelPerft.getThreadNanos();
+        for (Map.Entry<String, Long> entry : parallelPerft.getThreadNodes().entrySet()) {
+            final long busyNanos = threadNanos.get(entry.getKey());
+            System.out.println(String.format("\t%-28s %,14d nodes %,10d ms busy %,14d nodes/s busy",
+                    entry.getKey(), entry.getValue(), busyNanos / 1_000_000, Perft.nodesPerSecond(entry.getValue(), busyNanos)));
+        }
+        String result = "";
+        if (fen == null && depth >= 1 && depth <= referencePosition.getMaxDepth()) {
+            result = nodes == referencePosition.getNodes(depth) ? "OK" : "FAIL (expected " + referencePosition.getNodes(depth) + ")";
+        }
+        System.out.println(String.format("%-18s depth %d: %,14d nodes %,10d ms %,14d nodes/s  %d threads, %,d hash hits  %s",
+                fen != null ? fen : referencePosition.name(), depth, nodes, nanos / 1_000_000,
+                Perft.nodesPerSecond(nodes, nanos), threads, parallelPerft.getHashHits(), result));
+    }
+}
@@ -0,0 +1,194 @@
+package board;
+
+import player.MoveTransition;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Perft ("performance test") counts the positions at a given depth of the game tree. Comparing the counts with
+ * known values proves the move generator right, and timing them measures how fast it is.
+ * Divide gives the count for every move of the first position, to find the move where a wrong count starts.
+ *
+ * Board perft is built on Player.makeMove and Move.execute, the way the game makes moves. SearchBoard perft walks
+ * the tree of the search with makeLegalMove and unmakeMove.
+ *
+ * Usage: java board.Perft [depth] [position name or FEN] [divide] [search]
+ * Without a position every reference position is counted, without a depth to a depth of 3.
+ *
+ * @see <a href="https://chessprogramming.wikispaces.com/Perft+Results">Perft Results</a>
+ */
+public final class Perft {
+    private static final int DEFAULT_DEPTH = 3;
+
+    /**
+     * Positions with known node counts, chosen to go through castling, 'en passant' and promotions
+     */
+    public enum ReferencePosition {
+        START("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq -", 20, 400, 8902, 197281, 4865609),
+        KIWIPETE("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -", 48, 2039, 97862, 4085603, 193690690),
+        EN_PASSANT("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - -", 14, 191, 2812, 43238, 674624),
+        PROMOTION("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq -", 6, 264, 9467, 422333, 15833292),
+        CAPTURE_PROMOTION("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ -", 44, 1486, 62379, 2103487, 89941194);
+
+        private final String fen;
+        // node count for depth 1, 2, ...
+        private final long[] nodes;
+
+        ReferencePosition(String fen, long... nodes) {
+            this.fen = fen;
+            this.nodes = nodes;
+        }
+
+        /**
+         * @return the position in Forsyth-Edwards Notation
+         */
+        public String getFen() {
+            return this.fen;
+        }
+
+        /**
+         * @return a new board with the position
+         */
+        public Board createBoard() {
+            return Board.createBoardFromFen(this.fen);
+        }
+
+        /**
+         * @return deepest depth with a known node count
+         */
+        public int getMaxDepth() {
+            return this.nodes.length;
+        }
+
+        /**
+         * @param depth from 1 to getMaxDepth
+         * @return number of positions at the depth
+         */
+        public long getNodes(int depth) {
+            return this.nodes[depth - 1];
+        }
+    }
+
+    private Perft() {
+        throw new RuntimeException("Do not initialise");
+    }
+
+    /**
+     * Counts the positions reached after the given number of moves
+     * @param board to start from
+     * @param depth number of moves
+     * @return number of positions
+     */
+    public static long perft(Board board, int depth) {
+        if (depth == 0) return 1;
+        long nodes = 0;
+        for (Move move : board.currentPlayer().getLegalMoves()) {
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if (transition.getMoveStatus().isDone()) nodes += perft(transition.getTransitionBoard(), depth - 1);
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the positions reached after every move of the board
+     * @param board to start from
+     * @param depth number of moves, including the first one
+     * @return node count for every legal move, in the order of Player.getLegalMoves
+     */
+    public static Map<Move, Long> divide(Board board, int depth) {
+        final Map<Move, Long> counts = new LinkedHashMap<>();
+        for (Move move : board.currentPlayer().getLegalMoves()) {
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if (transition.getMoveStatus().isDone()) counts.put(move, perft(transition.getTransitionBoard(), depth - 1));
+        }
+        return counts;
+    }
+
+    /**
+     * Counts the positions reached after the given number of moves on a search board
+     * @param board to start from, it is in the same position again when the count is done
+     * @param depth number of moves
+     * @return number of positions
+     */
+    public static long perft(SearchBoard board, int depth) {
+        final MoveList[] moveLists = new MoveList[depth + 1];
+        for (int ply = 0; ply < moveLists.length; ply++) moveLists[ply] = new MoveList();
+        return perft(board, depth, moveLists);
+    }
+
+    private static long perft(SearchBoard board, int depth, MoveList[] moveLists) {
+        if (depth == 0) return 1;
+        final MoveList moves = moveLists[depth];
+        board.generateLegalMoves(moves);
+        if (depth == 1) return moves.size();
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeLegalMove(moves.get(i));
+            nodes += perft(board, depth - 1, moveLists);
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Runs perft from the command line and prints the node count, the time taken and the nodes per second
+     * @param args [depth] [position name or FEN] [divide] [search]
+     */
+    public static void main(String[] args) {
+        int depth = -1;
+        boolean divide = false, search = false;
+        String position = null;
+        for (String arg : args) {
+            if (arg.equalsIgnoreCase("divide")) divide = true;
+            else if (arg.equalsIgnoreCase("search")) search = true;
+            else if (arg.matches("\\d+")) depth = Integer.parseInt(arg);
+            else position = arg;
+        }
+
+        final List<ReferencePosition> positions = new ArrayList<>();
+        if (position == null) {
+            for (ReferencePosition referencePosition : ReferencePosition.values()) positions.add(referencePosition);
+        } else {
+            for (ReferencePosition referencePosition : ReferencePosition.values()) {
+                if (referencePosition.name().equalsIgnoreCase(position)) positions.add(referencePosition);
+            }
+        }
+
+        if (position != null && positions.isEmpty()) {
+            run(position, Board.createBoardFromFen(position), depth < 0 ? DEFAULT_DEPTH : depth, -1, divide, search);
+        }
+        for (ReferencePosition referencePosition : positions) {
+            final int runDepth = depth < 0 ? Math.min(DEFAULT_DEPTH, referencePosition.getMaxDepth()) : depth;
+            final long expected = runDepth >= 1 && runDepth <= referencePosition.getMaxDepth() ?
+                    referencePosition.getNodes(runDepth) : -1;
+            run(referencePosition.name(), referencePosition.createBoard(), runDepth, expected, divide, search);
+        }
+    }
+
+    private static void run(String name, Board board, int depth, long expected, boolean divide, boolean search) {
+        if (divide && depth > 0) {
+            for (Map.Entry<Move, Long> entry : divide(board, depth).entrySet()) {
+                System.out.println("\t" + entry.getKey() + ": " + entry.getValue());
+            }
+        }
+        final long start = System.nanoTime();
+        final long nodes = search ? perft(new SearchBoard(board), depth) : perft(board, depth);
+        final long nanos = Math.max(1, System.nanoTime() - start);
+        final String result = expected < 0 ? "" : nodes == expected ? "OK" : "FAIL (expected " + expected + ")";
+        System.out.println(String.format("%-18s depth %d: %,14d nodes %,10d ms %,14d nodes/s  %s",
+                name, depth, nodes, nanos / 1_000_000, nodesPerSecond(nodes, nanos), result));
+    }
+
+    /**
+     * The rate is calculated in floating point, nodes * 10^9 overflows a long from about 9.2 * 10^9 nodes
+     * @param nodes number of positions counted
+     * @param nanos time it took in nanoseconds
+     * @return positions per second
+     */
+    static long nodesPerSecond(long nodes, long nanos) {
+        return (long) (nodes * 1e9 / Math.max(1, nanos));
+    }
+}
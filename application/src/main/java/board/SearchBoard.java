@@ -0,0 +1,725 @@
+package board;
+
+import pieces.*;
+import pieces.Piece.PieceType;
+
+import java.util.Arrays;
+
+/**
+ * A mutable chessboard made for searching.
+ * Where a Board creates a new Board for every move, a SearchBoard changes itself when a move is made and keeps
+ * what it needs to take the move back on an undo stack. A search can then walk the whole game tree on one object:
+ *
+ *     if (searchBoard.makeMove(move)) {
+ *         ... search the position ...
+ *         searchBoard.unmakeMove();
+ *     }
+ *
+ * Moves are packed ints (see PackedMove) and are generated into a reusable MoveList.
+ * The rules are the same as the ones implemented by the pieces and the Player class, including the ones
+ * that are particular to this application: any pawn that has not moved yet may jump, and pawns in
+ * light brigade mode promote to a queen (white) or a knight (black) only.
+ *
+ * Note: a SearchBoard is not thread safe, every search thread needs its own copy.
+ */
+public final class SearchBoard {
+    private static final int SQUARES = 64;
+    private static final int EMPTY = 0;
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+    private static final Alliance[] ALLIANCES = Alliance.values();
+
+    private final BitBoard bitBoard = new BitBoard();
+    // piece code of every square: 0 = empty, else alliance.ordinal() * 6 + piece type ordinal + 1
+    private final int[] mailbox = new int[SQUARES];
+    private final boolean[] castled = new boolean[ALLIANCES.length];
+    private final boolean lightBrigadeMode;
+
+    // move list used by hasLegalMove, which does not generate moves recursively
+    private final MoveList legalityMoves = new MoveList();
+    // squares a pinned piece may move to, indexed by the square of the piece. Only valid for pinned pieces
+    // during generateLegalMoves
+    private final long[] pinRays = new long[SQUARES];
+    // swap list of staticExchangeEvaluation
+    private final int[] swapList = new int[StaticExchange.MAX_CAPTURES];
+
+    private Alliance sideToMove;
+    // squares with a piece that has not moved yet (the piece's isFirstMove flag)
+    private long unmovedPieces;
+    // square passed over by the last pawn jump, -1 if the last move was not a pawn jump
+    private int enPassantSquare;
+    // Zobrist key of the position, calculated in the same way as Board.getZobristKey
+    private long zobristKey;
+
+    // undo stack, one entry per move made
+    private int undoSize;
+    private int[] undoMoves = new int[64];
+    private long[] undoUnmoved = new long[64];
+    private int[] undoEnPassant = new int[64];
+    private long[] undoKeys = new long[64];
+
+    /**
+     * Construct a search board with the same position as the given board
+     * @param board to copy
+     */
+    public SearchBoard(Board board) {
+        this(board, board.currentPlayer().getAlliance());
+    }
+
+    /**
+     * Construct a search board with the same layout as the given board, but with the given player to move.
+     * This lets the moves of the player that is not in turn be generated (e.g. by Player.getStrictlyLegalMoves).
+     * @param board to copy
+     * @param sideToMove alliance of the player that makes the next move
+     */
+    public SearchBoard(Board board, Alliance sideToMove) {
+        boolean lightBrigadePawns = false;
+        for (int square = 0; square < SQUARES; square++) {
+            final Piece piece = board.getTile(Coordinate.of(square)).getPiece();
+            if (piece == null) continue;
+            putPiece(square, pieceCode(piece.getPieceType(), piece.getPieceAlliance()));
+            if (piece.isFirstMove()) this.unmovedPieces |= BitBoard.bitOf(square);
+            if (piece instanceof King && ((King) piece).isCastled()) this.castled[piece.getPieceAlliance().ordinal()] = true;
+            if (piece instanceof Pawn && ((Pawn) piece).isLightBrigadeMode()) lightBrigadePawns = true;
+        }
+        this.lightBrigadeMode = lightBrigadePawns;
+        this.sideToMove = sideToMove;
+
+        final Pawn enPassantPawn = board.getEnPassantPawn();
+        this.enPassantSquare = enPassantPawn == null ? -1 :
+                enPassantPawn.getPieceCoordinate().getIndex() + enPassantPawn.getPieceAlliance().getOppositeDirection() * 8;
+
+        if (this.sideToMove == Alliance.BLACK) this.zobristKey ^= Zobrist.blackToMove();
+        this.zobristKey ^= Zobrist.castling(castlingRights()) ^ Zobrist.enPassant(enPassantFile());
+    }
+
+    /**
+     * @return alliance of the player that makes the next move
+     */
+    public Alliance getSideToMove() {
+        return this.sideToMove;
+    }
+
+    /**
+     * @return a read-only bitboard view of the current layout
+     */
+    public BitBoard getBitBoard() {
+        return this.bitBoard;
+    }
+
+    /**
+     * @param square index of the square
+     * @return type of the piece on the square, null if the square is empty
+     */
+    public PieceType getPieceTypeAt(int square) {
+        final int code = this.mailbox[square];
+        return code == EMPTY ? null : typeOf(code);
+    }
+
+    /**
+     * @param square index of the square
+     * @return alliance of the piece on the square, null if the square is empty
+     */
+    public Alliance getAllianceAt(int square) {
+        final int code = this.mailbox[square];
+        return code == EMPTY ? null : allianceOf(code);
+    }
+
+    /**
+     * @param alliance of the king
+     * @return true if the king of the given alliance has castled
+     */
+    public boolean isCastled(Alliance alliance) {
+        return this.castled[alliance.ordinal()];
+    }
+
+    /**
+     * @return 64-bit Zobrist key of the position, equal to the key of a Board with the same position
+     * @see Zobrist
+     */
+    public long getZobristKey() {
+        return this.zobristKey;
+    }
+
+    /**
+     * @return number of moves currently on the undo stack
+     */
+    public int getPly() {
+        return this.undoSize;
+    }
+
+    /**
+     * @return the last packed move made, PackedMove.NO_MOVE if it was a null move or if no move has been made
+     */
+    public int getLastMove() {
+        return this.undoSize == 0 ? PackedMove.NO_MOVE : this.undoMoves[this.undoSize - 1];
+    }
+
+    // ---------------------------------------------------------------------------------------------------------
+    // Make / unmake
+    // ---------------------------------------------------------------------------------------------------------
+
+    /**
+     * Makes a move generated for the side to move. If the move leaves the moving player's king in check
+     * it is taken back at once.
+     * @param move packed move
+     * @return true if the move was made, false if it was illegal (the board is then unchanged)
+     */
+    public boolean makeMove(int move) {
+        final Alliance mover = this.sideToMove;
+        doMove(move);
+        if (isInCheck(mover)) {
+            unmakeMove();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Makes a move from generateLegalMoves, it is known not to leave the king in check so it is not tested again
+     * @param move packed move
+     */
+    public void makeLegalMove(int move) {
+        doMove(move);
+    }
+
+    /**
+     * Passes the turn to the opponent without moving a piece (a "null move"). The search uses it to see if a position
+     * is so good that the opponent can not make use of a free move. It is taken back with unmakeMove.
+     * The side to move should not be in check, the opponent could then take the king.
+     */
+    public void makeNullMove() {
+        final int enPassantFileBefore = enPassantFile();
+        pushUndo(PackedMove.NO_MOVE);
+        this.enPassantSquare = -1;
+        this.sideToMove = opposite(this.sideToMove);
+        this.zobristKey ^= Zobrist.blackToMove() ^ Zobrist.enPassant(enPassantFileBefore);
+    }
+
+    /**
+     * Takes back the last move made, or the last null move
+     */
+    public void unmakeMove() {
+        final int index = --this.undoSize;
+        final int move = this.undoMoves[index];
+        final int from = PackedMove.getFrom(move), to = PackedMove.getTo(move);
+
+        this.sideToMove = opposite(this.sideToMove);
+        final Alliance mover = this.sideToMove;
+        if (move == PackedMove.NO_MOVE) {
+            this.enPassantSquare = this.undoEnPassant[index];
+            this.zobristKey = this.undoKeys[index];
+            return;
+        }
+
+        removePiece(to);
+        putPiece(from, pieceCode(PackedMove.getPieceType(move), mover));
+        final PieceType capturedType = PackedMove.getCapturedType(move);
+        if (capturedType != null) {
+            final int capturedSquare = PackedMove.isEnPassant(move) ? enPassantVictimSquare(to, mover) : to;
+            putPiece(capturedSquare, pieceCode(capturedType, opposite(mover)));
+        }
+        if (PackedMove.isCastle(move)) {
+            final int rookTo = to > from ? from + 1 : from - 1;
+            final int rookFrom = to > from ? rookCorner(from, 7) : rookCorner(from, 0);
+            removePiece(rookTo);
+            putPiece(rookFrom, pieceCode(PieceType.ROOK, mover));
+            this.castled[mover.ordinal()] = false;
+        }
+        this.unmovedPieces = this.undoUnmoved[index];
+        this.enPassantSquare = this.undoEnPassant[index];
+        this.zobristKey = this.undoKeys[index];
+    }
+
+    /**
+     * Makes a move without checking if it leaves the king in check
+     * @param move packed move
+     */
+    private void doMove(int move) {
+        final int from = PackedMove.getFrom(move), to = PackedMove.getTo(move);
+        final Alliance mover = this.sideToMove;
+        final int rightsBefore = castlingRights(), enPassantFileBefore = enPassantFile();
+
+        pushUndo(move);
+
+        if (PackedMove.isCapture(move)) removePiece(PackedMove.isEnPassant(move) ? enPassantVictimSquare(to, mover) : to);
+        removePiece(from);
+        final PieceType promotionType = PackedMove.getPromotionType(move);
+        putPiece(to, pieceCode(promotionType != null ? promotionType : PackedMove.getPieceType(move), mover));
+
+        long touched = BitBoard.bitOf(from) | BitBoard.bitOf(to);
+        if (PackedMove.isCastle(move)) {
+            final int rookTo = to > from ? from + 1 : from - 1;
+            final int rookFrom = to > from ? rookCorner(from, 7) : rookCorner(from, 0);
+            removePiece(rookFrom);
+            putPiece(rookTo, pieceCode(PieceType.ROOK, mover));
+            touched |= BitBoard.bitOf(rookFrom);
+            this.castled[mover.ordinal()] = true;
+        }
+        this.unmovedPieces &= ~touched;
+        this.enPassantSquare = PackedMove.isPawnJump(move) ? (from + to) / 2 : -1;
+        this.sideToMove = opposite(mover);
+        this.zobristKey ^= Zobrist.blackToMove() ^ Zobrist.castling(rightsBefore) ^ Zobrist.castling(castlingRights()) ^
+                Zobrist.enPassant(enPassantFileBefore) ^ Zobrist.enPassant(enPassantFile());
+    }
+
+    /**
+     * @return the castling rights of the position, see Zobrist
+     */
+    private int castlingRights() {
+        int rights = 0;
+        if ((this.bitBoard.getPieces(PieceType.KING, Alliance.WHITE) & this.unmovedPieces) != 0) {
+            if (isUnmovedRook(63, Alliance.WHITE)) rights |= Zobrist.WHITE_KING_SIDE;
+            if (isUnmovedRook(56, Alliance.WHITE)) rights |= Zobrist.WHITE_QUEEN_SIDE;
+        }
+        if ((this.bitBoard.getPieces(PieceType.KING, Alliance.BLACK) & this.unmovedPieces) != 0) {
+            if (isUnmovedRook(7, Alliance.BLACK)) rights |= Zobrist.BLACK_KING_SIDE;
+            if (isUnmovedRook(0, Alliance.BLACK)) rights |= Zobrist.BLACK_QUEEN_SIDE;
+        }
+        return rights;
+    }
+
+    /**
+     * @return file of the pawn that can be taken 'en passant', -1 if there is none
+     */
+    private int enPassantFile() {
+        if (this.enPassantSquare < 0) return -1;
+        final Alliance jumper = opposite(this.sideToMove);
+        return Zobrist.enPassantFile(this.bitBoard, this.enPassantSquare + jumper.getDirection() * 8, jumper);
+    }
+
+    private void pushUndo(int move) {
+        if (this.undoSize == this.undoMoves.length) {
+            final int length = this.undoMoves.length * 2;
+            this.undoMoves = Arrays.copyOf(this.undoMoves, length);
+            this.undoUnmoved = Arrays.copyOf(this.undoUnmoved, length);
+            this.undoEnPassant = Arrays.copyOf(this.undoEnPassant, length);
+            this.undoKeys = Arrays.copyOf(this.undoKeys, length);
+        }
+        this.undoMoves[this.undoSize] = move;
+        this.undoUnmoved[this.undoSize] = this.unmovedPieces;
+        this.undoEnPassant[this.undoSize] = this.enPassantSquare;
+        this.undoKeys[this.undoSize] = this.zobristKey;
+        this.undoSize++;
+    }
+
+    /**
+     * @param to destination of an 'en passant' attack
+     * @param mover alliance of the attacking pawn
+     * @return square of the pawn that is taken
+     */
+    private static int enPassantVictimSquare(int to, Alliance mover) {
+        return to + mover.getOppositeDirection() * 8;
+    }
+
+    /**
+     * @param kingSquare square of the king
+     * @param x column of the corner
+     * @return square of the corner on the king's row
+     */
+    private static int rookCorner(int kingSquare, int x) {
+        return (kingSquare / 8) * 8 + x;
+    }
+
+    private void putPiece(int square, int code) {
+        this.mailbox[square] = code;
+        this.bitBoard.addPiece(square, typeOf(code), allianceOf(code));
+        this.zobristKey ^= Zobrist.piece(typeOf(code), allianceOf(code), square);
+    }
+
+    private void removePiece(int square) {
+        final int code = this.mailbox[square];
+        this.mailbox[square] = EMPTY;
+        this.bitBoard.removePiece(square, typeOf(code), allianceOf(code));
+        this.zobristKey ^= Zobrist.piece(typeOf(code), allianceOf(code), square);
+    }
+
+    // ---------------------------------------------------------------------------------------------------------
+    // Move generation
+    // ---------------------------------------------------------------------------------------------------------
+
+    /**
+     * Generates the moves of the side to move, some of them may leave the king in check (see makeMove)
+     * @param moves list to fill, it is cleared first
+     */
+    public void generateMoves(MoveList moves) {
+        generateMoves(this.sideToMove, moves);
+    }
+
+    /**
+     * Generates the moves of a player, the same set of moves as Player.getLegalMoves gives for a Board.
+     * Some of them may leave the king in check (see makeMove).
+     * @param alliance of the player
+     * @param moves list to fill, it is cleared first
+     */
+    public void generateMoves(Alliance alliance, MoveList moves) {
+        moves.clear();
+        long pieces = this.bitBoard.getPieces(alliance);
+        while (pieces != 0) {
+            final int square = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            switch (typeOf(this.mailbox[square])) {
+                case PAWN: generatePawnMoves(square, alliance, moves); break;
+                case KNIGHT: generateStepMoves(square, alliance, PieceType.KNIGHT, AttackTables.getKnightTargets(square), moves); break;
+                case BISHOP: generateSlidingMoves(square, alliance, PieceType.BISHOP, AttackTables.BISHOP_DIRECTIONS, moves); break;
+                case ROOK: generateSlidingMoves(square, alliance, PieceType.ROOK, AttackTables.ROOK_DIRECTIONS, moves); break;
+                case QUEEN: generateSlidingMoves(square, alliance, PieceType.QUEEN, AttackTables.QUEEN_DIRECTIONS, moves); break;
+                case KING: {
+                    generateStepMoves(square, alliance, PieceType.KING, AttackTables.getKingTargets(square), moves);
+                    generateCastlingMoves(square, alliance, moves);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Generates the strictly legal moves of the side to move: the moves of generateMoves that do not leave the
+     * king in check. Rather than making every move and looking for attacks on the king, the checks and pins of
+     * the position are found once by looking outwards from the king:
+     * - in double check only the king may move
+     * - in single check other pieces must take the checking piece or block the line between it and the king
+     * - a pinned piece may only move along the line between the king and the piece that pins it
+     * - the king may not move to an attacked square
+     * Only 'en passant' attacks, which remove two pieces from a line at once, are made and taken back to test them.
+     * Without a king (e.g. black in horde mode) every move is legal.
+     * @param moves list to fill, it is cleared first
+     */
+    public void generateLegalMoves(MoveList moves) {
+        final Alliance alliance = this.sideToMove;
+        generateMoves(alliance, moves);
+        final long king = this.bitBoard.getPieces(PieceType.KING, alliance);
+        if (king == 0) return;
+
+        final int kingSquare = Long.numberOfTrailingZeros(king);
+        final Alliance opponent = opposite(alliance);
+        long checkers = 0, evasions = 0, pinned = 0;
+
+        // pawns and knights check from a single square, which can only be captured
+        final int x = kingSquare % 8, pawnY = kingSquare / 8 - opponent.getDirection();
+        if (pawnY >= 0 && pawnY <= 7) {
+            final int pawn = pieceCode(PieceType.PAWN, opponent);
+            if (x > 0 && this.mailbox[pawnY * 8 + x - 1] == pawn) checkers |= BitBoard.bitOf(pawnY * 8 + x - 1);
+            if (x < 7 && this.mailbox[pawnY * 8 + x + 1] == pawn) checkers |= BitBoard.bitOf(pawnY * 8 + x + 1);
+        }
+        checkers |= AttackTables.getKnightAttacks(kingSquare) & this.bitBoard.getPieces(PieceType.KNIGHT, opponent);
+        evasions |= checkers;
+
+        // sliders check or pin along the rays from the king
+        final int queen = pieceCode(PieceType.QUEEN, opponent);
+        for (int direction : AttackTables.QUEEN_DIRECTIONS) {
+            final int slider = direction < AttackTables.ROOK_DIRECTIONS[0] ?
+                    pieceCode(PieceType.BISHOP, opponent) : pieceCode(PieceType.ROOK, opponent);
+            int blocker = -1;
+            long line = 0;
+            for (int square : AttackTables.getRay(direction, kingSquare)) {
+                line |= BitBoard.bitOf(square);
+                final int content = this.mailbox[square];
+                if (content == EMPTY) continue;
+                if (allianceOf(content) == alliance) {
+                    if (blocker >= 0) break;
+                    blocker = square;
+                    continue;
+                }
+                if (content == slider || content == queen) {
+                    if (blocker < 0) {
+                        checkers |= BitBoard.bitOf(square);
+                        evasions |= line;
+                    } else {
+                        pinned |= BitBoard.bitOf(blocker);
+                        this.pinRays[blocker] = line;
+                    }
+                }
+                break;
+            }
+        }
+
+        final int checks = Long.bitCount(checkers);
+        int size = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            final int move = moves.get(i);
+            final int from = PackedMove.getFrom(move), to = PackedMove.getTo(move);
+            final boolean legal;
+            if (from == kingSquare) {
+                // castling has been checked for attacks when it was generated
+                legal = PackedMove.isCastle(move) || !isAttackedWithoutKing(to, kingSquare, opponent);
+            } else if (checks > 1) {
+                legal = false;
+            } else if (PackedMove.isEnPassant(move)) {
+                doMove(move);
+                legal = !isInCheck(alliance);
+                unmakeMove();
+            } else {
+                final long target = BitBoard.bitOf(to);
+                legal = (checks == 0 || (evasions & target) != 0) &&
+                        ((pinned & BitBoard.bitOf(from)) == 0 || (this.pinRays[from] & target) != 0);
+            }
+            if (legal) moves.set(size++, move);
+        }
+        moves.truncate(size);
+    }
+
+    /**
+     * Checks if the side to move has any move that does not leave its king in check
+     * @return true if there is at least one legal move
+     */
+    public boolean hasLegalMove() {
+        generateLegalMoves(this.legalityMoves);
+        return !this.legalityMoves.isEmpty();
+    }
+
+    private void generateStepMoves(int square, Alliance alliance, PieceType pieceType, int[] targets, MoveList moves) {
+        for (int to : targets) {
+            if (!this.bitBoard.isOccupiedBy(to, alliance)) moves.add(PackedMove.create(square, to, pieceType, getPieceTypeAt(to), null, 0));
+        }
+    }
+
+    private void generateSlidingMoves(int square, Alliance alliance, PieceType pieceType, int[] directions, MoveList moves) {
+        for (int direction : directions) {
+            for (int to : AttackTables.getRay(direction, square)) {
+                if (this.bitBoard.isOccupiedBy(to, alliance)) break;
+                moves.add(PackedMove.create(square, to, pieceType, getPieceTypeAt(to), null, 0));
+                if (this.bitBoard.isOccupied(to)) break;
+            }
+        }
+    }
+
+    private void generatePawnMoves(int square, Alliance alliance, MoveList moves) {
+        final int x = square % 8, y = square / 8;
+        final int direction = alliance.getDirection();
+        final int forwardY = y + direction;
+        if (forwardY < 0 || forwardY > 7) return;
+
+        final int oneStep = forwardY * 8 + x;
+        if (!this.bitBoard.isOccupied(oneStep)) {
+            addPawnMove(square, oneStep, alliance, null, 0, moves);
+            final int jumpY = forwardY + direction;
+            if ((this.unmovedPieces & BitBoard.bitOf(square)) != 0 && jumpY >= 0 && jumpY <= 7 &&
+                    !this.bitBoard.isOccupied(jumpY * 8 + x)) {
+                addPawnMove(square, jumpY * 8 + x, alliance, null, PackedMove.PAWN_JUMP_FLAG, moves);
+            }
+        }
+        for (int attackX = x - 1; attackX <= x + 1; attackX += 2) {
+            if (attackX < 0 || attackX > 7) continue;
+            final int to = forwardY * 8 + attackX;
+            if (this.bitBoard.isOccupiedBy(to, opposite(alliance))) {
+                addPawnMove(square, to, alliance, getPieceTypeAt(to), 0, moves);
+            } else if (to == this.enPassantSquare && !this.bitBoard.isOccupied(to) &&
+                    this.bitBoard.isOccupiedBy(enPassantVictimSquare(to, alliance), opposite(alliance))) {
+                moves.add(PackedMove.create(square, to, PieceType.PAWN, PieceType.PAWN, null, PackedMove.EN_PASSANT_FLAG));
+            }
+        }
+    }
+
+    /**
+     * Adds a pawn move, or the promotions available when the pawn reaches the last row
+     */
+    private void addPawnMove(int from, int to, Alliance alliance, PieceType captured, int flags, MoveList moves) {
+        if (to / 8 != (alliance == Alliance.WHITE ? 0 : 7)) {
+            moves.add(PackedMove.create(from, to, PieceType.PAWN, captured, null, flags));
+        } else if (this.lightBrigadeMode) {
+            moves.add(PackedMove.create(from, to, PieceType.PAWN, captured,
+                    alliance == Alliance.WHITE ? PieceType.QUEEN : PieceType.KNIGHT, 0));
+        } else {
+            moves.add(PackedMove.create(from, to, PieceType.PAWN, captured, PieceType.QUEEN, 0));
+            moves.add(PackedMove.create(from, to, PieceType.PAWN, captured, PieceType.ROOK, 0));
+            moves.add(PackedMove.create(from, to, PieceType.PAWN, captured, PieceType.BISHOP, 0));
+            moves.add(PackedMove.create(from, to, PieceType.PAWN, captured, PieceType.KNIGHT, 0));
+        }
+    }
+
+    /**
+     * Castling follows the rules of Player.calculateKingCastles: the king and the rook in the corner have
+     * not moved, the squares between them are empty, and the king is not in check and does not pass an
+     * attacked square.
+     */
+    private void generateCastlingMoves(int kingSquare, Alliance alliance, MoveList moves) {
+        if ((this.unmovedPieces & BitBoard.bitOf(kingSquare)) == 0) return;
+        final int x = kingSquare % 8;
+        final int cornerY = alliance == Alliance.WHITE ? 7 : 0;
+        final Alliance opponent = opposite(alliance);
+        if (isSquareAttacked(kingSquare, opponent)) return;
+
+        // King side castle
+        if (x + 2 <= 7 && !this.bitBoard.isOccupied(kingSquare + 1) && !this.bitBoard.isOccupied(kingSquare + 2) &&
+                isUnmovedRook(cornerY * 8 + 7, alliance) &&
+                !isSquareAttacked(kingSquare + 1, opponent) && !isSquareAttacked(kingSquare + 2, opponent)) {
+            moves.add(PackedMove.create(kingSquare, kingSquare + 2, PieceType.KING, null, null, PackedMove.CASTLE_FLAG));
+        }
+        // Queen side castle
+        if (x - 3 >= 0 && !this.bitBoard.isOccupied(kingSquare - 1) && !this.bitBoard.isOccupied(kingSquare - 2) &&
+                !this.bitBoard.isOccupied(kingSquare - 3) && isUnmovedRook(cornerY * 8, alliance) &&
+                !isSquareAttacked(kingSquare - 1, opponent) && !isSquareAttacked(kingSquare - 2, opponent)) {
+            moves.add(PackedMove.create(kingSquare, kingSquare - 2, PieceType.KING, null, null, PackedMove.CASTLE_FLAG));
+        }
+    }
+
+    private boolean isUnmovedRook(int square, Alliance alliance) {
+        return this.mailbox[square] == pieceCode(PieceType.ROOK, alliance) && (this.unmovedPieces & BitBoard.bitOf(square)) != 0;
+    }
+
+    // ---------------------------------------------------------------------------------------------------------
+    // Attacks
+    // ---------------------------------------------------------------------------------------------------------
+
+    /**
+     * @param alliance of the king
+     * @return true if the king of the given alliance is attacked, false if it is not or if there is no king
+     */
+    public boolean isInCheck(Alliance alliance) {
+        final long king = this.bitBoard.getPieces(PieceType.KING, alliance);
+        return king != 0 && isSquareAttacked(Long.numberOfTrailingZeros(king), opposite(alliance));
+    }
+
+    /**
+     * Checks if a move of the side to move puts the opponent in check, without making the move:
+     * - the moved (or promoted) piece attacks the king from its new square (direct check)
+     * - the move uncovers a slider on a ray from the king (discovered check)
+     * Only castling and 'en passant' attacks, which move or remove two pieces at once, are made and taken back.
+     * @param move legal packed move of the side to move
+     * @return true if the opponent is in check after the move, false if it is not or if it has no king
+     */
+    public boolean givesCheck(int move) {
+        final Alliance opponent = opposite(this.sideToMove);
+        final long king = this.bitBoard.getPieces(PieceType.KING, opponent);
+        if (king == 0) return false;
+        if (PackedMove.isCastle(move) || PackedMove.isEnPassant(move)) {
+            doMove(move);
+            final boolean check = isInCheck(opponent);
+            unmakeMove();
+            return check;
+        }
+
+        final int kingSquare = Long.numberOfTrailingZeros(king);
+        final int from = PackedMove.getFrom(move), to = PackedMove.getTo(move);
+        final PieceType pieceType = PackedMove.getPromotionType(move) != null ?
+                PackedMove.getPromotionType(move) : PackedMove.getPieceType(move);
+        if (pieceType == PieceType.PAWN && kingSquare / 8 == to / 8 + this.sideToMove.getDirection() &&
+                Math.abs(kingSquare % 8 - to % 8) == 1) return true;
+        if (pieceType == PieceType.KNIGHT && (AttackTables.getKnightAttacks(to) & king) != 0) return true;
+
+        for (int direction : AttackTables.QUEEN_DIRECTIONS) {
+            final long ray = AttackTables.getRayMask(direction, kingSquare);
+            final boolean fromOnRay = (ray & BitBoard.bitOf(from)) != 0, toOnRay = (ray & BitBoard.bitOf(to)) != 0;
+            if (!fromOnRay && !toOnRay) continue;
+            final PieceType slider = direction < AttackTables.ROOK_DIRECTIONS[0] ? PieceType.BISHOP : PieceType.ROOK;
+            final int blocker = firstPieceAfterMove(direction, kingSquare, from, to);
+            if (toOnRay) {
+                if (blocker == to && (pieceType == slider || pieceType == PieceType.QUEEN)) return true;
+            } else if (blocker >= 0 && allianceOf(this.mailbox[blocker]) == this.sideToMove) {
+                final PieceType uncovered = typeOf(this.mailbox[blocker]);
+                if (uncovered == slider || uncovered == PieceType.QUEEN) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Static exchange evaluation of a move, see StaticExchange
+     * @param move packed move of the side to move
+     * @return material won by the move and the exchange of captures on its square that follows, negative if it loses
+     */
+    public int staticExchangeEvaluation(int move) {
+        return StaticExchange.evaluate(this.bitBoard, move, this.sideToMove, this.swapList);
+    }
+
+    /**
+     * Walks a ray as it would be after a move, with the from square empty and the to square occupied
+     * @return the first square on the ray with a piece, -1 if there is none
+     */
+    private int firstPieceAfterMove(int direction, int square, int from, int to) {
+        for (int next : AttackTables.getRay(direction, square)) {
+            if (next == to || (next != from && this.mailbox[next] != EMPTY)) return next;
+        }
+        return -1;
+    }
+
+    /**
+     * Looks outwards from a square to see if any piece of the given alliance attacks it
+     * @param square index of the square
+     * @param attacker alliance of the attacking pieces
+     * @return true if the square is attacked
+     */
+    boolean isSquareAttacked(int square, Alliance attacker) {
+        final int x = square % 8, y = square / 8;
+        // a pawn attacks the square from one row behind it, seen from the pawn's direction
+        final int pawnY = y - attacker.getDirection();
+        if (pawnY >= 0 && pawnY <= 7) {
+            final int pawn = pieceCode(PieceType.PAWN, attacker);
+            if (x > 0 && this.mailbox[pawnY * 8 + x - 1] == pawn) return true;
+            if (x < 7 && this.mailbox[pawnY * 8 + x + 1] == pawn) return true;
+        }
+        if ((AttackTables.getKnightAttacks(square) & this.bitBoard.getPieces(PieceType.KNIGHT, attacker)) != 0) return true;
+        if ((AttackTables.getKingAttacks(square) & this.bitBoard.getPieces(PieceType.KING, attacker)) != 0) return true;
+        final int queen = pieceCode(PieceType.QUEEN, attacker);
+        return isAttackedBySlider(square, AttackTables.ROOK_DIRECTIONS, pieceCode(PieceType.ROOK, attacker), queen) ||
+                isAttackedBySlider(square, AttackTables.BISHOP_DIRECTIONS, pieceCode(PieceType.BISHOP, attacker), queen);
+    }
+
+    /**
+     * Checks if a square is attacked once the king has left its square, so that a king can not step back
+     * along the line of a slider that attacks it
+     */
+    private boolean isAttackedWithoutKing(int square, int kingSquare, Alliance attacker) {
+        final int king = this.mailbox[kingSquare];
+        this.mailbox[kingSquare] = EMPTY;
+        final boolean attacked = isSquareAttacked(square, attacker);
+        this.mailbox[kingSquare] = king;
+        return attacked;
+    }
+
+    /**
+     * Walks the rays from a square and checks if the first piece on one of them is the given slider or a queen
+     */
+    private boolean isAttackedBySlider(int square, int[] directions, int code, int queenCode) {
+        for (int direction : directions) {
+            for (int from : AttackTables.getRay(direction, square)) {
+                final int content = this.mailbox[from];
+                if (content != EMPTY) {
+                    if (content == code || content == queenCode) return true;
+                    break;
+                }
+            }
+        }
+        return false;
+    }
+
+    // ---------------------------------------------------------------------------------------------------------
+    // Helpers
+    // ---------------------------------------------------------------------------------------------------------
+
+    private static int pieceCode(PieceType pieceType, Alliance alliance) {
+        return alliance.ordinal() * PIECE_TYPES.length + pieceType.ordinal() + 1;
+    }
+
+    private static PieceType typeOf(int code) {
+        return PIECE_TYPES[(code - 1) % PIECE_TYPES.length];
+    }
+
+    private static Alliance allianceOf(int code) {
+        return ALLIANCES[(code - 1) / PIECE_TYPES.length];
+    }
+
+    private static Alliance opposite(Alliance alliance) {
+        return alliance == Alliance.WHITE ? Alliance.BLACK : Alliance.WHITE;
+    }
+
+    /**
+     * Constructs a text visualisation of the board, in the same format as Board.toString
+     * @return a string representation of the search board
+     */
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        for (int square = 0; square < SQUARES; square++) {
+            final int code = this.mailbox[square];
+            String tileText = "-";
+            if (code != EMPTY) {
+                tileText = typeOf(code).toString();
+                if (allianceOf(code) == Alliance.BLACK) tileText = tileText.toLowerCase();
+            }
+            builder.append(String.format("%3s", tileText));
+            if (square % 8 == 7) builder.append("\n");
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,128 @@
+package board;
+
+import pieces.Alliance;
+import pieces.Piece.PieceType;
+
+/**
+ * Static exchange evaluation (SEE): the material a capture wins or loses when both players go on capturing on the
+ * square of the capture with their least valuable piece, and either may stop when going on would lose material.
+ * The gains of the captures are kept in a swap list, then folded back from the last capture to the first.
+ *
+ * The attackers of the square are found again after every capture, so that a slider behind a piece that has
+ * captured (an x-ray attacker, e.g. a rook behind a rook) joins the exchange. Pins are not taken into account, and
+ * a king only captures when the square is not attacked any more.
+ *
+ * @see <a href="https://chessprogramming.wikispaces.com/Static+Exchange+Evaluation">Static Exchange Evaluation</a>
+ */
+final class StaticExchange {
+    // pieces in the order they are used to capture, the least valuable first
+    private static final PieceType[] CAPTURE_ORDER = {PieceType.PAWN, PieceType.KNIGHT, PieceType.BISHOP,
+            PieceType.ROOK, PieceType.QUEEN, PieceType.KING};
+    /**
+     * Length of a swap list, at most 32 pieces can take part in an exchange
+     */
+    static final int MAX_CAPTURES = 32;
+
+    private StaticExchange() {
+        throw new RuntimeException("Do not initialise");
+    }
+
+    /**
+     * @param bitBoard layout before the move
+     * @param move     packed move of the mover
+     * @param mover    alliance of the moving piece
+     * @param gain     swap list the gains of the captures are kept in, of length MAX_CAPTURES. Its content is
+     *                 overwritten, so it can be reused by every evaluation on the same thread
+     * @return material won by the move and the exchange that follows it, in piece values (negative if it loses)
+     */
+    static int evaluate(BitBoard bitBoard, int move, Alliance mover, int[] gain) {
+        final int from = PackedMove.getFrom(move), to = PackedMove.getTo(move);
+        final PieceType promotionType = PackedMove.getPromotionType(move);
+        final PieceType capturedType = PackedMove.getCapturedType(move);
+        gain[0] = capturedType == null ? 0 : capturedType.getPieceValue();
+        if (promotionType != null) gain[0] += promotionType.getPieceValue() - PieceType.PAWN.getPieceValue();
+
+        long occupied = bitBoard.getOccupied() & ~BitBoard.bitOf(from);
+        if (PackedMove.isEnPassant(move)) occupied &= ~BitBoard.bitOf(to + mover.getOppositeDirection() * 8);
+        // value of the piece standing on the square, which the next capture takes
+        int onSquare = (promotionType != null ? promotionType : PackedMove.getPieceType(move)).getPieceValue();
+        Alliance side = opposite(mover);
+        int depth = 0;
+        while (depth + 1 < MAX_CAPTURES) {
+            final long attackers = attackersOf(bitBoard, to, side, occupied);
+            if (attackers == 0) break;
+            int attacker = -1;
+            PieceType attackerType = null;
+            for (PieceType pieceType : CAPTURE_ORDER) {
+                final long pieces = attackers & bitBoard.getPieces(pieceType, side);
+                if (pieces != 0) {
+                    attacker = Long.numberOfTrailingZeros(pieces);
+                    attackerType = pieceType;
+                    break;
+                }
+            }
+            // a king may not capture onto a square that is still attacked
+            if (attackerType == PieceType.KING &&
+                    attackersOf(bitBoard, to, opposite(side), occupied & ~BitBoard.bitOf(attacker)) != 0) break;
+
+            depth++;
+            gain[depth] = onSquare - gain[depth - 1];
+            occupied &= ~BitBoard.bitOf(attacker);
+            onSquare = attackerType.getPieceValue();
+            side = opposite(side);
+        }
+        // a player only captures if it does not lose material by it
+        while (depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+            depth--;
+        }
+        return gain[0];
+    }
+
+    /**
+     * @param bitBoard layout of the pieces
+     * @param square   index of the square
+     * @param attacker alliance of the attacking pieces
+     * @param occupied squares that still hold a piece, the pieces that have captured are removed
+     * @return squares of the pieces of the alliance that attack the square
+     */
+    private static long attackersOf(BitBoard bitBoard, int square, Alliance attacker, long occupied) {
+        final int x = square % 8, y = square / 8;
+        long attackers = 0;
+        // a pawn attacks the square from one row behind it, seen from the pawn's direction
+        final int pawnY = y - attacker.getDirection();
+        if (pawnY >= 0 && pawnY <= 7) {
+            if (x > 0) attackers |= BitBoard.bitOf(pawnY * 8 + x - 1);
+            if (x < 7) attackers |= BitBoard.bitOf(pawnY * 8 + x + 1);
+            attackers &= bitBoard.getPieces(PieceType.PAWN, attacker);
+        }
+        attackers |= AttackTables.getKnightAttacks(square) & bitBoard.getPieces(PieceType.KNIGHT, attacker);
+        attackers |= AttackTables.getKingAttacks(square) & bitBoard.getPieces(PieceType.KING, attacker);
+        final long queens = bitBoard.getPieces(PieceType.QUEEN, attacker);
+        attackers |= sliderAttackers(square, AttackTables.ROOK_DIRECTIONS, bitBoard.getPieces(PieceType.ROOK, attacker) | queens, occupied);
+        attackers |= sliderAttackers(square, AttackTables.BISHOP_DIRECTIONS, bitBoard.getPieces(PieceType.BISHOP, attacker) | queens, occupied);
+        return attackers & occupied;
+    }
+
+    /**
+     * Walks the rays from a square and finds the first piece on each of them
+     * @return squares of the given sliders that are the first piece on a ray
+     */
+    private static long sliderAttackers(int square, int[] directions, long sliders, long occupied) {
+        long attackers = 0;
+        for (int direction : directions) {
+            for (int next : AttackTables.getRay(direction, square)) {
+                final long bit = BitBoard.bitOf(next);
+                if ((occupied & bit) != 0) {
+                    attackers |= sliders & bit;
+                    break;
+                }
+            }
+        }
+        return attackers;
+    }
+
+    private static Alliance opposite(Alliance alliance) {
+        return alliance == Alliance.WHITE ? Alliance.BLACK : Alliance.WHITE;
+    }
+}
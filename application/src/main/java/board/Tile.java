@@ -3,9 +3,6 @@ package board;
 import pieces.Alliance;
 import pieces.Piece;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -22,22 +19,23 @@ public abstract class Tile {
     private final Coordinate tileCoord;
 
     /**
-     * a map that contains empty tiles for every available position
+     * an array that contains empty tiles for every available position, indexed by square index
      */
-    private static final Map<Coordinate, EmptyTile> EMPTY_TILES_CACHE = createAllEmptyTiles();
+    private static final EmptyTile[] EMPTY_TILES_CACHE = createAllEmptyTiles();
 
     /**
-     * Creates a hashmap which holds an empty tile at every position possible
-     * @return an immutable map with empty tiles for every available position
+     * Creates an array which holds an empty tile at every position possible
+     * @return an array with the empty tile of square index n at position n
      */
-    private static Map<Coordinate, EmptyTile> createAllEmptyTiles() {
-        final Map<Coordinate, EmptyTile> emptyTileMap = new HashMap<>();
+    private static EmptyTile[] createAllEmptyTiles() {
+        final EmptyTile[] emptyTiles = new EmptyTile[BoardUtils.getInstance().getWidth() * BoardUtils.getInstance().getHeight()];
         for (int i = 0; i < BoardUtils.getInstance().getHeight(); i++) {
             for (int j = 0; j < BoardUtils.getInstance().getWidth(); j++) {
-                emptyTileMap.put(new Coordinate(j,i), new EmptyTile(new Coordinate(j,i)));
+                final Coordinate coordinate = Coordinate.of(j, i);
+                emptyTiles[coordinate.getIndex()] = new EmptyTile(coordinate);
             }
         }
-        return Collections.unmodifiableMap(emptyTileMap);
+        return emptyTiles;
     }
 
     /**
@@ -47,7 +45,7 @@ public abstract class Tile {
      * @return Either a EmptyTile given no piece, or a OccupiedTile given a piece
      */
     static Tile createTile(final Coordinate tileCoord, final Piece piece) {
-        return piece != null ? new OccupiedTile(tileCoord, piece) : EMPTY_TILES_CACHE.get(tileCoord);
+        return piece != null ? new OccupiedTile(tileCoord, piece) : EMPTY_TILES_CACHE[tileCoord.getIndex()];
     }
 
     /**
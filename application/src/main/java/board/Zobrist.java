@@ -0,0 +1,195 @@
+package board;
+
+import pieces.Alliance;
+import pieces.King;
+import pieces.Piece;
+import pieces.Piece.PieceType;
+import pieces.Rook;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random numbers for Zobrist hashing of a position.
+ * The key of a position is the XOR of one number for every piece on its square, one for black to move, one for
+ * every castling right and one for the file of a pawn that can be taken 'en passant'. A move changes only a few of
+ * these, so the key of the next position is calculated from the key of the current one (see Move.execute).
+ *
+ * A castling right is held by an alliance for a side of the board as long as the alliance's king has not moved and
+ * a rook of the alliance that has not moved stands in the corner of that side, on the alliance's home row.
+ *
+ * @see <a href="https://chessprogramming.wikispaces.com/Zobrist+Hashing">Zobrist Hashing</a>
+ */
+public final class Zobrist {
+    // fixed seed, keys are the same in every run of the application
+    private static final long SEED = 0x5DEECE66DL;
+
+    /**
+     * Castling rights, one bit for every alliance and side of the board
+     */
+    public static final int WHITE_KING_SIDE = 1, WHITE_QUEEN_SIDE = 2, BLACK_KING_SIDE = 4, BLACK_QUEEN_SIDE = 8;
+
+    private static final int WHITE_KING_SIDE_CORNER = 63, WHITE_QUEEN_SIDE_CORNER = 56,
+            BLACK_KING_SIDE_CORNER = 7, BLACK_QUEEN_SIDE_CORNER = 0;
+
+    // [alliance][piece type][square]
+    private static final long[][][] PIECES = new long[Alliance.values().length][PieceType.values().length][64];
+    private static final long BLACK_TO_MOVE;
+    // one key for every combination of the four castling rights
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+
+    static {
+        final SplittableRandom random = new SplittableRandom(SEED);
+        for (long[][] allianceKeys : PIECES) {
+            for (long[] pieceKeys : allianceKeys) {
+                for (int square = 0; square < pieceKeys.length; square++) pieceKeys[square] = random.nextLong();
+            }
+        }
+        BLACK_TO_MOVE = random.nextLong();
+        final long[] rightKeys = {random.nextLong(), random.nextLong(), random.nextLong(), random.nextLong()};
+        for (int rights = 0; rights < CASTLING.length; rights++) {
+            for (int bit = 0; bit < rightKeys.length; bit++) {
+                if ((rights & (1 << bit)) != 0) CASTLING[rights] ^= rightKeys[bit];
+            }
+        }
+        for (int file = 0; file < EN_PASSANT_FILE.length; file++) EN_PASSANT_FILE[file] = random.nextLong();
+    }
+
+    private Zobrist() {
+        throw new RuntimeException("Do not initialise");
+    }
+
+    /**
+     * @param pieceType type of the piece
+     * @param alliance alliance of the piece
+     * @param square index of the square
+     * @return key of the piece on the square
+     */
+    public static long piece(PieceType pieceType, Alliance alliance, int square) {
+        return PIECES[alliance.ordinal()][pieceType.ordinal()][square];
+    }
+
+    /**
+     * @param piece on the board
+     * @return key of the piece on its own square
+     */
+    public static long piece(Piece piece) {
+        return piece(piece.getPieceType(), piece.getPieceAlliance(), piece.getPieceCoordinate().getIndex());
+    }
+
+    /**
+     * @return key that is part of the position key when black makes the next move
+     */
+    public static long blackToMove() {
+        return BLACK_TO_MOVE;
+    }
+
+    /**
+     * @param rights combination of WHITE_KING_SIDE, WHITE_QUEEN_SIDE, BLACK_KING_SIDE and BLACK_QUEEN_SIDE
+     * @return key of the castling rights
+     */
+    public static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    /**
+     * @param file of the pawn that can be taken 'en passant', -1 if there is none
+     * @return key of the 'en passant' file, 0 if there is none
+     */
+    public static long enPassant(int file) {
+        return file < 0 ? 0 : EN_PASSANT_FILE[file];
+    }
+
+    /**
+     * @param square index of a square
+     * @return the castling right that is lost when a piece moves from or to the square
+     */
+    public static int rightsLostAt(int square) {
+        switch (square) {
+            case WHITE_KING_SIDE_CORNER: return WHITE_KING_SIDE;
+            case WHITE_QUEEN_SIDE_CORNER: return WHITE_QUEEN_SIDE;
+            case BLACK_KING_SIDE_CORNER: return BLACK_KING_SIDE;
+            case BLACK_QUEEN_SIDE_CORNER: return BLACK_QUEEN_SIDE;
+            default: return 0;
+        }
+    }
+
+    /**
+     * @param alliance of a king
+     * @return the castling rights that are lost when the king moves
+     */
+    public static int rightsOf(Alliance alliance) {
+        return alliance == Alliance.WHITE ? WHITE_KING_SIDE | WHITE_QUEEN_SIDE : BLACK_KING_SIDE | BLACK_QUEEN_SIDE;
+    }
+
+    /**
+     * Calculates the castling rights held on a board from its pieces, see Board.getCastlingRights for the rights
+     * kept by the board
+     * @param board to look at
+     * @return combination of WHITE_KING_SIDE, WHITE_QUEEN_SIDE, BLACK_KING_SIDE and BLACK_QUEEN_SIDE
+     */
+    public static int castlingRights(Board board) {
+        int rights = 0;
+        if (hasUnmovedKing(board.getWhitePieces())) {
+            if (isUnmovedRook(board, WHITE_KING_SIDE_CORNER, Alliance.WHITE)) rights |= WHITE_KING_SIDE;
+            if (isUnmovedRook(board, WHITE_QUEEN_SIDE_CORNER, Alliance.WHITE)) rights |= WHITE_QUEEN_SIDE;
+        }
+        if (hasUnmovedKing(board.getBlackPieces())) {
+            if (isUnmovedRook(board, BLACK_KING_SIDE_CORNER, Alliance.BLACK)) rights |= BLACK_KING_SIDE;
+            if (isUnmovedRook(board, BLACK_QUEEN_SIDE_CORNER, Alliance.BLACK)) rights |= BLACK_QUEEN_SIDE;
+        }
+        return rights;
+    }
+
+    private static boolean hasUnmovedKing(Iterable<Piece> pieces) {
+        for (Piece piece : pieces) {
+            if (piece instanceof King && piece.isFirstMove()) return true;
+        }
+        return false;
+    }
+
+    private static boolean isUnmovedRook(Board board, int square, Alliance alliance) {
+        final Piece piece = board.getTile(Coordinate.of(square)).getPiece();
+        return piece instanceof Rook && piece.getPieceAlliance() == alliance && piece.isFirstMove();
+    }
+
+    /**
+     * Finds the file of the pawn that can be taken 'en passant', this is only the case when a pawn of the
+     * other alliance stands next to it
+     * @param bitBoard layout of the board
+     * @param pawnSquare square of the pawn that made a pawn jump
+     * @param pawnAlliance alliance of the pawn that made a pawn jump
+     * @return file of the pawn, -1 if it can't be taken
+     */
+    public static int enPassantFile(BitBoard bitBoard, int pawnSquare, Alliance pawnAlliance) {
+        final int file = pawnSquare % 8;
+        final long enemyPawns = bitBoard.getPieces(PieceType.PAWN,
+                pawnAlliance == Alliance.WHITE ? Alliance.BLACK : Alliance.WHITE);
+        if (file > 0 && (enemyPawns & BitBoard.bitOf(pawnSquare - 1)) != 0) return file;
+        if (file < 7 && (enemyPawns & BitBoard.bitOf(pawnSquare + 1)) != 0) return file;
+        return -1;
+    }
+
+    /**
+     * @param board to look at
+     * @return file of the pawn that can be taken 'en passant' on the board, -1 if there is none
+     */
+    static int enPassantFile(Board board) {
+        final Piece pawn = board.getEnPassantPawn();
+        if (pawn == null) return -1;
+        return enPassantFile(board.getBitBoard(), pawn.getPieceCoordinate().getIndex(), pawn.getPieceAlliance());
+    }
+
+    /**
+     * Calculates the key of a board from scratch
+     * @param board to calculate the key for
+     * @return the Zobrist key of the position
+     */
+    public static long calculateKey(Board board) {
+        long key = 0;
+        for (Piece piece : board.getWhitePieces()) key ^= piece(piece);
+        for (Piece piece : board.getBlackPieces()) key ^= piece(piece);
+        if (board.currentPlayer().getAlliance() == Alliance.BLACK) key ^= BLACK_TO_MOVE;
+        return key ^ castling(castlingRights(board)) ^ enPassant(enPassantFile(board));
+    }
+}
@@ -270,7 +270,7 @@ public class ChessGame extends Application {
                 //Empty any ongoing player move
                 moveDescription.resetDescription();
                 //Let AI find "best" move
-                Move hintMove = gameStateManager.getHint(4, 1000);
+                Move hintMove = gameStateManager.getHint(4);
                 //Set coordinates found
                 moveDescription.setHintStartCoordinate(hintMove.getCurrentCoordinate());
                 moveDescription.setHintDestinationCoordinate(hintMove.getDestinationCoordinate());
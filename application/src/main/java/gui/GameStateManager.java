@@ -14,7 +14,9 @@ import player.basicAI.RegularBoardEvaluator;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
@@ -22,6 +24,11 @@ import java.util.concurrent.ThreadLocalRandom;
  * with methods that retrieve information about the current game state.
  */
 public class GameStateManager {
+    // number of times a position has to occur for the game to be drawn
+    private static final int REPETITION_LIMIT = 3;
+    // time the AI may think about a move and about a hint, it searches as deep as it can within the time
+    private static final long AI_MOVE_TIME_MILLIS = 5000, HINT_TIME_MILLIS = 2000;
+
     private Board chessDataBoard;
     private final GameMode gameMode;
 
@@ -31,11 +38,17 @@ public class GameStateManager {
     private int whitePlayerScore, blackPlayerScore;
     private boolean isWhiteAI, isBlackAI;
     private final int aiDepth;
+    // the strategies are kept for the whole game, so that their transposition tables are allocated once and what
+    // they found is kept between moves. The hint strategy is made again when the hint settings change
+    private MoveStrategy aiStrategy, hintStrategy;
+    private int hintDepth;
 
     //Move history, even = white moves, odd = black moves
     private final List<Move> moveHistory = new ArrayList<>();
     private final List<Piece> takenPieces = new ArrayList<>();
     private final List<Board> boardHistory = new ArrayList<>();
+    // number of times every position of boardHistory occurs in it, by Zobrist key
+    private final Map<Long, Integer> positionCounts = new HashMap<>();
 
     private ChessGame mainGUI = null;
 
@@ -71,7 +84,7 @@ public class GameStateManager {
         else this.chessDataBoard = Board.createStandardBoard();
 
         //Add first board to boardHistory
-        this.boardHistory.add(this.chessDataBoard);
+        addToHistory(this.chessDataBoard);
     }
 
     /**
@@ -89,21 +102,17 @@ public class GameStateManager {
             if (moveAttempt instanceof PawnPromotion) {
                 if (mainGUI == null) throw new IllegalStateException("State manager not supplied with main GUI");
                 Piece.PieceType userSelectedType = mainGUI.showPromotionWindow();
-                List<PawnPromotion> availablePromotions = MoveFactory.getPromotionMoves(chessDataBoard);
-                for (PawnPromotion promotion : availablePromotions) {
-                    if (promotion.getUpgradeType() == userSelectedType &&
-                            promotion.getDestinationCoordinate().equals(destination)) {
-                        //Changes the move that altered the board
-                        moveTransition = chessDataBoard.currentPlayer().makeMove(promotion);
-                        moveAttempt = promotion;
-                        break;
-                    }
+                final Move promotion = MoveFactory.createMove(chessDataBoard, start, destination, userSelectedType);
+                if (promotion instanceof PawnPromotion) {
+                    //Changes the move that altered the board
+                    moveTransition = chessDataBoard.currentPlayer().makeMove(promotion);
+                    moveAttempt = promotion;
                 }
             }
 
             chessDataBoard = moveTransition.getTransitionBoard();
             moveHistory.add(moveAttempt);
-            boardHistory.add(chessDataBoard);
+            addToHistory(chessDataBoard);
             if (moveAttempt.isAttack()) takenPieces.add(moveAttempt.getAttackedPiece());
             return true;
         }
@@ -117,15 +126,17 @@ public class GameStateManager {
      */
     boolean makeAIMove() {
         if ((currentPlayerAlliance() == Alliance.WHITE && isWhiteAI) || (currentPlayerAlliance() == Alliance.BLACK && isBlackAI)) {
-            MoveStrategy moveStrategy = new MiniMax(aiDepth, 1000, true, true);
-            final Move AIMove = moveStrategy.execute(chessDataBoard);
+            if (aiStrategy == null) {
+                aiStrategy = new MiniMax(aiDepth, MiniMax.DEFAULT_MAX_QUIESCENCE, true, true, MiniMax.DEFAULT_HASH_SIZE_MB, AI_MOVE_TIME_MILLIS);
+            }
+            final Move AIMove = aiStrategy.execute(chessDataBoard);
             final MoveTransition moveTransition = chessDataBoard.currentPlayer().makeMove(AIMove);
 
             if (moveTransition.getMoveStatus().isDone()) {
                 //clear out undone boards and moves
                 chessDataBoard = moveTransition.getTransitionBoard();
                 moveHistory.add(AIMove);
-                boardHistory.add(chessDataBoard);
+                addToHistory(chessDataBoard);
                 if (AIMove.isAttack()) takenPieces.add(AIMove.getAttackedPiece());
                 return true;
             }
@@ -140,7 +151,7 @@ public class GameStateManager {
     public void undoMove() {
         if (boardHistory.size() < 3 || moveHistory.isEmpty()) return;
         for (int i = 0; i < 2; i++) {
-            boardHistory.remove(boardHistory.size() - 1);
+            removeLastFromHistory();
             Move lastMove = moveHistory.get(moveHistory.size() - 1);
             if (lastMove.isAttack()) takenPieces.remove(lastMove.getAttackedPiece());
             moveHistory.remove(lastMove);
@@ -148,6 +159,16 @@ public class GameStateManager {
         this.chessDataBoard = boardHistory.get(boardHistory.size() - 1);
     }
 
+    private void addToHistory(Board board) {
+        boardHistory.add(board);
+        positionCounts.merge(board.getZobristKey(), 1, Integer::sum);
+    }
+
+    private void removeLastFromHistory() {
+        final Board board = boardHistory.remove(boardHistory.size() - 1);
+        positionCounts.computeIfPresent(board.getZobristKey(), (key, count) -> count == 1 ? null : count - 1);
+    }
+
     /**
      * Checks if undo is allowed on the board
      *
@@ -220,28 +241,23 @@ public class GameStateManager {
      * @return true if there are no further moves for the player (or all black pieces are gone - horde mode)
      */
     public boolean isGameOver() {
-        boolean checkmate = chessDataBoard.currentPlayer().isInCheckmate();
-        boolean stalemate = chessDataBoard.currentPlayer().isInStalemate();
+        boolean checkmateOrStalemate = chessDataBoard.currentPlayer().getGameStatus().isGameOver();
         boolean repetition = isDraw();
 
         //For horde mode game over condition
         boolean allBlackPiecesTaken = chessDataBoard.getBlackPlayer().getActivePieces().isEmpty();
 
-        return checkmate || stalemate || repetition || allBlackPiecesTaken;
+        return checkmateOrStalemate || repetition || allBlackPiecesTaken;
     }
 
     /**
-     * Check if a single board state is repeated within the last 5 turns to check if its a draw
+     * Check if the current position, with the same player to move and the same castling and 'en passant' rights,
+     * has occurred three times in the game, which makes it a draw
      *
      * @return true if its a draw, false otherwise
      */
     public boolean isDraw() {
-        int counter = 0;
-        for (Board b : boardHistory) {
-            if (chessDataBoard.toString().equals(b.toString())) counter++;
-            if (counter >= 4) return true;
-        }
-        return false;
+        return positionCounts.getOrDefault(chessDataBoard.getZobristKey(), 0) >= REPETITION_LIMIT;
     }
 
     void gameOverCalculations() {
@@ -315,13 +331,17 @@ public class GameStateManager {
     /**
      * Lets the AI suggest a move
      *
-     * @param searchDepth for the ai looking for "best move"
-     * @param quiescence  how many deeper searches is allowed
+     * The quiescence search goes MiniMax.DEFAULT_MAX_QUIESCENCE plys past the search depth
+     *
+     * @param searchDepth maximum depth for the ai looking for "best move"
      * @return move that ai found to be best
      */
-    Move getHint(int searchDepth, int quiescence) {
-        MoveStrategy strategy = new MiniMax(searchDepth, quiescence, true, true);
-        return strategy.execute(this.chessDataBoard);
+    Move getHint(int searchDepth) {
+        if (hintStrategy == null || hintDepth != searchDepth) {
+            hintStrategy = new MiniMax(searchDepth, MiniMax.DEFAULT_MAX_QUIESCENCE, true, true, MiniMax.DEFAULT_HASH_SIZE_MB, HINT_TIME_MILLIS);
+            hintDepth = searchDepth;
+        }
+        return hintStrategy.execute(this.chessDataBoard);
     }
 
     /**
@@ -338,10 +358,9 @@ public class GameStateManager {
      * @return a list of legal moves available from a given tile
      */
     Collection<Coordinate> getLegalMovesFromTile(Tile tile) {
-        List<Move> temp = new ArrayList<>(this.chessDataBoard.currentPlayer().getLegalMovesForPiece(tile.getPiece()));
         List<Coordinate> coordinatesToHighlight = new ArrayList<>();
-        for (Move move : temp) {
-            if (this.chessDataBoard.currentPlayer().makeMove(move).getMoveStatus().isDone()) {
+        for (Move move : this.chessDataBoard.currentPlayer().getStrictlyLegalMoves()) {
+            if (tile.getPiece().equals(move.getMovedPiece())) {
                 coordinatesToHighlight.add(move.getDestinationCoordinate());
             }
         }
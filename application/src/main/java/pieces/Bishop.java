@@ -14,10 +14,9 @@ import java.util.List;
 public class Bishop extends Piece {
 
     /**
-     * List holds possible coordinates in relation to the piece's position where it may move.
-     * NB: 2 and 2 integers represent x and y. [0] = x [1] = y etc.
+     * an array that contains every bishop that can exist on the board, see Piece.cacheIndex
      */
-    private final static int[] POSSIBLE_MOVE_COORDINATES = {-1, 1, -1, -1, 1, -1, 1, 1};
+    private static final Bishop[] BISHOP_CACHE = createCache(Bishop[]::new, Bishop::new);
 
     /**
      * Constructor which defaults the Pieces isFirstMove variable to true
@@ -33,11 +32,23 @@ public class Bishop extends Piece {
         super(pieceCoordinate, pieceAlliance, isFirstMove, PieceType.BISHOP);
     }
 
+    /**
+     * Get the shared bishop object for the given position and settings
+     * @param pieceCoordinate position of the bishop
+     * @param pieceAlliance alliance of the bishop
+     * @param isFirstMove if it is the piece's first move or not
+     * @return a cached Bishop equal to new Bishop(pieceCoordinate, pieceAlliance, isFirstMove)
+     */
+    public static Bishop of(Coordinate pieceCoordinate, Alliance pieceAlliance, boolean isFirstMove) {
+        if (!BoardUtils.getInstance().isValidCoordinate(pieceCoordinate)) return new Bishop(pieceCoordinate, pieceAlliance, isFirstMove);
+        return BISHOP_CACHE[cacheIndex(pieceAlliance, pieceCoordinate, isFirstMove)];
+    }
+
     @Override
     public Collection<Move> calculateLegalMoves(Board board) {
         List<Move> allMoves = new ArrayList<>();
-        for (int i = 0; i < POSSIBLE_MOVE_COORDINATES.length; i += 2) {
-            allMoves.addAll(travelInDirection(POSSIBLE_MOVE_COORDINATES[i], POSSIBLE_MOVE_COORDINATES[i+1], board, -1));
+        for (int direction : AttackTables.BISHOP_DIRECTIONS) {
+            addSlidingMoves(AttackTables.getRay(direction, pieceCoordinate.getIndex()), board, allMoves);
         }
 
         return Collections.unmodifiableList(allMoves);
@@ -45,7 +56,7 @@ public class Bishop extends Piece {
 
     @Override
     public Bishop movePiece(Move move) {
-        return new Bishop(move.getDestinationCoordinate(), move.getMovedPiece().getPieceAlliance(), false);
+        return Bishop.of(move.getDestinationCoordinate(), move.getMovedPiece().getPieceAlliance(), false);
     }
 
     @Override
@@ -10,10 +10,10 @@ import java.util.List;
 public class King extends Piece {
 
     /**
-     * List holds possible coordinates in relation to the piece's position where it may move.
-     * NB: 2 and 2 integers represent x and y. [0] = x [1] = y etc.
+     * an array that contains every king that can exist on the board, see Piece.createFlaggedCache
      */
-    private final static int[] POSSIBLE_MOVE_COORDINATES = {-1, 0, -1, -1, 0, -1, 1, -1, 1, 0, 1, 1, 0, 1, -1, 1};
+    private static final King[] KING_CACHE = createFlaggedCache(King[]::new, King::new);
+
     private final boolean isCastled;
 
     /**
@@ -32,19 +32,30 @@ public class King extends Piece {
         this.isCastled = isCastled;
     }
 
+    /**
+     * Get the shared king object for the given position and settings
+     * @param pieceCoordinate position of the king
+     * @param pieceAlliance alliance of the king
+     * @param isFirstMove if it is the piece's first move or not
+     * @param isCastled if the king has castled
+     * @return a cached King equal to new King(pieceCoordinate, pieceAlliance, isFirstMove, isCastled)
+     */
+    public static King of(Coordinate pieceCoordinate, Alliance pieceAlliance, boolean isFirstMove, boolean isCastled) {
+        if (!BoardUtils.getInstance().isValidCoordinate(pieceCoordinate)) return new King(pieceCoordinate, pieceAlliance, isFirstMove, isCastled);
+        return KING_CACHE[cacheIndex(pieceAlliance, pieceCoordinate, isFirstMove, isCastled)];
+    }
+
     @Override
     public Collection<Move> calculateLegalMoves(Board board) {
         List<Move> allMoves = new ArrayList<>();
-        for (int i = 0; i < POSSIBLE_MOVE_COORDINATES.length; i += 2) {
-            allMoves.addAll(travelInDirection(POSSIBLE_MOVE_COORDINATES[i], POSSIBLE_MOVE_COORDINATES[i+1], board, 1));
-        }
+        addStepMoves(AttackTables.getKingTargets(pieceCoordinate.getIndex()), board, allMoves);
 
         return Collections.unmodifiableList(allMoves);
     }
 
     @Override
     public King movePiece(Move move) {
-        return new King(move.getDestinationCoordinate(), move.getMovedPiece().getPieceAlliance(), false, move.isCastlingMove());
+        return King.of(move.getDestinationCoordinate(), move.getMovedPiece().getPieceAlliance(), false, move.isCastlingMove());
     }
 
     @Override
@@ -14,10 +14,9 @@ import java.util.List;
 public class Knight extends Piece {
 
     /**
-     * List holds possible coordinates in relation to the piece's position where it may move.
-     * NB: 2 and 2 integers represent x and y. [0] = x [1] = y etc.
+     * an array that contains every knight that can exist on the board, see Piece.cacheIndex
      */
-    private final static int[] POSSIBLE_MOVE_COORDINATES = {-2, 1, -1, 2, 1, 2, 2, 1, -2, -1, -1, -2, 1, -2, 2, -1};
+    private static final Knight[] KNIGHT_CACHE = createCache(Knight[]::new, Knight::new);
 
     /**
      * Constructor which defaults the Pieces isFirstMove variable to true
@@ -33,19 +32,29 @@ public class Knight extends Piece {
         super(pieceCoordinate, pieceAlliance, isFirstMove, PieceType.KNIGHT);
     }
 
+    /**
+     * Get the shared knight object for the given position and settings
+     * @param pieceCoordinate position of the knight
+     * @param pieceAlliance alliance of the knight
+     * @param isFirstMove if it is the piece's first move or not
+     * @return a cached Knight equal to new Knight(pieceCoordinate, pieceAlliance, isFirstMove)
+     */
+    public static Knight of(Coordinate pieceCoordinate, Alliance pieceAlliance, boolean isFirstMove) {
+        if (!BoardUtils.getInstance().isValidCoordinate(pieceCoordinate)) return new Knight(pieceCoordinate, pieceAlliance, isFirstMove);
+        return KNIGHT_CACHE[cacheIndex(pieceAlliance, pieceCoordinate, isFirstMove)];
+    }
+
     @Override
     public Collection<Move> calculateLegalMoves(Board board) {
         List<Move> allMoves = new ArrayList<>();
-        for (int i = 0; i < POSSIBLE_MOVE_COORDINATES.length; i += 2) {
-            allMoves.addAll(travelInDirection(POSSIBLE_MOVE_COORDINATES[i], POSSIBLE_MOVE_COORDINATES[i+1], board, 1));
-        }
+        addStepMoves(AttackTables.getKnightTargets(pieceCoordinate.getIndex()), board, allMoves);
 
         return Collections.unmodifiableList(allMoves);
     }
 
     @Override
     public Knight movePiece(Move move) {
-        return new Knight(move.getDestinationCoordinate(), move.getMovedPiece().getPieceAlliance(), false);
+        return Knight.of(move.getDestinationCoordinate(), move.getMovedPiece().getPieceAlliance(), false);
     }
 
     @Override
@@ -17,6 +17,12 @@ import static board.Move.*;
  * See more documentation in Piece-class.
  */
 public class Pawn extends Piece {
+
+    /**
+     * an array that contains every pawn that can exist on the board, see Piece.createFlaggedCache
+     */
+    private static final Pawn[] PAWN_CACHE = createFlaggedCache(Pawn[]::new, Pawn::new);
+
     private final boolean lightBrigadeMode;
 
     /**
@@ -37,6 +43,26 @@ public class Pawn extends Piece {
         this.lightBrigadeMode = lightBrigadeMode;
     }
 
+    /**
+     * Get the shared pawn object for the given position and settings
+     * @param pieceCoordinate position of the pawn
+     * @param pieceAlliance alliance of the pawn
+     * @param isFirstMove if it is the piece's first move or not
+     * @param lightBrigadeMode restricts promotion availability if true
+     * @return a cached Pawn equal to new Pawn(pieceCoordinate, pieceAlliance, isFirstMove, lightBrigadeMode)
+     */
+    public static Pawn of(Coordinate pieceCoordinate, Alliance pieceAlliance, boolean isFirstMove, boolean lightBrigadeMode) {
+        if (!BoardUtils.getInstance().isValidCoordinate(pieceCoordinate)) return new Pawn(pieceCoordinate, pieceAlliance, isFirstMove, lightBrigadeMode);
+        return PAWN_CACHE[cacheIndex(pieceAlliance, pieceCoordinate, isFirstMove, lightBrigadeMode)];
+    }
+
+    /**
+     * @return true if the pawn's promotions are restricted by the light brigade mode
+     */
+    public boolean isLightBrigadeMode() {
+        return this.lightBrigadeMode;
+    }
+
     @Override
     public Collection<Move> calculateLegalMoves(Board board) {
         List<Move> allMoves = new ArrayList<>();
@@ -51,8 +77,8 @@ public class Pawn extends Piece {
             }
         }
 
-        Coordinate attack1 = new Coordinate(getPieceCoordinate().getX() - 1, goForward(1).getY());
-        Coordinate attack2 = new Coordinate(getPieceCoordinate().getX() + 1, goForward(1).getY());
+        Coordinate attack1 = Coordinate.of(getPieceCoordinate().getX() - 1, goForward(1).getY());
+        Coordinate attack2 = Coordinate.of(getPieceCoordinate().getX() + 1, goForward(1).getY());
         if (BoardUtils.getInstance().isValidCoordinate(attack1)) allMoves.addAll(addAttackMoves(board, attack1));
         if (BoardUtils.getInstance().isValidCoordinate(attack2)) allMoves.addAll(addAttackMoves(board, attack2));
 
@@ -101,17 +127,18 @@ public class Pawn extends Piece {
             Piece pieceAtDestination = board.getTile(destination).getPiece();
             if (this.pieceAlliance.isPawnPromotionCoordinate(destination)) {
                 if (this.lightBrigadeMode && this.pieceAlliance == Alliance.WHITE) {
-                    moves.add(new PawnPromotion(new PawnMove(board, this, destination), PieceType.QUEEN));
+                    moves.add(new PawnPromotion(new PawnAttackMove(board, this, destination, pieceAtDestination), PieceType.QUEEN));
                 } else if (this.lightBrigadeMode && this.pieceAlliance == Alliance.BLACK) {
-                    moves.add(new PawnPromotion(new PawnMove(board, this, destination), PieceType.KNIGHT));
+                    moves.add(new PawnPromotion(new PawnAttackMove(board, this, destination, pieceAtDestination), PieceType.KNIGHT));
                 } else {
                     moves.add(new PawnPromotion(new PawnAttackMove(board, this, destination, pieceAtDestination), PieceType.QUEEN));
                     moves.add(new PawnPromotion(new PawnAttackMove(board, this, destination, pieceAtDestination), PieceType.ROOK));
                     moves.add(new PawnPromotion(new PawnAttackMove(board, this, destination, pieceAtDestination), PieceType.BISHOP));
                     moves.add(new PawnPromotion(new PawnAttackMove(board, this, destination, pieceAtDestination), PieceType.KNIGHT));
                 }
+            } else {
+                moves.add(new PawnAttackMove(board, this, destination, pieceAtDestination));
             }
-            moves.add(new PawnAttackMove(board, this, destination, pieceAtDestination));
         } else if (board.getTile(destination).isEmpty() && board.getEnPassantPawn() != null) {
             Move ep = getEnPassantMove(board, destination);
             if (ep != null) moves.add(ep);
@@ -143,8 +170,8 @@ public class Pawn extends Piece {
      * @return new coordinate based on initial piece coordinate
      */
     private Coordinate goForward(int nIncrements) {
-        if (this.pieceAlliance == Alliance.WHITE) return new Coordinate(getPieceCoordinate().getX(), getPieceCoordinate().getY() - nIncrements);
-        return new Coordinate(getPieceCoordinate().getX(), getPieceCoordinate().getY() + nIncrements);
+        if (this.pieceAlliance == Alliance.WHITE) return Coordinate.of(getPieceCoordinate().getX(), getPieceCoordinate().getY() - nIncrements);
+        return Coordinate.of(getPieceCoordinate().getX(), getPieceCoordinate().getY() + nIncrements);
     }
 
     /**
@@ -153,13 +180,13 @@ public class Pawn extends Piece {
      * @return new coordinate based on initial piece coordinate
      */
     private Coordinate goBackward(int nIncrements) {
-        if (this.pieceAlliance == Alliance.WHITE) return new Coordinate(getPieceCoordinate().getX(), getPieceCoordinate().getY() + nIncrements);
-        return new Coordinate(getPieceCoordinate().getX(), getPieceCoordinate().getY() - nIncrements);
+        if (this.pieceAlliance == Alliance.WHITE) return Coordinate.of(getPieceCoordinate().getX(), getPieceCoordinate().getY() + nIncrements);
+        return Coordinate.of(getPieceCoordinate().getX(), getPieceCoordinate().getY() - nIncrements);
     }
 
     @Override
     public Pawn movePiece(Move move) {
-        return new Pawn(move.getDestinationCoordinate(), move.getMovedPiece().getPieceAlliance(), false, this.lightBrigadeMode);
+        return Pawn.of(move.getDestinationCoordinate(), move.getMovedPiece().getPieceAlliance(), false, this.lightBrigadeMode);
     }
 
     @Override
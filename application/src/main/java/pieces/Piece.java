@@ -1,14 +1,15 @@
 package pieces;
 
+import board.BitBoard;
 import board.Board;
 import board.BoardUtils;
 import board.Coordinate;
 import board.Move;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.IntFunction;
 
 import static board.Move.*;
 
@@ -17,6 +18,12 @@ import static board.Move.*;
  */
 public abstract class Piece {
 
+    /**
+     * Number of distinct combinations of alliance, square and first move flag that a piece can have,
+     * this is the size of the flyweight caches held by the piece classes
+     */
+    static final int CACHE_SIZE = 2 * 64 * 2;
+
     final Coordinate pieceCoordinate;
     final Alliance pieceAlliance;
     private final boolean isFirstMove;
@@ -38,6 +45,83 @@ public abstract class Piece {
         this.pieceType = pieceType;
     }
 
+    /**
+     * Position of a piece in the flyweight caches held by the piece classes
+     *
+     * @param alliance    alliance of the piece
+     * @param coordinate  position of the piece, must be on the board
+     * @param isFirstMove if it is the piece's first move or not
+     * @return index between 0 and CACHE_SIZE - 1
+     */
+    static int cacheIndex(final Alliance alliance, final Coordinate coordinate, final boolean isFirstMove) {
+        return (alliance.ordinal() * 64 + coordinate.getIndex()) * 2 + (isFirstMove ? 1 : 0);
+    }
+
+    /**
+     * Position of a piece with one more flag (a castled king, a light brigade pawn) in a cache made by
+     * createFlaggedCache, the flag doubles the cache of cacheIndex
+     */
+    static int cacheIndex(final Alliance alliance, final Coordinate coordinate, final boolean isFirstMove, final boolean flag) {
+        return cacheIndex(alliance, coordinate, isFirstMove) * 2 + (flag ? 1 : 0);
+    }
+
+    /**
+     * Creates every piece of a class that can exist on the board, for the flyweight cache of the class
+     *
+     * @param newArray    creates an array of the piece class
+     * @param constructor of the piece class from its position, alliance and first move flag
+     * @return an array with the piece of every alliance, square and first move flag, see cacheIndex
+     */
+    static <T extends Piece> T[] createCache(final IntFunction<T[]> newArray, final PieceConstructor<T> constructor) {
+        final T[] cache = newArray.apply(CACHE_SIZE);
+        for (Alliance alliance : Alliance.values()) {
+            for (int square = 0; square < 64; square++) {
+                final Coordinate coordinate = Coordinate.of(square);
+                cache[cacheIndex(alliance, coordinate, true)] = constructor.create(coordinate, alliance, true);
+                cache[cacheIndex(alliance, coordinate, false)] = constructor.create(coordinate, alliance, false);
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Creates every piece of a class with one more flag that can exist on the board, for the flyweight cache of the
+     * class
+     *
+     * @param newArray    creates an array of the piece class
+     * @param constructor of the piece class from its position, alliance, first move flag and the other flag
+     * @return an array with the piece of every alliance, square and both flags, see cacheIndex
+     */
+    static <T extends Piece> T[] createFlaggedCache(final IntFunction<T[]> newArray, final FlaggedPieceConstructor<T> constructor) {
+        final T[] cache = newArray.apply(CACHE_SIZE * 2);
+        for (Alliance alliance : Alliance.values()) {
+            for (int square = 0; square < 64; square++) {
+                final Coordinate coordinate = Coordinate.of(square);
+                for (boolean isFirstMove : new boolean[] {true, false}) {
+                    cache[cacheIndex(alliance, coordinate, isFirstMove, true)] = constructor.create(coordinate, alliance, isFirstMove, true);
+                    cache[cacheIndex(alliance, coordinate, isFirstMove, false)] = constructor.create(coordinate, alliance, isFirstMove, false);
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Constructor of a piece class, see createCache
+     */
+    @FunctionalInterface
+    interface PieceConstructor<T extends Piece> {
+        T create(Coordinate pieceCoordinate, Alliance pieceAlliance, boolean isFirstMove);
+    }
+
+    /**
+     * Constructor of a piece class with one more flag, see createFlaggedCache
+     */
+    @FunctionalInterface
+    interface FlaggedPieceConstructor<T extends Piece> {
+        T create(Coordinate pieceCoordinate, Alliance pieceAlliance, boolean isFirstMove, boolean flag);
+    }
+
     /**
      * Every class which implements this method shall calculate according to the rules defined by itself which moves
      * that are legal to do.
@@ -90,29 +174,41 @@ public abstract class Piece {
     }
 
     /**
-     * Calculates the legal moves for a piece traveling in a given direction
-     * @param changeX change of x value in relation to initial position
-     * @param changeY change of y value in relation to initial position
+     * Adds the moves of a piece traveling along a ray, up to and including the first occupied square
+     * @param ray squares in one direction, see AttackTables.getRay
      * @param board piece is moving on
-     * @param distanceLimit limit travel, -1 = infinite
-     * @return legal moves in a given direction
-     */
-    List<Move> travelInDirection(int changeX, int changeY, Board board, int distanceLimit) {
-        List<Move> moves = new ArrayList<>();
-        Coordinate nextCoordinate = new Coordinate(pieceCoordinate.getX() + changeX, pieceCoordinate.getY() + changeY);
-
-        while (BoardUtils.getInstance().isValidCoordinate(nextCoordinate) && (distanceLimit > 0 || distanceLimit <= -1)) {
-            if (board.isFriendly(this, nextCoordinate)) break;
-            if (board.isEnemy(this, nextCoordinate)) {
-                moves.add(new MajorAttackMove(board, this, nextCoordinate, board.getTile(nextCoordinate).getPiece()));
-                break;
+     * @param moves list to add the moves to
+     */
+    void addSlidingMoves(int[] ray, Board board, List<Move> moves) {
+        final BitBoard bitBoard = board.getBitBoard();
+        for (int square : ray) {
+            if (bitBoard.isOccupied(square)) {
+                if (!bitBoard.isOccupiedBy(square, this.pieceAlliance)) {
+                    final Coordinate destination = Coordinate.of(square);
+                    moves.add(new MajorAttackMove(board, this, destination, board.getTile(destination).getPiece()));
+                }
+                return;
             }
-            moves.add(new MajorMove(board, this, nextCoordinate));
-            nextCoordinate = new Coordinate(nextCoordinate.getX() + changeX, nextCoordinate.getY() + changeY);
-            distanceLimit--;
+            moves.add(new MajorMove(board, this, Coordinate.of(square)));
         }
+    }
 
-        return moves;
+    /**
+     * Adds the moves of a piece that moves a single step to one of the given squares
+     * @param targets squares the piece can reach, see AttackTables.getKnightTargets and getKingTargets
+     * @param board piece is moving on
+     * @param moves list to add the moves to
+     */
+    void addStepMoves(int[] targets, Board board, List<Move> moves) {
+        final BitBoard bitBoard = board.getBitBoard();
+        for (int square : targets) {
+            final Coordinate destination = Coordinate.of(square);
+            if (!bitBoard.isOccupied(square)) {
+                moves.add(new MajorMove(board, this, destination));
+            } else if (!bitBoard.isOccupiedBy(square, this.pieceAlliance)) {
+                moves.add(new MajorAttackMove(board, this, destination, board.getTile(destination).getPiece()));
+            }
+        }
     }
 
     /**
@@ -0,0 +1,15 @@
+package player;
+
+/**
+ * Enum which represents the status of the game in a position, seen from the player that makes the next move
+ */
+public enum GameStatus {
+    ONGOING, CHECKMATE, STALEMATE;
+
+    /**
+     * @return true if the player can not make a move, so the game has ended
+     */
+    public boolean isGameOver() {
+        return this != ONGOING;
+    }
+}
@@ -4,15 +4,20 @@ import board.Board;
 import board.BoardUtils;
 import board.Coordinate;
 import board.Move;
+import board.MoveList;
+import board.SearchBoard;
 import pieces.Alliance;
 import pieces.King;
 import pieces.Piece;
 import pieces.Rook;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static board.Move.*;
 
@@ -22,30 +27,31 @@ import static board.Move.*;
 public class Player {
     private final Board board;
     private final King playerKing;
-    private final Collection<Move> legalMoves;
-    private boolean isInCheck = false;
     private final Alliance playerAlliance;
 
+    // calculated on first access and then kept, a board is immutable so these never change.
+    // volatile since the same board may be read by several threads (e.g. by a parallel search)
+    private volatile Collection<Move> pieceMoves;
+    private volatile Collection<Move> legalMoves;
+    private volatile Collection<Move> strictlyLegalMoves;
+    // packed form of the strictly legal moves, sorted for a binary search. Only set when the player has a king
+    private volatile int[] strictlyLegalPackedMoves;
+    private volatile MoveIndex moveIndex;
+    private volatile Boolean isInCheck;
+    private volatile GameStatus gameStatus;
+
     /**
-     * Constructor for abstract player object
+     * Constructor for abstract player object.
+     * Nothing but the king of the player is looked up here, the moves of the player and its check status
+     * are calculated the first time they are asked for.
      *
-     * @param board         which the player plays on
-     * @param legalMoves    moves belonging to the player
-     * @param opponentMoves move belonging to the opponent
+     * @param board          which the player plays on
+     * @param playerAlliance alliance of the pieces belonging to the player
      */
-    public Player(Board board, Alliance playerAlliance, Collection<Move> legalMoves, Collection<Move> opponentMoves) {
+    public Player(Board board, Alliance playerAlliance) {
         this.board = board;
         this.playerAlliance = playerAlliance;
-        King king = establishKing();
-        this.playerKing = king;
-
-        // add castling moves to legal moves
-        // allows the creation of boards without a king -> mostly for testing purposes
-        if (king != null) {
-            this.isInCheck = !calculateAttacksOnCoordinate(this.playerKing.getPieceCoordinate(), opponentMoves).isEmpty();
-            legalMoves.addAll(calculateKingCastles(opponentMoves));
-        }
-        this.legalMoves = legalMoves;
+        this.playerKing = establishKing();
     }
 
     /**
@@ -70,66 +76,87 @@ public class Player {
     }
 
     /**
-     * This method shall calculate if there are any castling moves that is available to the player
+     * This method shall calculate if there are any castling moves that is available to the player.
+     * The squares the king passes are tested with Board.isSquareAttacked, the moves of the opponent are not needed.
      *
-     * @param opponentMoves the moves available to the opponent
      * @return a Collection of possible castling moves
      */
-    Collection<Move> calculateKingCastles(Collection<Move> opponentMoves) {
+    Collection<Move> calculateKingCastles() {
         final List<Move> kingCastles = new ArrayList<>();
+        final Alliance opponentAlliance = getOpponentAlliance();
+        final int kingX = this.playerKing.getPieceCoordinate().getX(), kingY = this.playerKing.getPieceCoordinate().getY();
 
         if (this.playerKing.isFirstMove() && !this.isInCheck()) {
             // King side castle
-            Coordinate oneStepRight = new Coordinate(this.playerKing.getPieceCoordinate().getX() + 1, this.playerKing.getPieceCoordinate().getY());
-            Coordinate twoStepsRight = new Coordinate(oneStepRight.getX() + 1, oneStepRight.getY());
-            if (this.board.getTile(oneStepRight).isEmpty() && this.board.getTile(twoStepsRight).isEmpty()) {
-
-                // Check that that the rook is in position, and that it is making it's first move.
-                // Check that there are no attacks on tiles in between the king and the rook
-                Piece rookPiece;
-                if (this.playerAlliance == Alliance.WHITE) {
-                    rookPiece = this.board.getTile(new Coordinate(BoardUtils.getInstance().getWidth() - 1, BoardUtils.getInstance().getHeight() - 1)).getPiece();
-                } else {
-                    rookPiece = this.board.getTile(new Coordinate(BoardUtils.getInstance().getWidth() - 1, 0)).getPiece();
-                }
+            if (kingX + 2 < BoardUtils.getInstance().getWidth()) {
+                Coordinate oneStepRight = Coordinate.of(kingX + 1, kingY);
+                Coordinate twoStepsRight = Coordinate.of(oneStepRight.getX() + 1, oneStepRight.getY());
+                if (this.board.getTile(oneStepRight).isEmpty() && this.board.getTile(twoStepsRight).isEmpty()) {
 
-                if (rookPiece instanceof Rook && rookPiece.isFirstMove() &&
-                        calculateAttacksOnCoordinate(oneStepRight, opponentMoves).isEmpty() &&
-                        calculateAttacksOnCoordinate(twoStepsRight, opponentMoves).isEmpty()) {
-                    // add this move to list of possible castling moves
-                    kingCastles.add(new KingSideCastleMove(this.board, this.playerKing, twoStepsRight,
-                            (Rook) rookPiece, rookPiece.getPieceCoordinate(), oneStepRight));
+                    // Check that that the rook is in position, and that it is making it's first move.
+                    // Check that there are no attacks on tiles in between the king and the rook
+                    Piece rookPiece;
+                    if (this.playerAlliance == Alliance.WHITE) {
+                        rookPiece = this.board.getTile(Coordinate.of(BoardUtils.getInstance().getWidth() - 1, BoardUtils.getInstance().getHeight() - 1)).getPiece();
+                    } else {
+                        rookPiece = this.board.getTile(Coordinate.of(BoardUtils.getInstance().getWidth() - 1, 0)).getPiece();
+                    }
+
+                    if (isUnmovedRook(rookPiece) &&
+                            !this.board.isSquareAttacked(oneStepRight, opponentAlliance) &&
+                            !this.board.isSquareAttacked(twoStepsRight, opponentAlliance)) {
+                        // add this move to list of possible castling moves
+                        kingCastles.add(new KingSideCastleMove(this.board, this.playerKing, twoStepsRight,
+                                (Rook) rookPiece, rookPiece.getPieceCoordinate(), oneStepRight));
+                    }
                 }
             }
             // Queen side castle
-            Coordinate oneStepLeft = new Coordinate(this.playerKing.getPieceCoordinate().getX() - 1, this.playerKing.getPieceCoordinate().getY());
-            Coordinate twoStepsLeft = new Coordinate(oneStepLeft.getX() - 1, oneStepLeft.getY());
-            Coordinate threeStepsLeft = new Coordinate(twoStepsLeft.getX() - 1, twoStepsLeft.getY());
-            if (this.board.getTile(oneStepLeft).isEmpty() && this.board.getTile(twoStepsLeft).isEmpty() &&
-                    this.board.getTile(threeStepsLeft).isEmpty()) {
-
-                // Check that that the rook is in position, and that it is making it's first move.
-                // Check that there are no attacks on tiles in between the king and the rook
-                // Rook may moved through attacked piece (threeStepsLeft)
-                Piece rookPiece;
-                if (this.playerAlliance == Alliance.WHITE) {
-                    rookPiece = this.board.getTile(new Coordinate(0, BoardUtils.getInstance().getHeight() - 1)).getPiece();
-                } else {
-                    rookPiece = this.board.getTile(new Coordinate(0, 0)).getPiece();
-                }
+            if (kingX - 3 >= 0) {
+                Coordinate oneStepLeft = Coordinate.of(kingX - 1, kingY);
+                Coordinate twoStepsLeft = Coordinate.of(oneStepLeft.getX() - 1, oneStepLeft.getY());
+                Coordinate threeStepsLeft = Coordinate.of(twoStepsLeft.getX() - 1, twoStepsLeft.getY());
+                if (this.board.getTile(oneStepLeft).isEmpty() && this.board.getTile(twoStepsLeft).isEmpty() &&
+                        this.board.getTile(threeStepsLeft).isEmpty()) {
 
-                if (rookPiece instanceof Rook && rookPiece.isFirstMove() &&
-                        calculateAttacksOnCoordinate(oneStepLeft, opponentMoves).isEmpty() &&
-                        calculateAttacksOnCoordinate(twoStepsLeft, opponentMoves).isEmpty()) {
-                    // add this move to list of possible castling moves
-                    kingCastles.add(new QueenSideCastleMove(this.board, this.playerKing, twoStepsLeft,
-                            (Rook) rookPiece, rookPiece.getPieceCoordinate(), oneStepLeft));
+                    // Check that that the rook is in position, and that it is making it's first move.
+                    // Check that there are no attacks on tiles in between the king and the rook
+                    // Rook may moved through attacked piece (threeStepsLeft)
+                    Piece rookPiece;
+                    if (this.playerAlliance == Alliance.WHITE) {
+                        rookPiece = this.board.getTile(Coordinate.of(0, BoardUtils.getInstance().getHeight() - 1)).getPiece();
+                    } else {
+                        rookPiece = this.board.getTile(Coordinate.of(0, 0)).getPiece();
+                    }
+
+                    if (isUnmovedRook(rookPiece) &&
+                            !this.board.isSquareAttacked(oneStepLeft, opponentAlliance) &&
+                            !this.board.isSquareAttacked(twoStepsLeft, opponentAlliance)) {
+                        // add this move to list of possible castling moves
+                        kingCastles.add(new QueenSideCastleMove(this.board, this.playerKing, twoStepsLeft,
+                                (Rook) rookPiece, rookPiece.getPieceCoordinate(), oneStepLeft));
+                    }
                 }
             }
         }
         return Collections.unmodifiableList(kingCastles);
     }
 
+    /**
+     * @param piece in the corner of the player's home row
+     * @return true if the piece is a rook of the player that has not moved yet
+     */
+    private boolean isUnmovedRook(Piece piece) {
+        return piece instanceof Rook && piece.getPieceAlliance() == this.playerAlliance && piece.isFirstMove();
+    }
+
+    /**
+     * @return alliance of the opponent player
+     */
+    private Alliance getOpponentAlliance() {
+        return this.playerAlliance == Alliance.WHITE ? Alliance.BLACK : Alliance.WHITE;
+    }
+
     /**
      * Finds all possible attacks on a given coordinate
      *
@@ -169,10 +196,73 @@ public class Player {
     }
 
     /**
+     * The legal moves of a player are the moves of its pieces and the castling moves available to the king.
+     * Note: moves that leave the player's own king in check are still part of this collection, see makeMove.
+     *
      * @return Collection of the player's legal moves
      */
     public Collection<Move> getLegalMoves() {
-        return this.legalMoves;
+        Collection<Move> moves = this.legalMoves;
+        if (moves == null) {
+            // allows the creation of boards without a king -> mostly for testing purposes
+            if (this.playerKing == null) {
+                moves = getPieceMoves();
+            } else {
+                final List<Move> allMoves = new ArrayList<>(getPieceMoves());
+                allMoves.addAll(calculateKingCastles());
+                moves = Collections.unmodifiableList(allMoves);
+            }
+            this.legalMoves = moves;
+        }
+        return moves;
+    }
+
+    /**
+     * Calculates the moves of each of the player's pieces, this is all of the legal moves except castling
+     *
+     * @return Collection of the moves made by the player's pieces
+     */
+    Collection<Move> getPieceMoves() {
+        Collection<Move> moves = this.pieceMoves;
+        if (moves == null) {
+            final List<Move> allMoves = new ArrayList<>();
+            for (Piece piece : getActivePieces()) {
+                allMoves.addAll(piece.calculateLegalMoves(this.board));
+            }
+            moves = Collections.unmodifiableList(allMoves);
+            this.pieceMoves = moves;
+        }
+        return moves;
+    }
+
+    /**
+     * The strictly legal moves are the legal moves that do not leave the player's own king in check.
+     * They are found by the generator of a SearchBoard, which knows the checks and pins of the position up front,
+     * so no board has to be created to test a move.
+     *
+     * @return Collection of the player's legal moves that do not leave its king in check
+     */
+    public Collection<Move> getStrictlyLegalMoves() {
+        Collection<Move> moves = this.strictlyLegalMoves;
+        if (moves == null) {
+            // without a king every move is allowed
+            if (this.playerKing == null) {
+                moves = getLegalMoves();
+            } else {
+                final MoveList moveList = new MoveList();
+                new SearchBoard(this.board, this.playerAlliance).generateLegalMoves(moveList);
+                final int[] packedMoves = moveList.toArray();
+                Arrays.sort(packedMoves);
+                final List<Move> allMoves = new ArrayList<>();
+                for (Move move : getLegalMoves()) {
+                    if (Arrays.binarySearch(packedMoves, MoveFactory.toPackedMove(move)) >= 0) allMoves.add(move);
+                }
+                this.strictlyLegalPackedMoves = packedMoves;
+                moves = Collections.unmodifiableList(allMoves);
+            }
+            this.strictlyLegalMoves = moves;
+        }
+        return moves;
     }
 
     /**
@@ -182,13 +272,20 @@ public class Player {
      * @return the given piece's moves
      */
     public Collection<Move> getLegalMovesForPiece(Piece piece) {
-        List<Move> pieceMoves = new ArrayList<>();
-        for (Move move : legalMoves) {
-            if (piece.equals(move.getMovedPiece())) {
-                pieceMoves.add(move);
-            }
-        }
-        return Collections.unmodifiableList(pieceMoves);
+        final List<Move> pieceMoves = getMoveIndex().movesByPiece.get(piece);
+        return pieceMoves == null ? Collections.emptyList() : Collections.unmodifiableList(pieceMoves);
+    }
+
+    /**
+     * Find the moves from one square to another, there are several only when a pawn promotes
+     *
+     * @param currentCoordinate   coordinate the piece moves from
+     * @param destinationCoordinate coordinate the piece moves to
+     * @return the legal moves between the coordinates, in the order of getLegalMoves
+     */
+    public List<Move> getLegalMovesBetween(Coordinate currentCoordinate, Coordinate destinationCoordinate) {
+        final List<Move> moves = getMoveIndex().movesBySquares.get(squaresKey(currentCoordinate, destinationCoordinate));
+        return moves == null ? Collections.emptyList() : Collections.unmodifiableList(moves);
     }
 
     /**
@@ -198,7 +295,51 @@ public class Player {
      * @return true is move is legal, false otherwise
      */
     private boolean isMoveLegal(Move move) {
-        return this.legalMoves.contains(move);
+        return move.getMovedPiece() != null &&
+                getLegalMovesBetween(move.getCurrentCoordinate(), move.getDestinationCoordinate()).contains(move);
+    }
+
+    /**
+     * Check if a legal move does not leave the player's king in check
+     *
+     * @param move one of the legal moves
+     * @return true if the move is one of the strictly legal moves
+     */
+    private boolean isMoveStrictlyLegal(Move move) {
+        getStrictlyLegalMoves();
+        return this.playerKing == null ||
+                Arrays.binarySearch(this.strictlyLegalPackedMoves, MoveFactory.toPackedMove(move)) >= 0;
+    }
+
+    private MoveIndex getMoveIndex() {
+        MoveIndex index = this.moveIndex;
+        if (index == null) {
+            index = new MoveIndex(getLegalMoves());
+            this.moveIndex = index;
+        }
+        return index;
+    }
+
+    private static int squaresKey(Coordinate currentCoordinate, Coordinate destinationCoordinate) {
+        final BoardUtils boardUtils = BoardUtils.getInstance();
+        return currentCoordinate.getIndex() * boardUtils.getWidth() * boardUtils.getHeight() + destinationCoordinate.getIndex();
+    }
+
+    /**
+     * The legal moves of a player indexed by the squares they go between and by the piece that moves,
+     * so that a move is found without walking through all of them
+     */
+    private static final class MoveIndex {
+        private final Map<Integer, List<Move>> movesBySquares = new HashMap<>();
+        private final Map<Piece, List<Move>> movesByPiece = new HashMap<>();
+
+        MoveIndex(Collection<Move> moves) {
+            for (Move move : moves) {
+                this.movesBySquares.computeIfAbsent(squaresKey(move.getCurrentCoordinate(), move.getDestinationCoordinate()),
+                        key -> new ArrayList<>(1)).add(move);
+                this.movesByPiece.computeIfAbsent(move.getMovedPiece(), key -> new ArrayList<>()).add(move);
+            }
+        }
     }
 
     /**
@@ -207,7 +348,28 @@ public class Player {
      * @return true if player is in check, false otherwise
      */
     public boolean isInCheck() {
-        return this.isInCheck;
+        Boolean inCheck = this.isInCheck;
+        if (inCheck == null) {
+            inCheck = this.playerKing != null &&
+                    this.board.isSquareAttacked(this.playerKing.getPieceCoordinate(), getOpponentAlliance());
+            this.isInCheck = inCheck;
+        }
+        return inCheck;
+    }
+
+    /**
+     * The game status is found once, from the check status and the strictly legal moves, and then kept.
+     *
+     * @return CHECKMATE or STALEMATE if the player can not make a move, ONGOING otherwise
+     */
+    public GameStatus getGameStatus() {
+        GameStatus status = this.gameStatus;
+        if (status == null) {
+            if (!isStuck()) status = GameStatus.ONGOING;
+            else status = isInCheck() ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+            this.gameStatus = status;
+        }
+        return status;
     }
 
     /**
@@ -216,7 +378,7 @@ public class Player {
      * @return true if in checkmate, false otherwise
      */
     public boolean isInCheckmate() {
-        return isInCheck && isStuck();
+        return getGameStatus() == GameStatus.CHECKMATE;
     }
 
     /**
@@ -226,7 +388,7 @@ public class Player {
      * false otherwise
      */
     public boolean isInStalemate() {
-        return !isInCheck && isStuck();
+        return getGameStatus() == GameStatus.STALEMATE;
     }
 
     /**
@@ -242,12 +404,7 @@ public class Player {
      * @return true if player has moves that escapes check-status, false otherwise
      */
     private boolean isStuck() {
-        for (Move move : this.legalMoves) {
-            // make all moves possible and see if player "escapes"
-            final MoveTransition transition = makeMove(move);
-            if (transition.getMoveStatus().isDone()) return false;
-        }
-        return true;
+        return getStrictlyLegalMoves().isEmpty();
     }
 
     /**
@@ -263,20 +420,14 @@ public class Player {
             return new MoveTransition(this.board, MoveStatus.ILLEGAL_MOVE);
         }
 
+        // check if move leaves player's king in check, this is known without making the move
+        if (!isMoveStrictlyLegal(move)) {
+            return new MoveTransition(this.board, MoveStatus.LEAVES_PLAYER_IN_CHECK);
+        }
+
         // Board where the move has taken place. NB!: if the player who made the move has the color white,
         // then currentPlayer() will return black after the transition.
         final Board transitionBoard = move.execute();
-
-        // check if move leaves player's king in check
-        final King kingOfPlayerThatMoves = transitionBoard.currentPlayer().getOpponent().getPlayerKing();
-        // checks if king exists, allows us to call method during testing without having a king on the board (custom boards)
-        if (kingOfPlayerThatMoves != null) {
-            final Collection<Move> currentPlayerMoves = transitionBoard.currentPlayer().getLegalMoves();
-            final Collection<Move> attacksOnPlayerKing = Player.calculateAttacksOnCoordinate(kingOfPlayerThatMoves.getPieceCoordinate(), currentPlayerMoves);
-            if (!attacksOnPlayerKing.isEmpty()) {
-                return new MoveTransition(this.board, MoveStatus.LEAVES_PLAYER_IN_CHECK);
-            }
-        }
         return new MoveTransition(transitionBoard, MoveStatus.DONE);
     }
 }
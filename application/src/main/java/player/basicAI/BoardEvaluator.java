@@ -1,6 +1,7 @@
 package player.basicAI;
 
 import board.Board;
+import board.SearchBoard;
 
 /**
  * The general interface for a board evaluator
@@ -16,4 +17,12 @@ public interface BoardEvaluator {
      */
     int evaluate(Board board, int depth);
 
+    /**
+     * Same as evaluate(Board, int), for the position of a search board
+     * @param board to evaluate
+     * @param depth of the evaluation
+     * @return score of the current position
+     */
+    int evaluate(SearchBoard board, int depth);
+
 }
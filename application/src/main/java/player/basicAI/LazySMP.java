@@ -0,0 +1,91 @@
+package player.basicAI;
+
+import board.Board;
+import board.PackedMove;
+import board.SearchBoard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A "Lazy SMP" search: the calling thread and the helper threads all search the root position with iterative
+ * deepening, and share nothing but the transposition table. The threads do not divide the work, they find the results
+ * of each other in the table, which makes every thread search the positions that are left.
+ * Every second helper starts one ply deeper than the calling thread, so that the threads spread over the tree.
+ *
+ * The search stops when the calling thread has completed the search depth or runs out of time. The move of the
+ * deepest completed iteration of all threads is returned, the one of the calling thread if it is one of the deepest.
+ *
+ * @see <a href="https://chessprogramming.wikispaces.com/Lazy+SMP">Lazy SMP</a>
+ */
+public class LazySMP extends MiniMax {
+
+    /**
+     * The constructor for the Lazy SMP search
+     *
+     * @param searchDepth          maximum depth of the search (plys)
+     * @param maxQuiescence        maximum number of plys the quiescence search goes past the search depth,
+     *                             0 to evaluate the leaves as they are
+     * @param usePieceSquareBoards to use piece-square board or not
+     * @param printMoveInformation to print information about the search of the calling thread
+     * @param hashSizeMb           size of the shared transposition table in megabytes
+     * @param timeLimitMillis      time the search may take in milliseconds, 0 to always search to the full depth
+     * @param threads              number of threads, including the calling thread
+     */
+    public LazySMP(int searchDepth, int maxQuiescence, boolean usePieceSquareBoards, boolean printMoveInformation,
+                   int hashSizeMb, long timeLimitMillis, int threads) {
+        super(searchDepth, maxQuiescence, usePieceSquareBoards, printMoveInformation, hashSizeMb, timeLimitMillis, threads);
+        if (hashSizeMb == 0) throw new IllegalArgumentException("Lazy SMP needs a transposition table");
+    }
+
+    @Override
+    public String toString() {
+        return "LazySMP";
+    }
+
+    @Override
+    int search(Board board, Searcher searcher) {
+        final List<HelperTask> helpers = new ArrayList<>();
+        for (int i = 1; i < getThreads(); i++) {
+            final HelperTask helper = new HelperTask(board, 1 + i % 2);
+            helpers.add(helper);
+            getPool().execute(helper);
+        }
+
+        int bestMove = deepen(board, searcher, 1, false);
+        int bestDepth = searcher.getCompletedDepth();
+        stop();
+        for (HelperTask helper : helpers) {
+            helper.join();
+            if (helper.completedDepth > bestDepth && helper.bestMove != PackedMove.NO_MOVE) {
+                bestMove = helper.bestMove;
+                bestDepth = helper.completedDepth;
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Searches the root position with iterative deepening on a helper thread
+     */
+    private final class HelperTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Board board;
+        private final int firstDepth;
+        private int bestMove = PackedMove.NO_MOVE, completedDepth;
+
+        HelperTask(Board board, int firstDepth) {
+            this.board = board;
+            this.firstDepth = firstDepth;
+        }
+
+        @Override
+        protected void compute() {
+            final Searcher searcher = new Searcher(new SearchBoard(this.board), false);
+            this.bestMove = deepen(this.board, searcher, Math.min(this.firstDepth, getSearchDepth()), false);
+            this.completedDepth = searcher.getCompletedDepth();
+        }
+    }
+}
@@ -1,45 +1,188 @@
 package player.basicAI;
 
+import board.BitBoard;
 import board.Board;
-import board.BoardUtils;
 import board.Move;
-import com.google.common.collect.ComparisonChain;
-import com.google.common.collect.Ordering;
+import board.MoveList;
+import board.PackedMove;
+import board.SearchBoard;
 import pieces.Alliance;
 import pieces.Piece;
-import player.MoveTransition;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
 
 import static board.Move.*;
 
 /**
- * An implementation of the "MiniMax" algorithm with alpha-beta pruning and quiescence search
+ * An implementation of the "MiniMax" algorithm with alpha-beta pruning and quiescence search.
+ * The leaves of the search are not evaluated as they are, but searched further with captures and promotions only
+ * until the position is quiet.
+ * The search is done on a SearchBoard, where moves are made and taken back on the same object,
+ * only the move that is returned is created as a Move of the given board.
+ * Searched positions are kept in a transposition table, which is kept between searches of the same strategy.
+ *
+ * The search deepens iteratively: the position is searched to depth 1, 2, ... up to the search depth, and every
+ * iteration searches the best move of the one before first. With a time limit no new iteration is started after
+ * half the time, and an iteration still running at the limit is stopped and its result dropped.
+ *
+ * With more than one thread the root moves are split over a fork/join pool. The first root move is searched on the
+ * calling thread, then the others are searched in parallel with the best value found so far as their bound.
+ * The pools are shared by all searches with the same number of threads, and are never shut down: their worker
+ * threads are daemon threads that end when they are idle.
+ * Every thread searches on its own SearchBoard with its own evaluator, only the transposition table is shared.
  *
  * @see <a href=https://en.wikipedia.org/wiki/Minimax>MiniMax</a>
  * @see <a href=https://en.wikipedia.org/wiki/Alpha-beta_pruning>Alpha-beta pruning</a>
  */
 public class MiniMax implements MoveStrategy {
-    private final BoardEvaluator boardEvaluator;
+    /**
+     * Size of the transposition table when none is given
+     */
+    public static final int DEFAULT_HASH_SIZE_MB = 16;
+    /**
+     * Number of plys the quiescence search of the game's AI and hints goes past the search depth
+     */
+    public static final int DEFAULT_MAX_QUIESCENCE = 8;
+    private static final int NO_CUTOFF = Integer.MIN_VALUE;
+    // bound of the search window, can be negated without an overflow unlike Integer.MIN_VALUE
+    private static final int INFINITY = Integer.MAX_VALUE;
+    // a capture that can not raise the score to alpha with this margin is not searched in the quiescence search
+    private static final int DELTA_MARGIN = 200;
+    // the clock is read once every this many nodes plus one
+    private static final int TIME_CHECK_INTERVAL = 1023;
+    // order of the moves of a node: the hash move, captures that do not lose material and promotions by MVV-LVA,
+    // the two killer moves, castling, the other quiet moves by their history score, then the losing captures
+    private static final int HASH_MOVE_SCORE = 1 << 30, CAPTURE_SCORE = 1 << 28, KILLER_SCORE = 1 << 27,
+            CASTLE_SCORE = 1 << 26, LOSING_CAPTURE_SCORE = -(1 << 26);
+    // the history scores are halved when one of them reaches this, so that they stay below the castling score
+    private static final int MAX_HISTORY_SCORE = 1 << 20;
+    // fork/join pools by number of threads, shared by all searches
+    private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+    private final boolean usePieceSquareBoards;
     private final int searchDepth;
     private final int maxQuiescence;
     private final boolean printMoveInformation;
-    private int quiescenceCount;
-    private int totalQuiescence;
+    private final TranspositionTable transpositionTable;
+    private final long timeLimitMillis;
+    private final int threads;
+    private final LongAdder totalQuiescenceNodes = new LongAdder();
+
+    // state of the running search: the start and the hard deadline in System.nanoTime, the nodes searched
+    private long startNanos;
+    private volatile long deadline;
+    private volatile boolean stopped;
+    private final LongAdder nodeCount = new LongAdder();
+    private int completedDepth;
+    // searcher of every pool thread that searched root moves, kept over the root moves and iterations of a search
+    private final Map<Thread, Searcher> workerSearchers = new ConcurrentHashMap<>();
 
     /**
      * The constructor for the MiniMax Alpha-beta algorithm
      *
      * @param searchDepth          depth of the search (plys)
-     * @param maxQuiescence        how many times the ai is allowed to search deeper per top move node
+     * @param maxQuiescence        maximum number of plys the quiescence search goes past the search depth,
+     *                             0 to evaluate the leaves as they are
      * @param usePieceSquareBoards to use piece-square board or not
      * @param printMoveInformation to print information about
      */
     public MiniMax(int searchDepth, int maxQuiescence, boolean usePieceSquareBoards, boolean printMoveInformation) {
-        this.boardEvaluator = new RegularBoardEvaluator(usePieceSquareBoards);
+        this(searchDepth, maxQuiescence, usePieceSquareBoards, printMoveInformation, DEFAULT_HASH_SIZE_MB, 0);
+    }
+
+    /**
+     * The constructor for the MiniMax Alpha-beta algorithm
+     *
+     * @param searchDepth          depth of the search (plys)
+     * @param maxQuiescence        maximum number of plys the quiescence search goes past the search depth,
+     *                             0 to evaluate the leaves as they are
+     * @param usePieceSquareBoards to use piece-square board or not
+     * @param printMoveInformation to print information about
+     * @param hashSizeMb           size of the transposition table in megabytes, 0 to search without one
+     */
+    public MiniMax(int searchDepth, int maxQuiescence, boolean usePieceSquareBoards, boolean printMoveInformation,
+                   int hashSizeMb) {
+        this(searchDepth, maxQuiescence, usePieceSquareBoards, printMoveInformation, hashSizeMb, 0);
+    }
+
+    /**
+     * The constructor for the MiniMax Alpha-beta algorithm
+     *
+     * @param searchDepth          maximum depth of the search (plys)
+     * @param maxQuiescence        maximum number of plys the quiescence search goes past the search depth,
+     *                             0 to evaluate the leaves as they are
+     * @param usePieceSquareBoards to use piece-square board or not
+     * @param printMoveInformation to print information about
+     * @param hashSizeMb           size of the transposition table in megabytes, 0 to search without one
+     * @param timeLimitMillis      time the search may take in milliseconds, 0 to always search to the full depth.
+     *                             The search to depth 1 is always completed
+     */
+    public MiniMax(int searchDepth, int maxQuiescence, boolean usePieceSquareBoards, boolean printMoveInformation,
+                   int hashSizeMb, long timeLimitMillis) {
+        this(searchDepth, maxQuiescence, usePieceSquareBoards, printMoveInformation, hashSizeMb, timeLimitMillis, 1);
+    }
+
+    /**
+     * The constructor for the MiniMax Alpha-beta algorithm
+     *
+     * @param searchDepth          maximum depth of the search (plys)
+     * @param maxQuiescence        maximum number of plys the quiescence search goes past the search depth,
+     *                             0 to evaluate the leaves as they are
+     * @param usePieceSquareBoards to use piece-square board or not
+     * @param printMoveInformation to print information about
+     * @param hashSizeMb           size of the transposition table in megabytes, 0 to search without one
+     * @param timeLimitMillis      time the search may take in milliseconds, 0 to always search to the full depth.
+     *                             The search to depth 1 is always completed
+     * @param threads              number of threads that search the root moves, 1 to search on the calling thread
+     */
+    public MiniMax(int searchDepth, int maxQuiescence, boolean usePieceSquareBoards, boolean printMoveInformation,
+                   int hashSizeMb, long timeLimitMillis, int threads) {
+        if (hashSizeMb < 0) throw new IllegalArgumentException("Invalid table size: " + hashSizeMb);
+        if (timeLimitMillis < 0) throw new IllegalArgumentException("Invalid time limit: " + timeLimitMillis);
+        if (threads < 1) throw new IllegalArgumentException("Invalid number of threads: " + threads);
+        this.usePieceSquareBoards = usePieceSquareBoards;
         this.searchDepth = searchDepth;
         this.maxQuiescence = maxQuiescence;
         this.printMoveInformation = printMoveInformation;
+        this.transpositionTable = hashSizeMb == 0 ? null : new TranspositionTable(hashSizeMb);
+        this.timeLimitMillis = timeLimitMillis;
+        this.threads = threads;
+    }
+
+    /**
+     * @return number of threads that search the root moves
+     */
+    public int getThreads() {
+        return this.threads;
+    }
+
+    /**
+     * @return the transposition table of the search, with its hit, miss and collision counts. Null if the
+     * search has none
+     */
+    public TranspositionTable getTranspositionTable() {
+        return this.transpositionTable;
+    }
+
+    /**
+     * @return number of nodes of the last search, the quiescence nodes included
+     */
+    public long getNodeCount() {
+        return this.nodeCount.sum();
+    }
+
+    /**
+     * @return depth of the deepest iteration the last search completed
+     */
+    public int getCompletedDepth() {
+        return this.completedDepth;
     }
 
     @Override
@@ -52,208 +195,365 @@ public class MiniMax implements MoveStrategy {
      * the white player as the maximizing, and the black player as minimizing.
      *
      * @param board to generate move for
-     * @return best move found
+     * @return best move found by the deepest completed iteration
      */
     @Override
     public Move execute(Board board) {
         final long startTime = System.currentTimeMillis();
-        Move bestMove = new NullMove();
-
-        int highestEncounteredValue = Integer.MIN_VALUE;
-        int lowestEncounteredValue = Integer.MAX_VALUE;
-        int currentValue;
-
-        if (printMoveInformation)
-            System.out.println(board.currentPlayer().getAlliance().toString().toUpperCase() + " EVALUATING WITH DEPTH: " + searchDepth);
-        Collection<Move> sorted = moveSortExpensive(board.currentPlayer().getLegalMoves());
-        int moveCount = 1;
-        for (Move move : sorted) {
-            final MoveTransition moveTransition = board.currentPlayer().makeMove(move);
-            //Reset quiescence for every start node
-            this.quiescenceCount = 0;
-            if (moveTransition.getMoveStatus().isDone()) {
-                if (board.currentPlayer().getAlliance() == Alliance.WHITE) {
-                    currentValue = min(moveTransition.getTransitionBoard(), searchDepth - 1, highestEncounteredValue, lowestEncounteredValue);
-                } else {
-                    currentValue = max(moveTransition.getTransitionBoard(), searchDepth - 1, highestEncounteredValue, lowestEncounteredValue);
-                }
-
-                if (board.currentPlayer().getAlliance() == Alliance.WHITE && currentValue > highestEncounteredValue) {
-                    // maximizing player
-                    highestEncounteredValue = currentValue;
-                    bestMove = move;
-                    if (moveTransition.getTransitionBoard().getBlackPlayer().isInCheckmate()) break;
-                } else if (board.currentPlayer().getAlliance() == Alliance.BLACK && currentValue < lowestEncounteredValue) {
-                    // minimizing player
-                    lowestEncounteredValue = currentValue;
-                    bestMove = move;
-                    if (moveTransition.getTransitionBoard().getWhitePlayer().isInCheckmate()) break;
-                }
-
-                if (printMoveInformation) {
-                    System.out.println("(" + moveCount++ + "/" + sorted.size() + ") "
-                            + "\u001B[34m" + "MOVE: " + "\u001B[0m" + move + " "
-                            + "\u001B[36m" + "DEEPER SEARCHES: " + "\u001B[0m" + quiescenceCount + " "
-                            + "\u001B[32m" + "BEST MOVE: " + "\u001B[0m" + bestMove
-                            + "\u001B[33m" + " [Score: " + "\u001B[0m" + currentValue + "\u001B[33m" + "]" + "\u001B[0m");
-                }
-
-            } else {
-                if (printMoveInformation) {
-                    System.out.println("(" + moveCount++ + "/" + sorted.size() + ") "
-                            + "\u001B[34m" + "MOVE: " + "\u001B[0m" + move + " is illegal! "
-                            + "\u001B[32m" + "BEST MOVE: " + "\u001B[0m" + bestMove);
-                }
-            }
-        }
+        this.startNanos = System.nanoTime();
+        this.deadline = timeLimitMillis == 0 ? Long.MAX_VALUE : this.startNanos + timeLimitMillis * 1_000_000;
+        this.nodeCount.reset();
+        this.stopped = false;
+        this.workerSearchers.clear();
+        final Searcher searcher = new Searcher(new SearchBoard(board), printMoveInformation);
+        final int bestMove = search(board, searcher);
+        this.completedDepth = searcher.completedDepth;
 
         if (printMoveInformation) {
             final long timeSpent = System.currentTimeMillis() - startTime;
             System.out.println("\tTIME TAKEN: " + "\u001B[32m" + timeSpent + "ms" + "\u001B[0m");
-            System.out.println("\tTOTAL DEEP SEARCH COUNT: " + "\u001B[36m" + totalQuiescence + "\u001B[0m" + "\n");
+            System.out.println("\tCOMPLETED DEPTH: " + searcher.completedDepth + " NODES: " + nodeCount.sum() + " THREADS: " + threads);
+            System.out.println("\tTOTAL QUIESCENCE NODES: " + "\u001B[36m" + totalQuiescenceNodes.sum() + "\u001B[0m");
+            if (transpositionTable != null) {
+                System.out.println("\tHASH HITS: " + transpositionTable.getHits() + " MISSES: " + transpositionTable.getMisses()
+                        + " COLLISIONS: " + transpositionTable.getCollisions());
+            }
+            System.out.println();
         }
 
-        return bestMove;
+        return MoveFactory.createMove(board, bestMove);
+    }
+
+    /**
+     * Searches the position of the board, with the root moves split over the threads if there are more than one
+     *
+     * @param board    to generate move for
+     * @param searcher of the calling thread, with a search board of the board
+     * @return best packed move
+     */
+    int search(Board board, Searcher searcher) {
+        return deepen(board, searcher, 1, threads > 1);
     }
 
     /**
-     * Minimizing function
+     * Searches the position with iterative deepening, until the search depth or the time limit is reached
      *
-     * @param board       to make move on
-     * @param searchDepth current depth of search
-     * @param alpha       for current search
-     * @param beta        for current search
-     * @return lowest board value encountered
+     * @param board      to generate move for
+     * @param searcher   with a search board of the board, its completed depth is set
+     * @param firstDepth depth of the first iteration
+     * @param splitRoot  to search the root moves on the threads of the pool
+     * @return best move found by the deepest completed iteration
      */
-    private int min(Board board, int searchDepth, int alpha, int beta) {
-        if (searchDepth == 0 || isEndGame(board)) {
-            return this.boardEvaluator.evaluate(board, searchDepth);
+    int deepen(Board board, Searcher searcher, int firstDepth, boolean splitRoot) {
+        int bestMove = PackedMove.NO_MOVE;
+        for (int depth = firstDepth; depth <= searchDepth; depth++) {
+            final int move = searchIteration(board, searcher, depth, bestMove, splitRoot);
+            if (searcher.isStopped()) break;
+            bestMove = move;
+            searcher.completedDepth = depth;
+            if (searcher.foundCheckmate || bestMove == PackedMove.NO_MOVE) break;
+            // an iteration takes longer than all the ones before, do not start one that can not finish
+            if (timeLimitMillis != 0 && (System.nanoTime() - startNanos) / 1_000_000 > timeLimitMillis / 2) break;
         }
+        return bestMove;
+    }
+
+    /**
+     * Searches all moves of the root position to the given depth, one iteration of deepen
+     *
+     * @param board        to generate move for
+     * @param searcher     with a search board of the board
+     * @param searchDepth  depth of the iteration
+     * @param previousBest best move of the iteration before, searched first
+     * @param splitRoot    to search the root moves on the threads of the pool
+     * @return best move found, PackedMove.NO_MOVE if the search was stopped
+     */
+    int searchIteration(Board board, Searcher searcher, int searchDepth, int previousBest, boolean splitRoot) {
+        return splitRoot ? searchRootParallel(board, searcher, searchDepth, previousBest) :
+                searchRoot(board, searcher, searchDepth, previousBest);
+    }
 
-        int currentLowestValue = beta;
-        for (Move move : moveSortStandard(board.currentPlayer().getLegalMoves())) {
-            final MoveTransition moveTransition = board.currentPlayer().makeMove(move);
+    /**
+     * @return the pruning and reductions of the negamax search, none for the min and max search of MiniMax
+     */
+    PruningSettings getPruningSettings() {
+        return PruningSettings.NONE;
+    }
 
-            if (moveTransition.getMoveStatus().isDone()) {
-                currentLowestValue = Math.min(currentLowestValue,
-                        max(moveTransition.getTransitionBoard(), calculateQuiescenceDepth(moveTransition, searchDepth), alpha, currentLowestValue));
+    /**
+     * @return the pool shared by the searches with the number of threads of this search, created when it is first
+     * used
+     */
+    ForkJoinPool getPool() {
+        return POOLS.computeIfAbsent(this.threads, ForkJoinPool::new);
+    }
 
-                // alpha beta break off
-                if (currentLowestValue <= alpha) return alpha;
-            }
-        }
-        return currentLowestValue;
+    /**
+     * @return maximum depth of the search
+     */
+    int getSearchDepth() {
+        return this.searchDepth;
+    }
+
+    /**
+     * Stops the running search at the next node of every thread, except for the searches to depth 1
+     */
+    void stop() {
+        this.stopped = true;
     }
 
     /**
-     * Maximizing function
+     * The first iteration is never stopped, so that there always is a move to return
      *
-     * @param board       to make move on
-     * @param searchDepth current depth of search
-     * @param alpha       for current search
-     * @param beta        for current search
-     * @return highest board value encountered
+     * @param iterationDepth depth of the iteration of a thread
+     * @return true if the iteration is stopped
      */
-    private int max(Board board, int searchDepth, int alpha, int beta) {
-        if (searchDepth == 0 || isEndGame(board)) {
-            return this.boardEvaluator.evaluate(board, searchDepth);
-        }
+    private boolean isStopped(int iterationDepth) {
+        return this.stopped && iterationDepth > 1;
+    }
+
+    /**
+     * Searches all moves of the root position to the given depth
+     *
+     * @param board        to generate move for
+     * @param searcher     with a search board of the board
+     * @param searchDepth  depth of the iteration
+     * @param previousBest best move of the iteration before, searched first
+     * @return best move found, PackedMove.NO_MOVE if the search was stopped
+     */
+    private int searchRoot(Board board, Searcher searcher, int searchDepth, int previousBest) {
+        final Alliance alliance = searcher.board.getSideToMove();
+        int bestMove = PackedMove.NO_MOVE;
 
-        int currentHighestValue = alpha;
-        for (Move move : moveSortStandard(board.currentPlayer().getLegalMoves())) {
-            final MoveTransition moveTransition = board.currentPlayer().makeMove(move);
+        int highestEncounteredValue = -INFINITY;
+        int lowestEncounteredValue = INFINITY;
+        int currentValue;
 
-            if (moveTransition.getMoveStatus().isDone()) {
-                currentHighestValue = Math.max(currentHighestValue,
-                        min(moveTransition.getTransitionBoard(), calculateQuiescenceDepth(moveTransition, searchDepth), currentHighestValue, beta));
+        final MoveList sorted = searcher.sortRootMoves(searchDepth, previousBest);
+        final int size = sorted.size();
+        int moveCount = 1;
+        for (int i = 0; i < size; i++) {
+            final int move = sorted.get(i);
+            currentValue = searcher.searchRootMove(move, searchDepth, highestEncounteredValue, lowestEncounteredValue);
+            if (searcher.isStopped()) return PackedMove.NO_MOVE;
 
-                // alpha beta break off
-                if (beta <= currentHighestValue) return beta;
+            boolean isCheckmate = false;
+            if (alliance == Alliance.WHITE && currentValue > highestEncounteredValue) {
+                // maximizing player
+                highestEncounteredValue = currentValue;
+                bestMove = move;
+                isCheckmate = searcher.rootMoveMates;
+            } else if (alliance == Alliance.BLACK && currentValue < lowestEncounteredValue) {
+                // minimizing player
+                lowestEncounteredValue = currentValue;
+                bestMove = move;
+                isCheckmate = searcher.rootMoveMates;
+            }
+
+            if (searcher.printsMoves) printRootMove(board, moveCount++, size, move, searcher.quiescenceNodes, bestMove, currentValue);
+            if (isCheckmate) {
+                searcher.foundCheckmate = true;
+                break;
             }
         }
-        return currentHighestValue;
+        if (bestMove != PackedMove.NO_MOVE) {
+            store(searcher.board.getZobristKey(), bestMove, searchDepth, TranspositionTable.EXACT,
+                    alliance == Alliance.WHITE ? highestEncounteredValue : lowestEncounteredValue);
+        }
+        return bestMove;
     }
 
     /**
-     * Check if the current player is in checkmate or in a stalemate
+     * Searches all moves of the root position to the given depth on the threads of the pool.
+     * The first move is searched on the calling thread with a full window, the other moves are searched in parallel
+     * with the best value found at the time they start. The best move is the same as the one of searchRoot: of the
+     * moves with the best value the first one in the order of the root moves.
      *
-     * @param board to evaluate
-     * @return true if current player is in checkmate or stalemate, false otherwise
+     * @param board        to generate move for
+     * @param searcher     with a search board of the board
+     * @param searchDepth  depth of the iteration
+     * @param previousBest best move of the iteration before, searched first
+     * @return best move found, PackedMove.NO_MOVE if the search was stopped
      */
-    private boolean isEndGame(Board board) {
-        return board.currentPlayer().isInCheckmate() || board.currentPlayer().isInStalemate();
+    private int searchRootParallel(Board board, Searcher searcher, int searchDepth, int previousBest) {
+        final Alliance alliance = searcher.board.getSideToMove();
+        final MoveList sorted = searcher.sortRootMoves(searchDepth, previousBest);
+        final int size = sorted.size();
+        if (size == 0) return PackedMove.NO_MOVE;
+
+        final int firstMove = sorted.get(0);
+        final int firstValue = searcher.searchRootMove(firstMove, searchDepth, -INFINITY, INFINITY);
+        if (searcher.isStopped()) return PackedMove.NO_MOVE;
+        if (searcher.printsMoves) printRootMove(board, 1, size, firstMove, searcher.quiescenceNodes, firstMove, firstValue);
+        final RootBound bound = new RootBound(alliance, firstMove, firstValue);
+        if (searcher.rootMoveMates) bound.mateIndex = 0;
+
+        final List<RootMoveTask> tasks = new ArrayList<>();
+        for (int i = 1; i < size; i++) tasks.add(new RootMoveTask(board, sorted.get(i), i, searchDepth, bound));
+        for (RootMoveTask task : tasks) getPool().execute(task);
+        for (RootMoveTask task : tasks) {
+            task.join();
+            if (searcher.printsMoves && task.searched && !searcher.isStopped()) {
+                printRootMove(board, task.index + 1, size, task.move, task.quiescenceNodes, bound.getMove(), task.value);
+            }
+        }
+        if (searcher.isStopped()) return PackedMove.NO_MOVE;
+
+        if (bound.mateIndex != Integer.MAX_VALUE) searcher.foundCheckmate = true;
+        store(searcher.board.getZobristKey(), bound.getMove(), searchDepth, TranspositionTable.EXACT, bound.getValue());
+        return bound.getMove();
+    }
+
+    static void printRootMove(Board board, int moveCount, int size, int move, int quiescenceNodes, int bestMove,
+                                      int currentValue) {
+        System.out.println("(" + moveCount + "/" + size + ") "
+                + "\u001B[34m" + "MOVE: " + "\u001B[0m" + MoveFactory.createMove(board, move) + " "
+                + "\u001B[36m" + "QUIESCENCE NODES: " + "\u001B[0m" + quiescenceNodes + " "
+                + "\u001B[32m" + "BEST MOVE: " + "\u001B[0m" + MoveFactory.createMove(board, bestMove)
+                + "\u001B[33m" + " [Score: " + "\u001B[0m" + currentValue + "\u001B[33m" + "]" + "\u001B[0m");
     }
 
     /**
-     * Calculates the quiescence depth
-     *
-     * @param moveTransition transition that represents the last move
-     * @param searchDepth    current depth of the mini-max search
-     * @return the depth the mini-max should continue its search with
-     * @see <a href="https://chessprogramming.wikispaces.com/Quiescence+Search">Quiescence</a>
+     * The best root move found so far by the threads of a parallel root search. Values are kept from the view of the
+     * player to move, so that a higher value is always better.
      */
-    private int calculateQuiescenceDepth(final MoveTransition moveTransition, final int searchDepth) {
-        if (searchDepth == 1 && this.quiescenceCount < maxQuiescence) {
-            int activityScore = 0;
-            if (moveTransition.getTransitionBoard().currentPlayer().isInCheck()) {
-                activityScore += 2;
-            }
-            for (final Move move : BoardUtils.getInstance().retrieveLastNMoves(moveTransition.getTransitionBoard(), 4)) {
-                if (move.isAttack()) activityScore += 1;
+    private static final class RootBound {
+        private final Alliance alliance;
+        private int move, value, index;
+        // index of the first root move found to checkmate, the moves after it are not searched
+        private volatile int mateIndex = Integer.MAX_VALUE;
+
+        RootBound(Alliance alliance, int move, int value) {
+            this.alliance = alliance;
+            this.move = move;
+            this.value = alliance == Alliance.WHITE ? value : -value;
+            this.index = 0;
+        }
+
+        /**
+         * The window a root move is searched with: a move after the best one has to be better than it, a move before
+         * the best one only as good, because the first of equal moves is chosen
+         *
+         * @param index of the root move
+         * @return alpha and beta, in the view of white as min and max use them
+         */
+        synchronized int[] window(int index) {
+            final int bound = index < this.index ? this.value - 1 : this.value;
+            return this.alliance == Alliance.WHITE ? new int[]{bound, INFINITY} : new int[]{-INFINITY, -bound};
+        }
+
+        synchronized void offer(int move, int index, int value) {
+            final int playerValue = this.alliance == Alliance.WHITE ? value : -value;
+            if (playerValue > this.value || (playerValue == this.value && index < this.index)) {
+                this.move = move;
+                this.value = playerValue;
+                this.index = index;
             }
-            if (activityScore > 3) {
-                this.quiescenceCount++;
-                this.totalQuiescence++;
-                return 2;
+        }
+
+        synchronized int getMove() {
+            return this.move;
+        }
+
+        synchronized int getValue() {
+            return this.alliance == Alliance.WHITE ? this.value : -this.value;
+        }
+    }
+
+    /**
+     * Searches one root move on a thread of the pool, with the searcher of the thread. The killer moves and history
+     * scores of the searcher are kept from the root moves the thread searched before.
+     */
+    private final class RootMoveTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Board board;
+        private final int move, index, searchDepth;
+        private final RootBound bound;
+        private boolean searched;
+        private int value, quiescenceNodes;
+
+        RootMoveTask(Board board, int move, int index, int searchDepth, RootBound bound) {
+            this.board = board;
+            this.move = move;
+            this.index = index;
+            this.searchDepth = searchDepth;
+            this.bound = bound;
+        }
+
+        @Override
+        protected void compute() {
+            if (isStopped(this.searchDepth) || this.index > this.bound.mateIndex) return;
+            // the search board of the thread's searcher is back in the root position after every root move
+            final Searcher searcher = workerSearchers.computeIfAbsent(Thread.currentThread(),
+                    thread -> new Searcher(new SearchBoard(this.board), false));
+            final int[] window = this.bound.window(this.index);
+            this.value = searcher.searchRootMove(this.move, this.searchDepth, window[0], window[1]);
+            this.quiescenceNodes = searcher.quiescenceNodes;
+            if (searcher.isStopped()) return;
+            this.searched = true;
+            final boolean improves = searcher.board.getSideToMove() == Alliance.WHITE ?
+                    this.value > window[0] : this.value < window[1];
+            if (improves) {
+                this.bound.offer(this.move, this.index, this.value);
+                if (searcher.rootMoveMates) {
+                    synchronized (this.bound) {
+                        this.bound.mateIndex = Math.min(this.bound.mateIndex, this.index);
+                    }
+                }
             }
         }
-        return searchDepth - 1;
+    }
+
+    private long probe(long key) {
+        return this.transpositionTable == null ? 0 : this.transpositionTable.probe(key);
+    }
+
+    void store(long key, int move, int depth, int bound, int score) {
+        if (this.transpositionTable != null) this.transpositionTable.store(key, move, depth, bound, score);
     }
 
     /**
-     * Sorts moves contained in a collection
-     * General comparison outline:
-     * Check if move puts opponent in check
-     * Check if move is a castling move
-     * Use MVV-LVA heuristic
+     * Finds the value a transposition table entry gives for the window of a search
      *
-     * @param moves to sort
-     * @return sorted collection of moves
+     * @param entry of the searched position, at least as deep as the search
+     * @param alpha for current search
+     * @param beta  for current search
+     * @return the value the search would return, NO_CUTOFF if the entry does not decide it
      */
-    private Collection<Move> moveSortExpensive(Collection<Move> moves) {
-        return Ordering.from((Comparator<Move>) (moveA, moveB) -> ComparisonChain.start()
-                .compareTrueFirst(moveCreatesCheck(moveA), moveCreatesCheck(moveB))
-                .compareTrueFirst(moveA.isCastlingMove(), moveB.isCastlingMove())
-                .compare(mvvlva(moveB), mvvlva(moveA))
-                .result()).immutableSortedCopy(moves);
+    private static int cutoff(long entry, int alpha, int beta) {
+        final int score = TranspositionTable.getScore(entry);
+        switch (TranspositionTable.getBound(entry)) {
+            case TranspositionTable.EXACT: return Math.max(alpha, Math.min(beta, score));
+            case TranspositionTable.LOWER_BOUND: return score >= beta ? beta : NO_CUTOFF;
+            case TranspositionTable.UPPER_BOUND: return score <= alpha ? alpha : NO_CUTOFF;
+            default: return NO_CUTOFF;
+        }
     }
 
     /**
-     * Sorts moves contained in a collection
-     * General comparison outline:
-     * Check if move is a castling move
-     * Use MVV-LVA heuristic
+     * Check if the player to move is in checkmate
      *
-     * @param moves to sort
-     * @return sorted collection of moves
+     * @param board to evaluate
+     * @return true if the player to move is in checkmate, false otherwise
      */
-    private Collection<Move> moveSortStandard(Collection<Move> moves) {
-        return Ordering.from((Comparator<Move>) (moveA, moveB) -> ComparisonChain.start()
-                .compareTrueFirst(moveA.isCastlingMove(), moveB.isCastlingMove())
-                .compare(mvvlva(moveB), mvvlva(moveA))
-                .result()).immutableSortedCopy(moves);
+    private static boolean isCheckmate(SearchBoard board) {
+        return board.isInCheck(board.getSideToMove()) && !board.hasLegalMove();
     }
 
     /**
-     * Checks if the move puts the opponent player in check
-     *
-     * @param move to evaluate
-     * @return true if opponent is in check
+     * A sort key orders a higher score first, and keeps the generation order of moves with the same score.
+     * The move itself is kept in the lowest bits of the key.
      */
-    private boolean moveCreatesCheck(final Move move) {
-        final Board board = move.getBoard();
-        MoveTransition transition = board.currentPlayer().makeMove(move);
-        return transition.getTransitionBoard().currentPlayer().isInCheck();
+    private static long sortKey(int score, int index, int move) {
+        return ((long) (Integer.MAX_VALUE - score) << 32) | ((long) index << PackedMove.BITS) | move;
+    }
+
+    private static void sortMoves(MoveList moves, long[] keys) {
+        Arrays.sort(keys, 0, moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            moves.set(i, (int) (keys[i] & ((1 << PackedMove.BITS) - 1)));
+        }
     }
 
     /**
@@ -263,12 +563,623 @@ public class MiniMax implements MoveStrategy {
      * @return score for the move
      * @see <a href="https://chessprogramming.wikispaces.com/MVV-LVA">MVV-LVA</a>
      */
-    private int mvvlva(final Move move) {
-        final Piece movingPiece = move.getMovedPiece();
-        if (move.isAttack()) {
-            final Piece attackedPiece = move.getAttackedPiece();
-            return (attackedPiece.getPieceType().getPieceValue() - movingPiece.getPieceType().getPieceValue() + Piece.PieceType.KING.getPieceValue()) * 100;
+    private static int mvvlva(final int move) {
+        final Piece.PieceType movingType = PackedMove.getPieceType(move);
+        final Piece.PieceType attackedType = PackedMove.getCapturedType(move);
+        if (attackedType != null) {
+            return (attackedType.getPieceValue() - movingType.getPieceValue() + Piece.PieceType.KING.getPieceValue()) * 100;
+        }
+        return Piece.PieceType.KING.getPieceValue() - movingType.getPieceValue();
+    }
+
+    /**
+     * The state of the search on one thread: the search board moves are made on, the evaluator, the move lists
+     * and the counters.
+     */
+    final class Searcher {
+        private final SearchBoard board;
+        final boolean printsMoves;
+        private final BoardEvaluator boardEvaluator = new RegularBoardEvaluator(usePieceSquareBoards);
+        private final PruningSettings pruning = getPruningSettings();
+        int quiescenceNodes;
+        // depth of the running iteration and of the last completed one, if an iteration found a checkmate
+        private int iterationDepth, completedDepth;
+        boolean foundCheckmate;
+        // nodes searched since the clock was last read
+        private int nodesSinceTimeCheck;
+        // if the last root move searched checkmates the opponent
+        boolean rootMoveMates;
+
+        // one move list, the scores of its moves and two killer moves per ply, grown when the search goes deeper
+        private MoveList[] moveLists = new MoveList[0];
+        private int[][] moveScores = new int[0][];
+        private int[][] killers = new int[0][];
+        // principal variation of every ply of the negamax search: the moves from the ply on, and the number of them
+        private int[][] principalVariations = new int[0][];
+        private int[] principalVariationLengths = new int[0];
+        // sort keys of the root moves
+        private final long[] rootSortKeys = new long[MoveList.DEFAULT_CAPACITY];
+        // history score of every quiet move by the side to move, from and to square ("butterfly" table)
+        private final int[] history = new int[2 * 64 * 64];
+
+        /**
+         * @param board       in the root position
+         * @param printsMoves to print the result of every root move
+         */
+        Searcher(SearchBoard board, boolean printsMoves) {
+            this.board = board;
+            this.printsMoves = printsMoves;
+        }
+
+        /**
+         * @return the search board of the searcher, in the root position between the searches of root moves
+         */
+        SearchBoard getBoard() {
+            return this.board;
+        }
+
+        /**
+         * @return depth of the last iteration completed by this searcher
+         */
+        int getCompletedDepth() {
+            return this.completedDepth;
+        }
+
+        boolean isStopped() {
+            return MiniMax.this.isStopped(this.iterationDepth);
+        }
+
+        /**
+         * Generates and sorts the moves of the root position
+         *
+         * @param searchDepth  depth of the iteration
+         * @param previousBest best move of the iteration before, sorted first
+         * @return the sorted moves
+         */
+        MoveList sortRootMoves(int searchDepth, int previousBest) {
+            if (this.printsMoves)
+                System.out.println(this.board.getSideToMove().toString().toUpperCase() + " EVALUATING WITH DEPTH: " + searchDepth);
+            final MoveList sorted = moveList(0);
+            this.board.generateLegalMoves(sorted);
+            moveSortExpensive(this.board, sorted, previousBest != PackedMove.NO_MOVE ? previousBest :
+                    TranspositionTable.getMove(probe(this.board.getZobristKey())));
+            return sorted;
+        }
+
+        /**
+         * Searches a move of the root position
+         *
+         * @param move        root move
+         * @param searchDepth depth of the iteration
+         * @param alpha       for the search
+         * @param beta        for the search
+         * @return the value of the move
+         */
+        int searchRootMove(int move, int searchDepth, int alpha, int beta) {
+            this.quiescenceNodes = 0;
+            this.iterationDepth = searchDepth;
+            this.board.makeLegalMove(move);
+            final int value = this.board.getSideToMove() == Alliance.BLACK ?
+                    min(this.board, searchDepth - 1, alpha, beta, 1) : max(this.board, searchDepth - 1, alpha, beta, 1);
+            this.rootMoveMates = !isStopped() && isCheckmate(this.board);
+            this.board.unmakeMove();
+            nodeCount.add(this.nodesSinceTimeCheck);
+            this.nodesSinceTimeCheck = 0;
+            return value;
+        }
+
+        /**
+         * Minimizing function
+         *
+         * @param board       to make move on
+         * @param searchDepth current depth of search
+         * @param alpha       for current search
+         * @param beta        for current search
+         * @param ply         distance from the root of the search
+         * @return lowest board value encountered
+         */
+        private int min(SearchBoard board, int searchDepth, int alpha, int beta, int ply) {
+            if (isTimeUp()) return 0;
+            if (searchDepth == 0) return quiescence(board, alpha, beta, ply);
+
+            final long key = board.getZobristKey();
+            final long entry = probe(key);
+            if (entry != 0 && TranspositionTable.getDepth(entry) >= searchDepth) {
+                final int cutoff = cutoff(entry, alpha, beta);
+                if (cutoff != NO_CUTOFF) return cutoff;
+            }
+
+            final MoveList moves = moveList(ply);
+            board.generateLegalMoves(moves);
+            // checkmate or stalemate
+            if (moves.isEmpty()) return this.boardEvaluator.evaluate(board, searchDepth);
+            scoreMoves(moves, ply, TranspositionTable.getMove(entry));
+            int currentLowestValue = beta;
+            int bestMove = PackedMove.NO_MOVE;
+            for (int i = 0; i < moves.size(); i++) {
+                final int move = pickMove(moves, ply, i);
+                board.makeLegalMove(move);
+                final int value = max(board, searchDepth - 1, alpha, currentLowestValue, ply + 1);
+                board.unmakeMove();
+                if (isStopped()) return 0;
+                if (value < currentLowestValue) {
+                    currentLowestValue = value;
+                    bestMove = move;
+                }
+
+                // alpha beta break off
+                if (currentLowestValue <= alpha) {
+                    addCutoff(move, ply, searchDepth);
+                    store(key, move, searchDepth, TranspositionTable.UPPER_BOUND, alpha);
+                    return alpha;
+                }
+            }
+            store(key, bestMove, searchDepth,
+                    bestMove == PackedMove.NO_MOVE ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT, currentLowestValue);
+            return currentLowestValue;
+        }
+
+        /**
+         * Maximizing function
+         *
+         * @param board       to make move on
+         * @param searchDepth current depth of search
+         * @param alpha       for current search
+         * @param beta        for current search
+         * @param ply         distance from the root of the search
+         * @return highest board value encountered
+         */
+        private int max(SearchBoard board, int searchDepth, int alpha, int beta, int ply) {
+            if (isTimeUp()) return 0;
+            if (searchDepth == 0) return quiescence(board, alpha, beta, ply);
+
+            final long key = board.getZobristKey();
+            final long entry = probe(key);
+            if (entry != 0 && TranspositionTable.getDepth(entry) >= searchDepth) {
+                final int cutoff = cutoff(entry, alpha, beta);
+                if (cutoff != NO_CUTOFF) return cutoff;
+            }
+
+            final MoveList moves = moveList(ply);
+            board.generateLegalMoves(moves);
+            // checkmate or stalemate
+            if (moves.isEmpty()) return this.boardEvaluator.evaluate(board, searchDepth);
+            scoreMoves(moves, ply, TranspositionTable.getMove(entry));
+            int currentHighestValue = alpha;
+            int bestMove = PackedMove.NO_MOVE;
+            for (int i = 0; i < moves.size(); i++) {
+                final int move = pickMove(moves, ply, i);
+                board.makeLegalMove(move);
+                final int value = min(board, searchDepth - 1, currentHighestValue, beta, ply + 1);
+                board.unmakeMove();
+                if (isStopped()) return 0;
+                if (value > currentHighestValue) {
+                    currentHighestValue = value;
+                    bestMove = move;
+                }
+
+                // alpha beta break off
+                if (beta <= currentHighestValue) {
+                    addCutoff(move, ply, searchDepth);
+                    store(key, move, searchDepth, TranspositionTable.LOWER_BOUND, beta);
+                    return beta;
+                }
+            }
+            store(key, bestMove, searchDepth,
+                    bestMove == PackedMove.NO_MOVE ? TranspositionTable.UPPER_BOUND : TranspositionTable.EXACT, currentHighestValue);
+            return currentHighestValue;
+        }
+
+        /**
+         * Searches a move of the root position with the negamax search, see negamax
+         *
+         * @param move        root move
+         * @param searchDepth depth of the iteration
+         * @param alpha       for the search, from the view of the player to move
+         * @param beta        for the search, from the view of the player to move
+         * @return the value of the move, from the view of the player to move
+         */
+        int searchRootMoveNegamax(int move, int searchDepth, int alpha, int beta) {
+            this.quiescenceNodes = 0;
+            this.iterationDepth = searchDepth;
+            this.board.makeLegalMove(move);
+            final int value = -negamax(this.board, searchDepth - 1, -beta, -alpha, 1, true);
+            this.rootMoveMates = !isStopped() && isCheckmate(this.board);
+            this.board.unmakeMove();
+            nodeCount.add(this.nodesSinceTimeCheck);
+            this.nodesSinceTimeCheck = 0;
+            return value;
+        }
+
+        /**
+         * @param move root move searched last with searchRootMoveNegamax
+         * @return the move followed by the principal variation found below it
+         */
+        int[] getPrincipalVariation(int move) {
+            final int length = this.principalVariationLengths.length > 1 ? this.principalVariationLengths[1] : 0;
+            final int[] variation = new int[length + 1];
+            variation[0] = move;
+            if (length > 0) System.arraycopy(this.principalVariations[1], 0, variation, 1, length);
+            return variation;
+        }
+
+        /**
+         * Principal variation search in negamax form: the values are from the view of the player to move, and a
+         * child is searched with the negated window. The first move of a node is searched with the full window,
+         * the other moves with a null window (alpha, alpha + 1) that only proves them to be no better. A move
+         * that turns out better is searched again with the full window.
+         * The principal variation of every node of the full window is kept.
+         *
+         * @param board       to make move on
+         * @param searchDepth current depth of search
+         * @param alpha       for current search
+         * @param beta        for current search
+         * @param ply         distance from the root of the search
+         * @param pvNode      if the node is searched with the full window
+         * @return value of the position
+         * @see <a href="https://chessprogramming.wikispaces.com/Principal+Variation+Search">Principal Variation Search</a>
+         */
+        private int negamax(SearchBoard board, int searchDepth, int alpha, int beta, int ply, boolean pvNode) {
+            if (isTimeUp()) return 0;
+            final MoveList moves = moveList(ply);
+            this.principalVariationLengths[ply] = 0;
+            if (searchDepth <= 0) return quiescence(board, alpha, beta, ply, 0);
+
+            final long key = board.getZobristKey();
+            final long entry = probe(key);
+            if (!pvNode && entry != 0 && TranspositionTable.getDepth(entry) >= searchDepth) {
+                final int cutoff = cutoff(entry, alpha, beta);
+                if (cutoff != NO_CUTOFF) return cutoff;
+            }
+
+            final boolean prunable = !pvNode && !board.isInCheck(board.getSideToMove());
+            final boolean razoring = prunable && this.pruning.isRazoring() && searchDepth <= this.pruning.getRazoringDepth();
+            boolean futile = prunable && this.pruning.isFutilityPruning() && searchDepth <= this.pruning.getFutilityDepth();
+            final int evaluation = razoring || futile ? staticEvaluation(board) : 0;
+            if (razoring && evaluation + this.pruning.getRazoringMargin() * searchDepth <= alpha) {
+                // razoring: a position far below alpha only gets a quiescence search
+                if (quiescence(board, alpha, beta, ply, 0) <= alpha) return alpha;
+            }
+            // futility pruning: quiet moves can not raise a position far below alpha
+            futile = futile && evaluation + this.pruning.getFutilityMargin() * searchDepth <= alpha;
+            if (prunable && this.pruning.isNullMove() && searchDepth > this.pruning.getNullMoveReduction() &&
+                    board.getLastMove() != PackedMove.NO_MOVE && hasPiecesBesidesPawns(board)) {
+                // null move: if a free move for the opponent still fails high, so will the moves of the player
+                board.makeNullMove();
+                final int value = -negamax(board, searchDepth - 1 - this.pruning.getNullMoveReduction(), -beta, -beta + 1,
+                        ply + 1, false);
+                board.unmakeMove();
+                if (isStopped()) return 0;
+                if (value >= beta) return beta;
+            }
+
+            board.generateLegalMoves(moves);
+            // checkmate or stalemate
+            if (moves.isEmpty()) {
+                return (board.getSideToMove() == Alliance.WHITE ? 1 : -1) * this.boardEvaluator.evaluate(board, searchDepth);
+            }
+            scoreMoves(moves, ply, TranspositionTable.getMove(entry));
+            final int[] scores = this.moveScores[ply];
+            int bestMove = PackedMove.NO_MOVE;
+            for (int i = 0; i < moves.size(); i++) {
+                final int move = pickMove(moves, ply, i);
+                // only quiet moves without a killer, hash or castling score are pruned or reduced
+                final boolean late = scores[i] < CASTLE_SCORE && !PackedMove.isCapture(move) &&
+                        PackedMove.getPromotionType(move) == null;
+                int reduction = late && prunable ? lateMoveReduction(searchDepth, i, scores[i]) : 0;
+                // checks are not pruned or reduced
+                if ((futile || reduction > 0) && late && board.givesCheck(move)) reduction = 0;
+                else if (futile && late) continue;
+                board.makeLegalMove(move);
+                int value;
+                if (i == 0) {
+                    value = -negamax(board, searchDepth - 1, -beta, -alpha, ply + 1, pvNode);
+                } else {
+                    value = -negamax(board, searchDepth - 1 - reduction, -alpha - 1, -alpha, ply + 1, false);
+                    if (reduction > 0 && value > alpha) value = -negamax(board, searchDepth - 1, -alpha - 1, -alpha, ply + 1, false);
+                    if (value > alpha && value < beta) value = -negamax(board, searchDepth - 1, -beta, -alpha, ply + 1, true);
+                }
+                board.unmakeMove();
+                if (isStopped()) return 0;
+
+                if (value > alpha) {
+                    alpha = value;
+                    bestMove = move;
+                    updatePrincipalVariation(move, ply);
+                }
+                // alpha beta break off
+                if (alpha >= beta) {
+                    addCutoff(move, ply, searchDepth);
+                    store(key, move, searchDepth, TranspositionTable.LOWER_BOUND, beta);
+                    return beta;
+                }
+            }
+            store(key, bestMove, searchDepth,
+                    bestMove == PackedMove.NO_MOVE ? TranspositionTable.UPPER_BOUND : TranspositionTable.EXACT, alpha);
+            return alpha;
+        }
+
+        /**
+         * Late-move reduction of a quiet move: one ply for a move sorted after the first moves, two for a move sorted
+         * far behind them, one ply less for a move with a high history score
+         *
+         * @param searchDepth remaining depth of the node
+         * @param index       of the move in the order it is searched
+         * @param score       history score of the move
+         * @return plys the move is reduced by, the search of the move keeps at least one ply
+         */
+        private int lateMoveReduction(int searchDepth, int index, int score) {
+            if (!this.pruning.isLateMoveReductions() || searchDepth < this.pruning.getLateMoveMinDepth() ||
+                    index < this.pruning.getLateMoveIndex()) return 0;
+            int reduction = index >= 2 * this.pruning.getLateMoveIndex() ? 2 : 1;
+            if (score >= this.pruning.getLateMoveHistory()) reduction--;
+            return Math.max(0, Math.min(reduction, searchDepth - 2));
+        }
+
+        /**
+         * A null move is not tried when the player to move has only pawns and a king: such positions are often
+         * zugzwang, where any move is worse than passing (e.g. the white pawns in horde mode)
+         *
+         * @param board of the node
+         * @return true if the player to move has a knight, bishop, rook or queen
+         */
+        private boolean hasPiecesBesidesPawns(SearchBoard board) {
+            final Alliance alliance = board.getSideToMove();
+            final BitBoard bitBoard = board.getBitBoard();
+            return (bitBoard.getPieces(alliance) & ~bitBoard.getPieces(Piece.PieceType.PAWN, alliance) &
+                    ~bitBoard.getPieces(Piece.PieceType.KING, alliance)) != 0;
+        }
+
+        /**
+         * @param board to evaluate
+         * @return the evaluation of the position from the view of the player to move
+         */
+        private int staticEvaluation(SearchBoard board) {
+            return (board.getSideToMove() == Alliance.WHITE ? 1 : -1) * this.boardEvaluator.evaluate(board, 0);
+        }
+
+        /**
+         * Makes a move followed by the principal variation of the next ply the principal variation of the ply
+         */
+        private void updatePrincipalVariation(int move, int ply) {
+            final int childLength = this.principalVariationLengths[ply + 1];
+            if (this.principalVariations[ply].length <= childLength) {
+                this.principalVariations[ply] = Arrays.copyOf(this.principalVariations[ply], childLength * 2 + 1);
+            }
+            final int[] variation = this.principalVariations[ply];
+            variation[0] = move;
+            System.arraycopy(this.principalVariations[ply + 1], 0, variation, 1, childLength);
+            this.principalVariationLengths[ply] = childLength + 1;
+        }
+
+        /**
+         * Counts a node and checks if the search has run out of time, the clock is read every few nodes
+         *
+         * @return true if the search is stopped, then the result of every node is dropped
+         */
+        private boolean isTimeUp() {
+            if (++this.nodesSinceTimeCheck > TIME_CHECK_INTERVAL) {
+                nodeCount.add(this.nodesSinceTimeCheck);
+                this.nodesSinceTimeCheck = 0;
+                if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0) stopped = true;
+            }
+            return isStopped();
+        }
+
+        /**
+         * Searches a leaf of the search with the quiescence search
+         *
+         * @param board at the leaf
+         * @param alpha for current search
+         * @param beta  for current search
+         * @param ply   distance from the root of the search
+         * @return value of the leaf
+         */
+        private int quiescence(SearchBoard board, int alpha, int beta, int ply) {
+            if (board.getSideToMove() == Alliance.WHITE) return quiescence(board, alpha, beta, ply, 0);
+            return -quiescence(board, -beta, -alpha, ply, 0);
+        }
+
+        /**
+         * Quiescence search: searches the captures and promotions of a position until it is quiet, so that a
+         * position is not evaluated in the middle of an exchange. The player to move may keep the evaluation of the
+         * position ("stand pat") instead of capturing. The values are from the view of the player to move.
+         * A player in check may not stand pat and searches all moves out of check, without any moves it is checkmated.
+         *
+         * @param board to make move on
+         * @param alpha for current search
+         * @param beta  for current search
+         * @param ply   distance from the root of the search
+         * @param depth number of plys searched past the leaf
+         * @return value of the position
+         * @see <a href="https://chessprogramming.wikispaces.com/Quiescence+Search">Quiescence</a>
+         */
+        private int quiescence(SearchBoard board, int alpha, int beta, int ply, int depth) {
+            if (isTimeUp()) return 0;
+            this.quiescenceNodes++;
+            totalQuiescenceNodes.increment();
+            // at the depth limit a position in check is evaluated as it is
+            final boolean inCheck = depth < maxQuiescence && board.isInCheck(board.getSideToMove());
+            final int standPat = inCheck ? -INFINITY : staticEvaluation(board);
+            if (!inCheck) {
+                if (standPat >= beta) return beta;
+                if (depth >= maxQuiescence) return Math.max(alpha, standPat);
+                alpha = Math.max(alpha, standPat);
+            }
+
+            final MoveList moves = moveList(ply);
+            board.generateLegalMoves(moves);
+            if (inCheck) {
+                // checkmate
+                if (moves.isEmpty()) return Math.max(alpha, Math.min(beta, staticEvaluation(board)));
+            } else {
+                int size = 0;
+                for (int i = 0; i < moves.size(); i++) {
+                    final int move = moves.get(i);
+                    if (PackedMove.isCapture(move) || PackedMove.getPromotionType(move) != null) moves.set(size++, move);
+                }
+                moves.truncate(size);
+            }
+            scoreMoves(moves, ply, PackedMove.NO_MOVE);
+
+            for (int i = 0; i < moves.size(); i++) {
+                final int move = pickMove(moves, ply, i);
+                if (!inCheck) {
+                    // captures that lose material are sorted last and not searched
+                    if (this.moveScores[ply][i] < 0) break;
+                    // delta pruning: a capture that can not bring the score near alpha is not searched
+                    if (PackedMove.getPromotionType(move) == null &&
+                            standPat + PackedMove.getCapturedType(move).getPieceValue() + DELTA_MARGIN <= alpha) {
+                        continue;
+                    }
+                }
+                board.makeLegalMove(move);
+                final int value = -quiescence(board, -beta, -alpha, ply + 1, depth + 1);
+                board.unmakeMove();
+                if (isStopped()) return 0;
+
+                if (value >= beta) return beta;
+                alpha = Math.max(alpha, value);
+            }
+            return alpha;
+        }
+
+        /**
+         * Sorts the moves of a move list
+         * General comparison outline:
+         * Check if move is the best move of the transposition table
+         * Check if move puts opponent in check
+         * Check if move is a castling move
+         * Use MVV-LVA heuristic
+         *
+         * @param board    the moves belong to
+         * @param moves    to sort
+         * @param hashMove best move of the transposition table, PackedMove.NO_MOVE if there is none
+         */
+        private void moveSortExpensive(SearchBoard board, MoveList moves, int hashMove) {
+            final long[] keys = this.rootSortKeys;
+            for (int i = 0; i < moves.size(); i++) {
+                final int move = moves.get(i);
+                final int score = (move == hashMove ? 1 << 25 : 0) + (board.givesCheck(move) ? 1 << 24 : 0) +
+                        (PackedMove.isCastle(move) ? 1 << 23 : 0) + mvvlva(move);
+                keys[i] = sortKey(score, i, move);
+            }
+            sortMoves(moves, keys);
+        }
+
+        /**
+         * Scores the moves of a move list for pickMove, once per move
+         * General order:
+         * The best move of the transposition table
+         * Captures and promotions, by the MVV-LVA heuristic
+         * The killer moves of the ply
+         * Castling moves
+         * Other moves, by their history score
+         * Captures that lose material by the static exchange evaluation, by the MVV-LVA heuristic
+         *
+         * @param moves    to score
+         * @param ply      of the move list
+         * @param hashMove best move of the transposition table, PackedMove.NO_MOVE if there is none
+         * @see <a href="https://chessprogramming.wikispaces.com/Killer+Heuristic">Killer Heuristic</a>
+         * @see <a href="https://chessprogramming.wikispaces.com/History+Heuristic">History Heuristic</a>
+         */
+        private void scoreMoves(MoveList moves, int ply, int hashMove) {
+            final int[] scores = this.moveScores[ply];
+            final int[] plyKillers = this.killers[ply];
+            final int side = this.board.getSideToMove().ordinal() << 12;
+            for (int i = 0; i < moves.size(); i++) {
+                final int move = moves.get(i);
+                final Piece.PieceType promotionType = PackedMove.getPromotionType(move);
+                final int score;
+                if (move == hashMove) score = HASH_MOVE_SCORE;
+                else if (promotionType == null && PackedMove.isCapture(move) && isLosingCapture(move)) {
+                    score = LOSING_CAPTURE_SCORE + mvvlva(move);
+                } else if (PackedMove.isCapture(move) || promotionType != null) {
+                    score = CAPTURE_SCORE + mvvlva(move) + (promotionType != null ? promotionType.getPieceValue() * 100 : 0);
+                } else if (move == plyKillers[0]) score = KILLER_SCORE + 1;
+                else if (move == plyKillers[1]) score = KILLER_SCORE;
+                else if (PackedMove.isCastle(move)) score = CASTLE_SCORE;
+                else score = this.history[side | PackedMove.getFrom(move) << 6 | PackedMove.getTo(move)];
+                scores[i] = score;
+            }
+        }
+
+        /**
+         * A capture of a piece worth at least the capturing piece never loses material, the others are checked with
+         * the static exchange evaluation
+         *
+         * @param move capture of the side to move
+         * @return true if the capture loses material when the opponent takes back
+         */
+        private boolean isLosingCapture(int move) {
+            return PackedMove.getPieceType(move).getPieceValue() > PackedMove.getCapturedType(move).getPieceValue() &&
+                    this.board.staticExchangeEvaluation(move) < 0;
+        }
+
+        /**
+         * Picks the move to search next: the move with the highest score of the ones not searched yet is moved
+         * to the index. Moves with the same score keep their generation order.
+         * Only the moves that are searched before a cutoff are ever sorted.
+         *
+         * @param moves scored with scoreMoves, sorted up to the index
+         * @param ply   of the move list
+         * @param index of the next move
+         * @return the move at the index
+         */
+        private int pickMove(MoveList moves, int ply, int index) {
+            final int[] scores = this.moveScores[ply];
+            int best = index;
+            for (int i = index + 1; i < moves.size(); i++) {
+                if (scores[i] > scores[best]) best = i;
+            }
+            final int move = moves.get(best), score = scores[best];
+            for (int i = best; i > index; i--) {
+                moves.set(i, moves.get(i - 1));
+                scores[i] = scores[i - 1];
+            }
+            moves.set(index, move);
+            scores[index] = score;
+            return move;
+        }
+
+        /**
+         * Remembers a quiet move that caused a cutoff as a killer move of the ply, and raises its history score
+         *
+         * @param move        that caused the cutoff
+         * @param ply         of the move
+         * @param searchDepth remaining depth of the search of the move, deeper cutoffs count more
+         */
+        private void addCutoff(int move, int ply, int searchDepth) {
+            if (PackedMove.isCapture(move) || PackedMove.getPromotionType(move) != null) return;
+            final int[] plyKillers = this.killers[ply];
+            if (plyKillers[0] != move) {
+                plyKillers[1] = plyKillers[0];
+                plyKillers[0] = move;
+            }
+            final int index = this.board.getSideToMove().ordinal() << 12 | PackedMove.getFrom(move) << 6 | PackedMove.getTo(move);
+            this.history[index] += searchDepth * searchDepth;
+            if (this.history[index] >= MAX_HISTORY_SCORE) {
+                for (int i = 0; i < this.history.length; i++) this.history[i] /= 2;
+            }
+        }
+
+        private MoveList moveList(int ply) {
+            if (ply >= this.moveLists.length) {
+                final int length = Math.max(ply + 1, this.moveLists.length * 2);
+                final int oldLength = this.moveLists.length;
+                this.moveLists = Arrays.copyOf(this.moveLists, length);
+                this.moveScores = Arrays.copyOf(this.moveScores, length);
+                this.killers = Arrays.copyOf(this.killers, length);
+                this.principalVariations = Arrays.copyOf(this.principalVariations, length);
+                this.principalVariationLengths = Arrays.copyOf(this.principalVariationLengths, length);
+                for (int i = oldLength; i < length; i++) {
+                    this.moveLists[i] = new MoveList();
+                    this.moveScores[i] = new int[MoveList.DEFAULT_CAPACITY];
+                    this.killers[i] = new int[2];
+                    this.principalVariations[i] = new int[8];
+                }
+            }
+            return this.moveLists[ply];
         }
-        return Piece.PieceType.KING.getPieceValue() - movingPiece.getPieceType().getPieceValue();
     }
 }
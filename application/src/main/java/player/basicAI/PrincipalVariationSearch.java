@@ -0,0 +1,204 @@
+package player.basicAI;
+
+import board.Board;
+import board.Move;
+import board.MoveList;
+import board.PackedMove;
+import player.MoveTransition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A principal variation search: the same search as MiniMax in negamax form, where the first move of a node is
+ * searched with the full window and the other moves with a null window, see MiniMax.Searcher.negamax.
+ *
+ * Every iteration after the first is searched with an aspiration window around the value of the iteration before.
+ * A value outside the window only tells that the value is beyond it, then the iteration is searched again with the
+ * window widened on that side, until the value falls inside the window.
+ *
+ * The principal variation, the line of play both players are expected to follow, is kept for the deepest completed
+ * iteration. The search runs on the calling thread.
+ *
+ * Away from the principal variation the search prunes and reduces moves, see PruningSettings.
+ *
+ * @see <a href="https://chessprogramming.wikispaces.com/Principal+Variation+Search">Principal Variation Search</a>
+ * @see <a href="https://chessprogramming.wikispaces.com/Aspiration+Windows">Aspiration Windows</a>
+ */
+public class PrincipalVariationSearch extends MiniMax {
+    // half the width of the first aspiration window, it is widened four times on every failed search
+    private static final int ASPIRATION_WINDOW = 200;
+    private static final int WIDENING_FACTOR = 4;
+    // a window wider than this is searched as a full window
+    private static final int MAX_ASPIRATION_WINDOW = 5000;
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    private final boolean printMoveInformation;
+    private final PruningSettings pruningSettings;
+    // position of the last search, its principal variation and the value of the last completed iteration
+    private Board rootBoard;
+    private int[] principalVariation = new int[0];
+    private int previousValue;
+    // value found by the last search of the root moves, a bound if it is outside the window
+    private int rootValue;
+
+    /**
+     * The constructor for the principal variation search
+     *
+     * @param searchDepth          maximum depth of the search (plys)
+     * @param maxQuiescence        maximum number of plys the quiescence search goes past the search depth,
+     *                             0 to evaluate the leaves as they are
+     * @param usePieceSquareBoards to use piece-square board or not
+     * @param printMoveInformation to print information about
+     * @param hashSizeMb           size of the transposition table in megabytes, 0 to search without one
+     * @param timeLimitMillis      time the search may take in milliseconds, 0 to always search to the full depth.
+     *                             The search to depth 1 is always completed
+     */
+    public PrincipalVariationSearch(int searchDepth, int maxQuiescence, boolean usePieceSquareBoards,
+                                    boolean printMoveInformation, int hashSizeMb, long timeLimitMillis) {
+        this(searchDepth, maxQuiescence, usePieceSquareBoards, printMoveInformation, hashSizeMb, timeLimitMillis,
+                PruningSettings.DEFAULT);
+    }
+
+    /**
+     * The constructor for the principal variation search
+     *
+     * @param searchDepth          maximum depth of the search (plys)
+     * @param maxQuiescence        maximum number of plys the quiescence search goes past the search depth,
+     *                             0 to evaluate the leaves as they are
+     * @param usePieceSquareBoards to use piece-square board or not
+     * @param printMoveInformation to print information about
+     * @param hashSizeMb           size of the transposition table in megabytes, 0 to search without one
+     * @param timeLimitMillis      time the search may take in milliseconds, 0 to always search to the full depth.
+     *                             The search to depth 1 is always completed
+     * @param pruningSettings      pruning and reductions of the search, PruningSettings.NONE to search every move
+     *                             to the full depth
+     */
+    public PrincipalVariationSearch(int searchDepth, int maxQuiescence, boolean usePieceSquareBoards,
+                                    boolean printMoveInformation, int hashSizeMb, long timeLimitMillis,
+                                    PruningSettings pruningSettings) {
+        super(searchDepth, maxQuiescence, usePieceSquareBoards, printMoveInformation, hashSizeMb, timeLimitMillis, 1);
+        this.printMoveInformation = printMoveInformation;
+        this.pruningSettings = pruningSettings;
+    }
+
+    @Override
+    public String toString() {
+        return "PVS";
+    }
+
+    @Override
+    public Move execute(Board board) {
+        final Move move = super.execute(board);
+        if (this.printMoveInformation) System.out.println("\tPRINCIPAL VARIATION: " + getPrincipalVariation() + "\n");
+        return move;
+    }
+
+    /**
+     * The principal variation of the last search, starting with the move that was returned.
+     * The variation may end before the search depth where the rest of it was found in the transposition table.
+     *
+     * @return the moves of the principal variation, each a move of the board the move before it leads to
+     */
+    public List<Move> getPrincipalVariation() {
+        if (this.rootBoard == null) return Collections.emptyList();
+        final List<Move> moves = new ArrayList<>();
+        Board board = this.rootBoard;
+        for (int packedMove : this.principalVariation) {
+            final Move move = Move.MoveFactory.createMove(board, packedMove);
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if (!transition.getMoveStatus().isDone()) break;
+            moves.add(move);
+            board = transition.getTransitionBoard();
+        }
+        return moves;
+    }
+
+    @Override
+    PruningSettings getPruningSettings() {
+        return this.pruningSettings;
+    }
+
+    @Override
+    int search(Board board, Searcher searcher) {
+        this.rootBoard = board;
+        this.principalVariation = new int[0];
+        return deepen(board, searcher, 1, false);
+    }
+
+    /**
+     * Searches an iteration with an aspiration window around the value of the iteration before, and widens the
+     * window on the side the value falls outside of it until the value is inside
+     */
+    @Override
+    int searchIteration(Board board, Searcher searcher, int searchDepth, int previousBest, boolean splitRoot) {
+        int lowerWindow = ASPIRATION_WINDOW, upperWindow = ASPIRATION_WINDOW;
+        while (true) {
+            final boolean firstIteration = previousBest == PackedMove.NO_MOVE;
+            final int alpha = firstIteration || lowerWindow > MAX_ASPIRATION_WINDOW ? -INFINITY : this.previousValue - lowerWindow;
+            final int beta = firstIteration || upperWindow > MAX_ASPIRATION_WINDOW ? INFINITY : this.previousValue + upperWindow;
+            final int[] variation = searchRoot(board, searcher, searchDepth, previousBest, alpha, beta);
+            if (searcher.isStopped()) return PackedMove.NO_MOVE;
+
+            if (variation == null) {
+                // no legal moves
+                if (alpha == -INFINITY) return PackedMove.NO_MOVE;
+                lowerWindow *= WIDENING_FACTOR;
+            } else if (this.rootValue >= beta && !searcher.foundCheckmate) {
+                upperWindow *= WIDENING_FACTOR;
+                previousBest = variation[0];
+            } else {
+                this.previousValue = this.rootValue;
+                this.principalVariation = variation;
+                store(searcher.getBoard().getZobristKey(), variation[0], searchDepth, TranspositionTable.EXACT, this.rootValue);
+                return variation[0];
+            }
+        }
+    }
+
+    /**
+     * Searches the moves of the root position within a window, the first one with the window and the others with a
+     * null window first. The value found is kept as the root value.
+     *
+     * @param board        to generate move for
+     * @param searcher     with a search board of the board
+     * @param searchDepth  depth of the iteration
+     * @param previousBest best move of the iteration before, searched first
+     * @param alpha        of the window, from the view of the player to move
+     * @param beta         of the window, from the view of the player to move
+     * @return the principal variation of the best move, the one of the move that failed high if the value is beta
+     * or higher, null if no move is better than alpha
+     */
+    int[] searchRoot(Board board, Searcher searcher, int searchDepth, int previousBest, int alpha, int beta) {
+        final MoveList sorted = searcher.sortRootMoves(searchDepth, previousBest);
+        final int size = sorted.size();
+        int[] variation = null;
+        for (int i = 0; i < size; i++) {
+            final int move = sorted.get(i);
+            int value;
+            if (i == 0) {
+                value = searcher.searchRootMoveNegamax(move, searchDepth, alpha, beta);
+            } else {
+                value = searcher.searchRootMoveNegamax(move, searchDepth, alpha, alpha + 1);
+                if (value > alpha && value < beta && !searcher.isStopped()) {
+                    value = searcher.searchRootMoveNegamax(move, searchDepth, alpha, beta);
+                }
+            }
+            if (searcher.isStopped()) return null;
+
+            if (value > alpha) {
+                alpha = value;
+                variation = searcher.getPrincipalVariation(move);
+                if (searcher.rootMoveMates) searcher.foundCheckmate = true;
+            }
+            if (searcher.printsMoves) {
+                printRootMove(board, i + 1, size, move, searcher.quiescenceNodes,
+                        variation != null ? variation[0] : move, value);
+            }
+            if (alpha >= beta || searcher.foundCheckmate) break;
+        }
+        this.rootValue = alpha;
+        return variation;
+    }
+}
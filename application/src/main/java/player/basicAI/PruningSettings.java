@@ -0,0 +1,257 @@
+package player.basicAI;
+
+/**
+ * The pruning and reductions of the principal variation search, each can be turned off and tuned on its own so that
+ * they can be compared:
+ * - null-move pruning: a node where a search of the opponent with a free move and a reduced depth still fails high
+ *   is cut off. It is not tried in check, or when the player to move has only pawns, where having to move can be a
+ *   disadvantage (zugzwang, e.g. the pawns of horde mode)
+ * - late-move reductions: quiet moves that are sorted late are searched to a smaller depth, and searched again to
+ *   the full depth if they turn out better than alpha. Moves with a high history score are reduced less
+ * - futility pruning: close to the leaves, quiet moves are not searched when the evaluation of the position with a
+ *   margin is still below alpha
+ * - razoring: close to the leaves, a position far below alpha is only searched with the quiescence search
+ *
+ * None of them is used in the nodes of the principal variation, or in check.
+ *
+ * @see <a href="https://chessprogramming.wikispaces.com/Null+Move+Pruning">Null Move Pruning</a>
+ * @see <a href="https://chessprogramming.wikispaces.com/Late+Move+Reductions">Late Move Reductions</a>
+ * @see <a href="https://chessprogramming.wikispaces.com/Futility+Pruning">Futility Pruning</a>
+ * @see <a href="https://chessprogramming.wikispaces.com/Razoring">Razoring</a>
+ */
+public final class PruningSettings {
+    /**
+     * All pruning and reductions with their default settings
+     */
+    public static final PruningSettings DEFAULT = new Builder().build();
+    /**
+     * No pruning or reductions, every move is searched to the full depth
+     */
+    public static final PruningSettings NONE = new Builder().setNullMove(false).setLateMoveReductions(false)
+            .setFutilityPruning(false).setRazoring(false).build();
+
+    private final boolean nullMove;
+    private final int nullMoveReduction;
+    private final boolean lateMoveReductions;
+    private final int lateMoveMinDepth, lateMoveIndex, lateMoveHistory;
+    private final boolean futilityPruning;
+    private final int futilityDepth, futilityMargin;
+    private final boolean razoring;
+    private final int razoringDepth, razoringMargin;
+
+    private PruningSettings(Builder builder) {
+        this.nullMove = builder.nullMove;
+        this.nullMoveReduction = builder.nullMoveReduction;
+        this.lateMoveReductions = builder.lateMoveReductions;
+        this.lateMoveMinDepth = builder.lateMoveMinDepth;
+        this.lateMoveIndex = builder.lateMoveIndex;
+        this.lateMoveHistory = builder.lateMoveHistory;
+        this.futilityPruning = builder.futilityPruning;
+        this.futilityDepth = builder.futilityDepth;
+        this.futilityMargin = builder.futilityMargin;
+        this.razoring = builder.razoring;
+        this.razoringDepth = builder.razoringDepth;
+        this.razoringMargin = builder.razoringMargin;
+    }
+
+    /**
+     * @return true if null-move pruning is used
+     */
+    public boolean isNullMove() {
+        return this.nullMove;
+    }
+
+    /**
+     * @return number of plys the search after a null move is reduced by, besides the ply of the null move
+     */
+    public int getNullMoveReduction() {
+        return this.nullMoveReduction;
+    }
+
+    /**
+     * @return true if late moves are reduced
+     */
+    public boolean isLateMoveReductions() {
+        return this.lateMoveReductions;
+    }
+
+    /**
+     * @return smallest remaining depth where moves are reduced
+     */
+    public int getLateMoveMinDepth() {
+        return this.lateMoveMinDepth;
+    }
+
+    /**
+     * @return number of moves of a node that are never reduced, the moves after twice as many are reduced one ply more
+     */
+    public int getLateMoveIndex() {
+        return this.lateMoveIndex;
+    }
+
+    /**
+     * @return history score from which a move is reduced one ply less
+     */
+    public int getLateMoveHistory() {
+        return this.lateMoveHistory;
+    }
+
+    /**
+     * @return true if futility pruning is used
+     */
+    public boolean isFutilityPruning() {
+        return this.futilityPruning;
+    }
+
+    /**
+     * @return largest remaining depth where moves are pruned as futile
+     */
+    public int getFutilityDepth() {
+        return this.futilityDepth;
+    }
+
+    /**
+     * @return margin of the futility pruning per ply of remaining depth
+     */
+    public int getFutilityMargin() {
+        return this.futilityMargin;
+    }
+
+    /**
+     * @return true if razoring is used
+     */
+    public boolean isRazoring() {
+        return this.razoring;
+    }
+
+    /**
+     * @return largest remaining depth where positions are razored
+     */
+    public int getRazoringDepth() {
+        return this.razoringDepth;
+    }
+
+    /**
+     * @return margin of the razoring per ply of remaining depth
+     */
+    public int getRazoringMargin() {
+        return this.razoringMargin;
+    }
+
+    @Override
+    public String toString() {
+        return "null move: " + (this.nullMove ? "R=" + this.nullMoveReduction : "off") +
+                ", late move reductions: " + (this.lateMoveReductions ? "depth>=" + this.lateMoveMinDepth + " index>=" +
+                this.lateMoveIndex + " history<" + this.lateMoveHistory : "off") +
+                ", futility: " + (this.futilityPruning ? "depth<=" + this.futilityDepth + " margin=" + this.futilityMargin : "off") +
+                ", razoring: " + (this.razoring ? "depth<=" + this.razoringDepth + " margin=" + this.razoringMargin : "off");
+    }
+
+    /**
+     * Builds pruning settings, starting from the default settings
+     */
+    public static class Builder {
+        private boolean nullMove = true;
+        private int nullMoveReduction = 2;
+        private boolean lateMoveReductions = true;
+        private int lateMoveMinDepth = 3, lateMoveIndex = 3, lateMoveHistory = 1000;
+        private boolean futilityPruning = true;
+        private int futilityDepth = 2, futilityMargin = 200;
+        private boolean razoring = true;
+        private int razoringDepth = 2, razoringMargin = 400;
+
+        /**
+         * @param nullMove to use null-move pruning
+         * @return Builder with this setting
+         */
+        public Builder setNullMove(boolean nullMove) {
+            this.nullMove = nullMove;
+            return this;
+        }
+
+        /**
+         * @param reduction plys the search after a null move is reduced by, at least 1
+         * @return Builder with this setting
+         */
+        public Builder setNullMoveReduction(int reduction) {
+            if (reduction < 1) throw new IllegalArgumentException("Invalid null move reduction: " + reduction);
+            this.nullMoveReduction = reduction;
+            return this;
+        }
+
+        /**
+         * @param lateMoveReductions to reduce late moves
+         * @return Builder with this setting
+         */
+        public Builder setLateMoveReductions(boolean lateMoveReductions) {
+            this.lateMoveReductions = lateMoveReductions;
+            return this;
+        }
+
+        /**
+         * @param minDepth smallest remaining depth where moves are reduced, at least 2
+         * @param index    number of moves of a node that are never reduced, at least 1
+         * @param history  history score from which a move is reduced one ply less
+         * @return Builder with these settings
+         */
+        public Builder setLateMoveReductions(int minDepth, int index, int history) {
+            if (minDepth < 2 || index < 1) throw new IllegalArgumentException("Invalid late move reductions: " + minDepth + ", " + index);
+            this.lateMoveReductions = true;
+            this.lateMoveMinDepth = minDepth;
+            this.lateMoveIndex = index;
+            this.lateMoveHistory = history;
+            return this;
+        }
+
+        /**
+         * @param futilityPruning to prune futile moves
+         * @return Builder with this setting
+         */
+        public Builder setFutilityPruning(boolean futilityPruning) {
+            this.futilityPruning = futilityPruning;
+            return this;
+        }
+
+        /**
+         * @param depth  largest remaining depth where moves are pruned, at least 1
+         * @param margin per ply of remaining depth
+         * @return Builder with these settings
+         */
+        public Builder setFutilityPruning(int depth, int margin) {
+            if (depth < 1) throw new IllegalArgumentException("Invalid futility depth: " + depth);
+            this.futilityPruning = true;
+            this.futilityDepth = depth;
+            this.futilityMargin = margin;
+            return this;
+        }
+
+        /**
+         * @param razoring to razor positions far below alpha
+         * @return Builder with this setting
+         */
+        public Builder setRazoring(boolean razoring) {
+            this.razoring = razoring;
+            return this;
+        }
+
+        /**
+         * @param depth  largest remaining depth where positions are razored, at least 1
+         * @param margin per ply of remaining depth
+         * @return Builder with these settings
+         */
+        public Builder setRazoring(int depth, int margin) {
+            if (depth < 1) throw new IllegalArgumentException("Invalid razoring depth: " + depth);
+            this.razoring = true;
+            this.razoringDepth = depth;
+            this.razoringMargin = margin;
+            return this;
+        }
+
+        /**
+         * @return the pruning settings
+         */
+        public PruningSettings build() {
+            return new PruningSettings(this);
+        }
+    }
+}
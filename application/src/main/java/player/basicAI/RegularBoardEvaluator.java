@@ -1,8 +1,14 @@
 package player.basicAI;
 
+import board.BitBoard;
 import board.Board;
+import board.Coordinate;
 import board.Move;
+import board.MoveList;
+import board.PackedMove;
+import board.SearchBoard;
 import pieces.*;
+import pieces.Piece.PieceType;
 import player.Player;
 
 /**
@@ -20,7 +26,9 @@ public final class RegularBoardEvaluator implements BoardEvaluator {
     private final static int TWO_BISHOPS_BONUS = 50;
 
     private final boolean usePieceSquareBoards;
-    private boolean isPieceSquareEndGame = false;
+    // move lists used when evaluating a search board, an evaluator is used by one thread at a time
+    private final MoveList whiteMoves = new MoveList();
+    private final MoveList blackMoves = new MoveList();
 
     public RegularBoardEvaluator(boolean usePieceSquareBoards) {
         this.usePieceSquareBoards = usePieceSquareBoards;
@@ -30,6 +38,7 @@ public final class RegularBoardEvaluator implements BoardEvaluator {
      * Evaluate the current state of the board.
      * If white has an advantage the value will be positive,
      * if black has an advantage the number will be negative.
+     * The end game state of the piece-square boards is calculated for this board only.
      *
      * @param board to evaluate
      * @param depth of the evaluation
@@ -37,19 +46,128 @@ public final class RegularBoardEvaluator implements BoardEvaluator {
      */
     @Override
     public int evaluate(Board board, int depth) {
-        if (usePieceSquareBoards) calculatePieceSquareEndGame(board);
-        return scorePlayer(board.getWhitePlayer(), depth) - scorePlayer(board.getBlackPlayer(), depth);
+        final boolean isEndGame = usePieceSquareBoards && isPieceSquareEndGame(board.getBitBoard());
+        return scorePlayer(board.getWhitePlayer(), isEndGame, depth) - scorePlayer(board.getBlackPlayer(), isEndGame, depth);
+    }
+
+    /**
+     * Evaluate the position of a search board, with the same terms as evaluate(Board, int).
+     * The end game state of the piece-square boards is calculated for this position only.
+     *
+     * @param board to evaluate
+     * @param depth of the evaluation
+     * @return score of the position
+     */
+    @Override
+    public int evaluate(SearchBoard board, int depth) {
+        final boolean isEndGame = usePieceSquareBoards && isPieceSquareEndGame(board.getBitBoard());
+        board.generateMoves(Alliance.WHITE, whiteMoves);
+        board.generateMoves(Alliance.BLACK, blackMoves);
+        return scorePlayer(board, Alliance.WHITE, whiteMoves, blackMoves.size(), isEndGame, depth) -
+                scorePlayer(board, Alliance.BLACK, blackMoves, whiteMoves.size(), isEndGame, depth);
+    }
+
+    /**
+     * Get the score for a player of a search board
+     *
+     * @param board             to evaluate
+     * @param alliance          of the player
+     * @param moves             the player's moves
+     * @param opponentMoveCount number of moves of the opponent
+     * @param isEndGame         if the end game piece-square boards are used
+     * @param depth             of evaluation
+     * @return the total score for the player
+     */
+    private int scorePlayer(SearchBoard board, Alliance alliance, MoveList moves, int opponentMoveCount,
+                            boolean isEndGame, int depth) {
+        return pieceValues(board, alliance, isEndGame) +
+                MOBILITY_MULTIPLIER * (int)((moves.size() * 100.0) / opponentMoveCount) +
+                checkmateValue(board, alliance, depth) +
+                (board.isCastled(alliance) ? CASTLE_BONUS : 0) +
+                attackValue(moves);
+    }
+
+    /**
+     * Calculate the total value for the pieces of an alliance on a search board
+     *
+     * @param board     to evaluate
+     * @param alliance  of the pieces
+     * @param isEndGame if the end game piece-square boards are used
+     * @return total value of all pieces (+ a bonus for having both bishops)
+     */
+    private int pieceValues(SearchBoard board, Alliance alliance, boolean isEndGame) {
+        int pieceValueScore = 0;
+        for (PieceType pieceType : PieceType.values()) {
+            long pieces = board.getBitBoard().getPieces(pieceType, alliance);
+            while (pieces != 0) {
+                final int square = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                pieceValueScore += pieceType.getPieceValue();
+                if (usePieceSquareBoards) pieceValueScore += locationValue(pieceType, alliance, square, isEndGame);
+            }
+        }
+        return pieceValueScore + (board.getBitBoard().count(PieceType.BISHOP, alliance) == 2 ? TWO_BISHOPS_BONUS : 0);
+    }
+
+    /**
+     * Same as Piece.locationValue for a piece on a search board
+     */
+    private static int locationValue(PieceType pieceType, Alliance alliance, int square, boolean isEndGame) {
+        final Coordinate coordinate = Coordinate.of(square);
+        switch (pieceType) {
+            case PAWN: return alliance.pawnSquareValue(coordinate);
+            case KNIGHT: return alliance.knightSquareValue(coordinate);
+            case BISHOP: return alliance.bishopSquareValue(coordinate);
+            case ROOK: return alliance.rookSquareValue(coordinate);
+            case QUEEN: return alliance.queenSquareValue(coordinate);
+            default: return alliance.kingSquareValue(coordinate, isEndGame);
+        }
+    }
+
+    /**
+     * Check if the opponent is in checkmate or in check on a search board.
+     * Only the side to move can be in checkmate.
+     *
+     * @param board    to evaluate
+     * @param alliance of the player
+     * @param depth    of evaluation
+     * @return a bonus for having the other player in checkmate, or in check.
+     */
+    private static int checkmateValue(SearchBoard board, Alliance alliance, int depth) {
+        final Alliance opponent = alliance == Alliance.WHITE ? Alliance.BLACK : Alliance.WHITE;
+        if (!board.isInCheck(opponent)) return 0;
+        if (board.getSideToMove() == opponent && !board.hasLegalMove()) return CHECKMATE_BONUS * depthBonus(depth);
+        return CHECK_BONUS;
+    }
+
+    /**
+     * Count the moves of a player that attack a more or equally valuable piece
+     *
+     * @param moves the player's moves
+     * @return bonus for attacking
+     */
+    private static int attackValue(MoveList moves) {
+        int attackScore = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            final PieceType attackedType = PackedMove.getCapturedType(moves.get(i));
+            if (attackedType != null &&
+                    PackedMove.getPieceType(moves.get(i)).getPieceValue() <= attackedType.getPieceValue()) {
+                attackScore++;
+            }
+        }
+        return attackScore * ATTACK_MULTIPLIER;
     }
 
     /**
      * Get the score for a player given a player to evaluate
      *
-     * @param player to evaluate
-     * @param depth  of evaluation
+     * @param player    to evaluate
+     * @param isEndGame if the end game piece-square boards are used
+     * @param depth     of evaluation
      * @return the total score for a player
      */
-    private int scorePlayer(Player player, int depth) {
-        return pieceValues(player) +
+    private int scorePlayer(Player player, boolean isEndGame, int depth) {
+        return pieceValues(player, isEndGame) +
                 mobilityValue(player) +
                 checkmateValue(player, depth) +
                 castledValue(player) +
@@ -59,14 +177,15 @@ public final class RegularBoardEvaluator implements BoardEvaluator {
     /**
      * Calculate the total value for the player's set of pieces
      *
-     * @param player to evaluate
+     * @param player    to evaluate
+     * @param isEndGame if the end game piece-square boards are used
      * @return total value of all pieces (+ a bonus for having both bishops)
      */
-    private int pieceValues(Player player) {
+    private int pieceValues(Player player, boolean isEndGame) {
         int pieceValueScore = 0, numberOfBishops = 0;
         for (Piece piece : player.getActivePieces()) {
             pieceValueScore += piece.getPieceType().getPieceValue();
-            if (usePieceSquareBoards) pieceValueScore += piece.locationValue(isPieceSquareEndGame);
+            if (usePieceSquareBoards) pieceValueScore += piece.locationValue(isEndGame);
             if (piece.getPieceType().toString().equals("B")) numberOfBishops++;
         }
         return pieceValueScore + (numberOfBishops == 2 ? TWO_BISHOPS_BONUS : 0);
@@ -164,38 +283,29 @@ public final class RegularBoardEvaluator implements BoardEvaluator {
      *  2.Every side which has a queen has additionally no other pieces or one minor-piece maximum."
      *  See link for more information -> King section.
      * @see <a href="https://chessprogramming.wikispaces.com/Simplified%20evaluation%20function">Simplified evaluation function</a>
-     * @param board that is under evaluation
-     */
-    private void calculatePieceSquareEndGame(Board board) {
-        int whiteQueenCount = 0, blackQueenCount = 0,
-                whiteBishopCount = 0, blackBishopCount = 0,
-                whiteKnightCount = 0, blackKnightCount = 0,
-                whiteOtherCount = 0, blackOtherCount = 0;
-
-        for (Piece piece : board.getWhitePieces()) {
-            if (piece instanceof Queen) whiteQueenCount++;
-            else if (piece instanceof Bishop) whiteBishopCount++;
-            else if (piece instanceof Knight) whiteKnightCount++;
-            else whiteOtherCount++;
-        }
-        for (Piece piece : board.getBlackPieces()) {
-            if (piece instanceof Queen) blackQueenCount++;
-            else if (piece instanceof Bishop) blackBishopCount++;
-            else if (piece instanceof Knight) blackKnightCount++;
-            else blackOtherCount++;
-        }
+     * @param bitBoard layout of the board that is under evaluation
+     * @return true if the layout is an end game
+     */
+    private static boolean isPieceSquareEndGame(BitBoard bitBoard) {
+        final int whiteQueenCount = bitBoard.count(PieceType.QUEEN, Alliance.WHITE),
+                blackQueenCount = bitBoard.count(PieceType.QUEEN, Alliance.BLACK),
+                whiteBishopCount = bitBoard.count(PieceType.BISHOP, Alliance.WHITE),
+                blackBishopCount = bitBoard.count(PieceType.BISHOP, Alliance.BLACK),
+                whiteKnightCount = bitBoard.count(PieceType.KNIGHT, Alliance.WHITE),
+                blackKnightCount = bitBoard.count(PieceType.KNIGHT, Alliance.BLACK),
+                whiteOtherCount = bitBoard.count(Alliance.WHITE) - whiteQueenCount - whiteBishopCount - whiteKnightCount,
+                blackOtherCount = bitBoard.count(Alliance.BLACK) - blackQueenCount - blackBishopCount - blackKnightCount;
 
         if (whiteQueenCount == 0 && blackQueenCount == 0) {
-            isPieceSquareEndGame = true;
+            return true;
         } else if ((whiteQueenCount == 1 && blackQueenCount == 0) &&
                 ((whiteBishopCount == 1 && whiteKnightCount == 0) || (whiteKnightCount == 1 && whiteBishopCount == 0)) &&
                 whiteOtherCount == 0) {
-            isPieceSquareEndGame = true;
-        } else if ((blackQueenCount == 1 && whiteQueenCount == 0) &&
-                ((blackBishopCount == 1 && blackKnightCount == 0) || (blackKnightCount == 1 && blackBishopCount == 0)) &&
-                blackOtherCount == 0) {
-            isPieceSquareEndGame = true;
+            return true;
         }
+        return (blackQueenCount == 1 && whiteQueenCount == 0) &&
+                ((blackBishopCount == 1 && blackKnightCount == 0) || (blackKnightCount == 1 && blackBishopCount == 0)) &&
+                blackOtherCount == 0;
     }
 }
 
@@ -0,0 +1,165 @@
+package player.basicAI;
+
+import board.PackedMove;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A transposition table remembers the result of searched positions by their Zobrist key, so that a position
+ * reached again through a different order of moves is not searched again.
+ *
+ * The table holds a power of two number of entries of two longs: the key of the position XOR the data, and the data.
+ * The data packs the best move (24 bits), the remaining depth (8 bits), the bound type (2 bits)
+ * and the score (30 bits, signed).
+ * An entry is replaced by an entry for the same position, or by a search that is at least as deep (depth-preferred).
+ *
+ * The table may be shared by searches on several threads without locking. Two threads that write the same entry at
+ * once may leave the key of one with the data of the other, such an entry does not verify against either key
+ * and is read as empty.
+ *
+ * @see <a href="https://chessprogramming.wikispaces.com/Transposition+Table">Transposition Table</a>
+ */
+public final class TranspositionTable {
+    /**
+     * The score is the value of the position
+     */
+    public static final int EXACT = 1;
+    /**
+     * The value of the position is at least the score (the search failed high)
+     */
+    public static final int LOWER_BOUND = 2;
+    /**
+     * The value of the position is at most the score (the search failed low)
+     */
+    public static final int UPPER_BOUND = 3;
+
+    private static final int MOVE_BITS = PackedMove.BITS, DEPTH_BITS = 8, BOUND_BITS = 2;
+    private static final int DEPTH_SHIFT = MOVE_BITS, BOUND_SHIFT = DEPTH_SHIFT + DEPTH_BITS,
+            SCORE_SHIFT = BOUND_SHIFT + BOUND_BITS;
+    private static final int MAX_DEPTH = (1 << DEPTH_BITS) - 1;
+    private static final int MAX_SCORE = (1 << (Long.SIZE - SCORE_SHIFT - 1)) - 1;
+
+    private final long[] keys, data;
+    private final int mask;
+    private final LongAdder hits = new LongAdder(), misses = new LongAdder(), collisions = new LongAdder();
+
+    /**
+     * @param sizeMb size of the table in megabytes, rounded down to a power of two number of entries
+     */
+    public TranspositionTable(int sizeMb) {
+        if (sizeMb < 1) throw new IllegalArgumentException("Invalid table size: " + sizeMb);
+        // two longs of 8 bytes per entry
+        final int entries = Integer.highestOneBit((int) Math.min(1L << 30, sizeMb * (1L << 20) / 16));
+        this.keys = new long[entries];
+        this.data = new long[entries];
+        this.mask = entries - 1;
+    }
+
+    /**
+     * Looks up a position
+     *
+     * @param key Zobrist key of the position
+     * @return the data of the entry, 0 if the position is not in the table. Read it with getMove, getDepth,
+     * getBound and getScore
+     */
+    public long probe(long key) {
+        final int index = (int) key & this.mask;
+        final long entry = this.data[index];
+        if (entry == 0) {
+            this.misses.increment();
+            return 0;
+        }
+        if ((this.keys[index] ^ entry) != key) {
+            this.collisions.increment();
+            return 0;
+        }
+        this.hits.increment();
+        return entry;
+    }
+
+    /**
+     * Stores the result of a search
+     *
+     * @param key   Zobrist key of the position
+     * @param move  best packed move, PackedMove.NO_MOVE if none is known
+     * @param depth remaining depth of the search
+     * @param bound EXACT, LOWER_BOUND or UPPER_BOUND
+     * @param score of the search
+     */
+    public void store(long key, int move, int depth, int bound, int score) {
+        final int index = (int) key & this.mask;
+        final long entry = this.data[index];
+        final boolean samePosition = (this.keys[index] ^ entry) == key;
+        if (entry != 0 && !samePosition && depth < getDepth(entry)) return;
+        if (move == PackedMove.NO_MOVE && samePosition) move = getMove(entry);
+        final long newEntry = (long) Math.max(-MAX_SCORE, Math.min(MAX_SCORE, score)) << SCORE_SHIFT |
+                (long) bound << BOUND_SHIFT | (long) Math.min(depth, MAX_DEPTH) << DEPTH_SHIFT | move;
+        this.keys[index] = key ^ newEntry;
+        this.data[index] = newEntry;
+    }
+
+    /**
+     * Removes all entries and resets the counters
+     */
+    public void clear() {
+        Arrays.fill(this.keys, 0);
+        Arrays.fill(this.data, 0);
+        this.hits.reset();
+        this.misses.reset();
+        this.collisions.reset();
+    }
+
+    /**
+     * @return number of probes that found the position
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * @return number of probes that found an empty entry
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * @return number of probes that found an entry of another position
+     */
+    public long getCollisions() {
+        return this.collisions.sum();
+    }
+
+    /**
+     * @param entry data of an entry
+     * @return the best packed move of the entry
+     */
+    public static int getMove(long entry) {
+        return (int) entry & ((1 << MOVE_BITS) - 1);
+    }
+
+    /**
+     * @param entry data of an entry
+     * @return the remaining depth of the search of the entry
+     */
+    public static int getDepth(long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & MAX_DEPTH;
+    }
+
+    /**
+     * @param entry data of an entry
+     * @return EXACT, LOWER_BOUND or UPPER_BOUND
+     */
+    public static int getBound(long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & ((1 << BOUND_BITS) - 1);
+    }
+
+    /**
+     * @param entry data of an entry
+     * @return the score of the entry
+     */
+    public static int getScore(long entry) {
+        return (int) (entry >> SCORE_SHIFT);
+    }
+}
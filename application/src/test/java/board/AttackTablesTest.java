@@ -0,0 +1,54 @@
+package board;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the precomputed knight, king and ray tables
+ */
+class AttackTablesTest {
+
+    /**
+     * Check the number of squares a knight and a king reach from a corner and from the center
+     */
+    @Test
+    void stepTargetsStayOnBoard() {
+        final int a8 = BitBoard.squareOf(BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("a8"));
+        final int d4 = BitBoard.squareOf(BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("d4"));
+        assertEquals(2, AttackTables.getKnightTargets(a8).length);
+        assertEquals(8, AttackTables.getKnightTargets(d4).length);
+        assertEquals(3, AttackTables.getKingTargets(a8).length);
+        assertEquals(8, AttackTables.getKingTargets(d4).length);
+        for (int square = 0; square < 64; square++) {
+            assertEquals(AttackTables.getKnightTargets(square).length, Long.bitCount(AttackTables.getKnightAttacks(square)));
+            assertEquals(AttackTables.getKingTargets(square).length, Long.bitCount(AttackTables.getKingAttacks(square)));
+        }
+    }
+
+    /**
+     * Check that a ray is ordered from the nearest square to the edge of the board, and that a rook and a bishop
+     * together see as many squares as a queen
+     */
+    @Test
+    void raysAreOrderedFromTheSquare() {
+        final int a1 = BitBoard.squareOf(BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("a1"));
+        final int h8 = BitBoard.squareOf(BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("h8"));
+        int[] diagonal = null;
+        for (int direction : AttackTables.BISHOP_DIRECTIONS) {
+            if (AttackTables.getRay(direction, a1).length > 0) diagonal = AttackTables.getRay(direction, a1);
+        }
+        assertNotNull(diagonal);
+        assertEquals(7, diagonal.length);
+        assertEquals(a1 - 7, diagonal[0]);
+        assertEquals(h8, diagonal[6]);
+
+        for (int square = 0; square < 64; square++) {
+            int rookAndBishop = 0, queen = 0;
+            for (int direction : AttackTables.ROOK_DIRECTIONS) rookAndBishop += AttackTables.getRay(direction, square).length;
+            for (int direction : AttackTables.BISHOP_DIRECTIONS) rookAndBishop += AttackTables.getRay(direction, square).length;
+            for (int direction : AttackTables.QUEEN_DIRECTIONS) queen += Long.bitCount(AttackTables.getRayMask(direction, square));
+            assertEquals(queen, rookAndBishop);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package board;
+
+import org.junit.jupiter.api.Test;
+import pieces.Alliance;
+import pieces.Piece.PieceType;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test that the bitboard representation of a board is in line with its tiles
+ */
+class BitBoardTest {
+
+    /**
+     * Check that the square index of a coordinate matches the integer representation in BoardUtils
+     */
+    @Test
+    void squareIndexMatchesIntegerRepresentation() {
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                Coordinate coordinate = new Coordinate(x, y);
+                assertEquals(BoardUtils.getInstance().getIntegerRepresentationFromCoordinate(coordinate), BitBoard.squareOf(coordinate));
+            }
+        }
+    }
+
+    /**
+     * Check that every tile of the standard board agrees with the bitboards of that board
+     */
+    @Test
+    void standardBoardBitsMatchTiles() {
+        Board board = Board.createStandardBoard();
+        BitBoard bitBoard = board.getBitBoard();
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                Tile tile = board.getTile(new Coordinate(x, y));
+                int square = BitBoard.squareOf(new Coordinate(x, y));
+                assertEquals(!tile.isEmpty(), bitBoard.isOccupied(square));
+                if (!tile.isEmpty()) {
+                    assertTrue(bitBoard.isOccupiedBy(square, tile.getPiece().getPieceAlliance()));
+                    assertEquals(tile.getPiece().getPieceType(), bitBoard.getPieceTypeAt(square));
+                }
+            }
+        }
+        assertEquals(16, bitBoard.count(Alliance.WHITE));
+        assertEquals(8, bitBoard.count(PieceType.PAWN, Alliance.BLACK));
+        assertEquals(1, bitBoard.count(PieceType.QUEEN, Alliance.WHITE));
+    }
+
+    /**
+     * Check that removing a piece clears it from every bitboard
+     */
+    @Test
+    void removePieceClearsSquare() {
+        BitBoard bitBoard = new BitBoard();
+        bitBoard.addPiece(12, PieceType.KNIGHT, Alliance.BLACK);
+        assertTrue(bitBoard.isOccupiedBy(12, Alliance.BLACK));
+        bitBoard.removePiece(12, PieceType.KNIGHT, Alliance.BLACK);
+        assertFalse(bitBoard.isOccupied(12));
+        assertEquals(0L, bitBoard.getPieces(PieceType.KNIGHT, Alliance.BLACK));
+        assertNull(bitBoard.getPieceTypeAt(12));
+    }
+}
@@ -38,4 +38,28 @@ class CoordinateTest {
         Coordinate coordinate = new Coordinate(myX, myY);
         assertTrue(coordinate.equals(new Coordinate(myX, myY)));
     }
-}
\ No newline at end of file
+
+    /**
+     * Check that Coordinate.of hands out the same object for the same square, and that it is equal
+     * to a coordinate constructed with the same values
+     */
+    @Test
+    void ofReturnsSharedCoordinate() {
+        Coordinate coordinate = Coordinate.of(3, 5);
+        assertSame(coordinate, Coordinate.of(3, 5));
+        assertSame(coordinate, Coordinate.of(coordinate.getIndex()));
+        assertEquals(new Coordinate(3, 5), coordinate);
+        assertEquals(new Coordinate(3, 5).hashCode(), coordinate.hashCode());
+    }
+
+    /**
+     * Check that the square index is y * 8 + x, and that coordinates outside of the board are still created
+     */
+    @Test
+    void squareIndex() {
+        assertEquals(0, Coordinate.of(0, 0).getIndex());
+        assertEquals(63, Coordinate.of(7, 7).getIndex());
+        assertEquals(5 * 8 + 3, Coordinate.of(3, 5).getIndex());
+        assertEquals(-1, Coordinate.of(-1, 0).getX());
+    }
+}
@@ -0,0 +1,60 @@
+package board;
+
+import org.junit.jupiter.api.Test;
+import pieces.Piece.PieceType;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the packed move encoding, the move list and the conversion between packed moves and Move objects
+ */
+class PackedMoveTest {
+
+    /**
+     * Check that every field of a packed move is read back unchanged
+     */
+    @Test
+    void fieldsArePackedAndUnpacked() {
+        final int move = PackedMove.create(52, 63, PieceType.PAWN, PieceType.ROOK, PieceType.KNIGHT, 0);
+        assertEquals(52, PackedMove.getFrom(move));
+        assertEquals(63, PackedMove.getTo(move));
+        assertEquals(PieceType.PAWN, PackedMove.getPieceType(move));
+        assertEquals(PieceType.ROOK, PackedMove.getCapturedType(move));
+        assertEquals(PieceType.KNIGHT, PackedMove.getPromotionType(move));
+        assertTrue(PackedMove.isCapture(move));
+        assertFalse(PackedMove.isCastle(move) || PackedMove.isEnPassant(move) || PackedMove.isPawnJump(move));
+        assertEquals(0, move >>> PackedMove.BITS);
+
+        final int castle = PackedMove.create(60, 62, PieceType.KING, null, null, PackedMove.CASTLE_FLAG);
+        assertTrue(PackedMove.isCastle(castle));
+        assertFalse(PackedMove.isCapture(castle) || PackedMove.isPromotion(castle));
+    }
+
+    /**
+     * Check that every move of the standard board is found again from its packed form
+     */
+    @Test
+    void movesConvertBothWays() {
+        final Board board = Board.createStandardBoard();
+        for (Move move : board.getAllLegalMoves()) {
+            final int packedMove = Move.MoveFactory.toPackedMove(move);
+            assertEquals(move, Move.MoveFactory.createMove(board, packedMove));
+        }
+        assertEquals(PackedMove.NO_MOVE, Move.MoveFactory.toPackedMove(new Move.NullMove()));
+    }
+
+    /**
+     * Check that a move list grows past its capacity and can be reused after clearing it
+     */
+    @Test
+    void moveListGrowsAndClears() {
+        final MoveList moves = new MoveList(2);
+        for (int i = 1; i <= 5; i++) moves.add(i);
+        assertEquals(5, moves.size());
+        assertEquals(3, moves.get(2));
+        assertTrue(moves.contains(5));
+        moves.clear();
+        assertTrue(moves.isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> moves.get(0));
+    }
+}
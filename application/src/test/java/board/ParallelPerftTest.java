@@ -0,0 +1,32 @@
+package board;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test that the parallel perft counts the same positions as the sequential one
+ */
+class ParallelPerftTest {
+
+    /**
+     * Count with several threads, with and without the shared hash table
+     */
+    @Test
+    void parallelCountsMatchReference() {
+        final Perft.ReferencePosition position = Perft.ReferencePosition.EN_PASSANT;
+        final ParallelPerft parallelPerft = new ParallelPerft(4, 2, 0);
+        assertEquals(position.getNodes(4), parallelPerft.perft(position.createBoard(), 4));
+        assertEquals(position.getNodes(4), parallelPerft.getThreadNodes().values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(0, parallelPerft.getHashHits());
+        parallelPerft.shutdown();
+
+        final ParallelPerft hashedPerft = new ParallelPerft(4, 1, 1);
+        assertEquals(position.getNodes(4), hashedPerft.perft(position.createBoard(), 4));
+        assertEquals(0, hashedPerft.getHashHits());
+        // the second count is found in the table at once
+        assertEquals(position.getNodes(4), hashedPerft.perft(position.createBoard(), 4));
+        assertEquals(1, hashedPerft.getHashHits());
+        hashedPerft.shutdown();
+    }
+}
@@ -0,0 +1,70 @@
+package board;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the move generators against the known node counts of the reference positions
+ */
+class PerftTest {
+
+    /**
+     * Check that a board read from FEN is the same as the board it describes
+     */
+    @Test
+    void fenDescribesBoard() {
+        final Board standardBoard = Board.createStandardBoard();
+        final Board fenBoard = Perft.ReferencePosition.START.createBoard();
+        assertEquals(standardBoard.toString(), fenBoard.toString());
+        assertEquals(standardBoard.getZobristKey(), fenBoard.getZobristKey());
+        assertThrows(IllegalArgumentException.class, () -> Board.createBoardFromFen("8/8/8 w - -"));
+    }
+
+    /**
+     * Count the first plys of every reference position with Player.makeMove and Move.execute
+     */
+    @Test
+    void boardCountsMatchReference() {
+        for (Perft.ReferencePosition position : Perft.ReferencePosition.values()) {
+            final int depth = position.getNodes(2) > 1000 ? 2 : 3;
+            assertEquals(position.getNodes(depth), Perft.perft(position.createBoard(), depth), position.name());
+        }
+    }
+
+    /**
+     * Count deeper on the search board, which is fast enough to reach a few hundred thousand positions
+     */
+    @Test
+    void searchBoardCountsMatchReference() {
+        for (Perft.ReferencePosition position : Perft.ReferencePosition.values()) {
+            final int depth = position.getNodes(3) > 10000 ? 3 : 4;
+            final SearchBoard searchBoard = new SearchBoard(position.createBoard());
+            final String before = searchBoard.toString();
+            assertEquals(position.getNodes(depth), Perft.perft(searchBoard, depth), position.name());
+            assertEquals(before, searchBoard.toString());
+        }
+    }
+
+    /**
+     * Check that divide splits the count over the legal moves
+     */
+    @Test
+    void divideAddsUpToPerft() {
+        final Board board = Perft.ReferencePosition.KIWIPETE.createBoard();
+        final Map<Move, Long> counts = Perft.divide(board, 2);
+        assertEquals(Perft.ReferencePosition.KIWIPETE.getNodes(1), counts.size());
+        assertEquals(Perft.ReferencePosition.KIWIPETE.getNodes(2), counts.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    /**
+     * Check the throughput of a count too large for nodes * 10^9 in a long, the start position at depth 8
+     */
+    @Test
+    void nodesPerSecondDoesNotOverflow() {
+        assertEquals(84_998_978L, Perft.nodesPerSecond(84_998_978_956L, 1_000_000_000_000L));
+        assertEquals(1_000_000_000L, Perft.nodesPerSecond(1, 1));
+    }
+}
@@ -0,0 +1,210 @@
+package board;
+
+import org.junit.jupiter.api.Test;
+import pieces.*;
+import pieces.Piece.PieceType;
+import player.MoveTransition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test that a search board follows the same rules as a Board, and that unmaking a move restores the position
+ */
+class SearchBoardTest {
+
+    /**
+     * Walks the game tree of a board and a search board side by side, and checks that both reach the same positions.
+     * The strictly legal moves must be the moves that makeMove accepts, both on the search board and the board,
+     * and both must see the same attacked squares.
+     */
+    private static void assertSameTree(Board board, SearchBoard searchBoard, int depth) {
+        assertEquals(board.toString(), searchBoard.toString());
+        assertEquals(board.getZobristKey(), searchBoard.getZobristKey());
+        for (int square = 0; square < 64; square++) {
+            assertEquals(board.isSquareAttacked(square, Alliance.WHITE), searchBoard.isSquareAttacked(square, Alliance.WHITE));
+            assertEquals(board.isSquareAttacked(square, Alliance.BLACK), searchBoard.isSquareAttacked(square, Alliance.BLACK));
+        }
+        if (depth == 0) return;
+
+        final MoveList moves = new MoveList();
+        searchBoard.generateMoves(moves);
+        final List<Integer> boardMoves = new ArrayList<>();
+        final List<Integer> searchMoves = new ArrayList<>();
+        for (int i = 0; i < moves.size(); i++) searchMoves.add(moves.get(i));
+
+        final MoveList legalMoves = new MoveList();
+        searchBoard.generateLegalMoves(legalMoves);
+        final List<Integer> generatedLegalMoves = new ArrayList<>();
+        for (int i = 0; i < legalMoves.size(); i++) generatedLegalMoves.add(legalMoves.get(i));
+        final List<Integer> madeMoves = new ArrayList<>();
+        final List<Integer> strictlyLegalMoves = new ArrayList<>();
+        for (Move move : board.currentPlayer().getStrictlyLegalMoves()) strictlyLegalMoves.add(Move.MoveFactory.toPackedMove(move));
+
+        final List<Board> children = new ArrayList<>();
+        final List<String> boardPositions = new ArrayList<>();
+        for (Move move : board.currentPlayer().getLegalMoves()) {
+            boardMoves.add(Move.MoveFactory.toPackedMove(move));
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if (transition.getMoveStatus().isDone()) {
+                children.add(transition.getTransitionBoard());
+                boardPositions.add(transition.getTransitionBoard().toString());
+            }
+        }
+
+        final String before = searchBoard.toString();
+        final List<String> searchPositions = new ArrayList<>();
+        for (int i = 0; i < moves.size(); i++) {
+            if (searchBoard.makeMove(moves.get(i))) {
+                madeMoves.add(moves.get(i));
+                searchPositions.add(searchBoard.toString());
+                final Board child = children.get(boardPositions.indexOf(searchBoard.toString()));
+                assertSameTree(child, searchBoard, depth - 1);
+                searchBoard.unmakeMove();
+            }
+            assertEquals(before, searchBoard.toString());
+        }
+
+        Collections.sort(boardMoves);
+        Collections.sort(searchMoves);
+        assertEquals(boardMoves, searchMoves);
+        Collections.sort(boardPositions);
+        Collections.sort(searchPositions);
+        assertEquals(boardPositions, searchPositions);
+        Collections.sort(madeMoves);
+        Collections.sort(generatedLegalMoves);
+        Collections.sort(strictlyLegalMoves);
+        assertEquals(madeMoves, generatedLegalMoves);
+        assertEquals(madeMoves, strictlyLegalMoves);
+        assertEquals(!madeMoves.isEmpty(), searchBoard.hasLegalMove());
+    }
+
+    /**
+     * Check the first three plys of the standard layout
+     */
+    @Test
+    void standardBoardMatchesBoard() {
+        assertSameTree(Board.createStandardBoard(), new SearchBoard(Board.createStandardBoard()), 3);
+    }
+
+    /**
+     * Check the variants, where pawns that have not moved can jump from any row and black has no king
+     */
+    @Test
+    void variantBoardsMatchBoard() {
+        assertSameTree(Board.createHordeBoard(), new SearchBoard(Board.createHordeBoard()), 2);
+        assertSameTree(Board.createLightBrigadeBoard(), new SearchBoard(Board.createLightBrigadeBoard()), 2);
+    }
+
+    /**
+     * Check castling and 'en passant' moves, and that they are taken back correctly
+     */
+    @Test
+    void specialMovesAreUnmade() {
+        final Board.Builder builder = new Board.Builder();
+        builder.setPiece(new King(BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("e1"), Alliance.WHITE));
+        builder.setPiece(new Rook(BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("h1"), Alliance.WHITE));
+        builder.setPiece(new Rook(BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("a1"), Alliance.WHITE));
+        builder.setPiece(new Pawn(BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("e5"), Alliance.WHITE, false, false));
+        builder.setPiece(new King(BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("e8"), Alliance.BLACK));
+        builder.setPiece(new Pawn(BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("d7"), Alliance.BLACK, false));
+        builder.setMoveMaker(Alliance.BLACK);
+        final Board board = builder.build();
+
+        // the black pawn jump allows an 'en passant' attack, and white may castle on both sides
+        assertSameTree(board, new SearchBoard(board), 3);
+    }
+
+    /**
+     * Check pinned pieces: a knight pinned by a bishop can not move, and a pawn can not take 'en passant' when
+     * the two pawns leaving the row would expose its king to a rook
+     */
+    @Test
+    void pinnedPiecesStay() {
+        final Board.Builder builder = new Board.Builder();
+        builder.setPiece(new King(BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("a5"), Alliance.WHITE, false, false));
+        builder.setPiece(new Pawn(BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("b5"), Alliance.WHITE, false, false));
+        builder.setPiece(new Knight(BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("c3"), Alliance.WHITE));
+        builder.setPiece(new Queen(BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("h4"), Alliance.WHITE));
+        builder.setPiece(new King(BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("e8"), Alliance.BLACK));
+        builder.setPiece(new Pawn(BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("c7"), Alliance.BLACK, false));
+        builder.setPiece(new Rook(BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("h5"), Alliance.BLACK));
+        builder.setPiece(new Bishop(BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("e1"), Alliance.BLACK));
+        builder.setMoveMaker(Alliance.BLACK);
+        final Board board = builder.build();
+        assertSameTree(board, new SearchBoard(board), 3);
+
+        Board afterJump = null;
+        for (Move move : board.currentPlayer().getStrictlyLegalMoves()) {
+            if (move instanceof Move.PawnJump) afterJump = board.currentPlayer().makeMove(move).getTransitionBoard();
+        }
+        assertNotNull(afterJump);
+        assertNotNull(afterJump.getEnPassantPawn());
+        for (Move move : afterJump.currentPlayer().getStrictlyLegalMoves()) {
+            assertFalse(move instanceof Move.PawnEnPassantAttackMove);
+            assertNotEquals(PieceType.KNIGHT, move.getMovedPiece().getPieceType());
+        }
+        assertTrue(afterJump.currentPlayer().getLegalMoves().size() > afterJump.currentPlayer().getStrictlyLegalMoves().size());
+    }
+
+    /**
+     * Check that givesCheck finds the same checks as making the move, in positions with direct and discovered
+     * checks, checks by promotions, castling and 'en passant' attacks
+     */
+    @Test
+    void givesCheckMatchesMadeMoves() {
+        for (Perft.ReferencePosition position : Perft.ReferencePosition.values()) {
+            assertGivesCheck(new SearchBoard(position.createBoard()), position.getNodes(2) > 1000 ? 2 : 3);
+        }
+        assertGivesCheck(new SearchBoard(Board.createHordeBoard()), 2);
+        // every knight move uncovers the rook
+        final SearchBoard discovered = new SearchBoard(Board.createBoardFromFen("4k3/8/8/8/4N3/8/8/4R2K w - -"));
+        assertGivesCheck(discovered, 2);
+        assertEquals(8, countChecks(discovered));
+    }
+
+    private static void assertGivesCheck(SearchBoard board, int depth) {
+        final MoveList moves = new MoveList();
+        board.generateLegalMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            final int move = moves.get(i);
+            final Alliance opponent = board.getSideToMove() == Alliance.WHITE ? Alliance.BLACK : Alliance.WHITE;
+            final boolean givesCheck = board.givesCheck(move);
+            board.makeLegalMove(move);
+            assertEquals(board.isInCheck(opponent), givesCheck, PackedMove.toString(move) + "\n" + board);
+            if (depth > 1) assertGivesCheck(board, depth - 1);
+            board.unmakeMove();
+        }
+    }
+
+    private static int countChecks(SearchBoard board) {
+        final MoveList moves = new MoveList();
+        board.generateLegalMoves(moves);
+        int checks = 0;
+        for (int i = 0; i < moves.size(); i++) if (board.givesCheck(moves.get(i))) checks++;
+        return checks;
+    }
+
+    /**
+     * Check that a null move only passes the turn, and that it is taken back
+     */
+    @Test
+    void nullMoveIsUnmade() {
+        final Board board = Perft.ReferencePosition.EN_PASSANT.createBoard();
+        final SearchBoard searchBoard = new SearchBoard(board);
+        final String before = searchBoard.toString();
+        final long key = searchBoard.getZobristKey();
+        searchBoard.makeNullMove();
+        assertEquals(Alliance.BLACK, searchBoard.getSideToMove());
+        assertEquals(PackedMove.NO_MOVE, searchBoard.getLastMove());
+        assertEquals(new SearchBoard(board, Alliance.BLACK).getZobristKey(), searchBoard.getZobristKey());
+        searchBoard.unmakeMove();
+        assertEquals(Alliance.WHITE, searchBoard.getSideToMove());
+        assertEquals(before, searchBoard.toString());
+        assertEquals(key, searchBoard.getZobristKey());
+        assertEquals(Perft.ReferencePosition.EN_PASSANT.getNodes(3), Perft.perft(searchBoard, 3));
+    }
+}
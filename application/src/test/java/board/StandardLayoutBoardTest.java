@@ -108,4 +108,16 @@ class StandardLayoutBoardTest {
     void noEnPassantPawnPresent() {
         assertNull(board.getEnPassantPawn());
     }
-}
\ No newline at end of file
+
+    /**
+     * Check that the boards of the standard layout share their piece objects
+     */
+    @Test
+    void piecesAreShared() {
+        final Board other = Board.createStandardBoard();
+        for (int square = 0; square < 64; square++) {
+            final Coordinate coordinate = Coordinate.of(square);
+            assertSame(board.getTile(coordinate).getPiece(), other.getTile(coordinate).getPiece());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package board;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the static exchange evaluation of captures, and that a board and a search board agree on it
+ */
+class StaticExchangeTest {
+
+    private static int see(String fen, String move) {
+        final Board board = Board.createBoardFromFen(fen);
+        for (Move legalMove : board.currentPlayer().getLegalMoves()) {
+            final int packedMove = Move.MoveFactory.toPackedMove(legalMove);
+            if (PackedMove.toString(packedMove).equals(move)) {
+                final int value = board.staticExchangeEvaluation(legalMove);
+                assertEquals(value, new SearchBoard(board).staticExchangeEvaluation(packedMove));
+                return value;
+            }
+        }
+        throw new AssertionError("No move " + move + " on\n" + board);
+    }
+
+    @Test
+    void undefendedCaptureWinsThePiece() {
+        assertEquals(100, see("4k3/8/8/3p4/8/8/8/3QK3 w - -", "d1d5"));
+    }
+
+    @Test
+    void defendedCaptureLosesTheCapturingPiece() {
+        assertEquals(-800, see("4k3/8/4p3/3p4/8/8/8/3QK3 w - -", "d1d5"));
+        // an even trade
+        assertEquals(0, see("4k3/8/4p3/3p4/4P3/8/8/4K3 w - -", "e4d5"));
+    }
+
+    @Test
+    void sliderBehindACapturingPieceJoinsTheExchange() {
+        assertEquals(-400, see("3rk3/8/8/3p4/8/8/3R4/4K3 w - -", "d2d5"));
+        assertEquals(100, see("3rk3/8/8/3p4/8/8/3R4/3RK3 w - -", "d2d5"));
+        // the queen behind the bishop takes back on the square after the rook
+        assertEquals(-10, see("4r1k1/8/8/8/4n3/8/2B5/4K3 w - -", "c2e4"));
+        assertEquals(320, see("4r1k1/8/8/8/4n3/8/2B5/1Q2K3 w - -", "c2e4"));
+    }
+
+    @Test
+    void kingOnlyCapturesUndefendedPieces() {
+        assertEquals(-400, see("8/8/4k3/3p4/8/8/3R4/4K3 w - -", "d2d5"));
+        assertEquals(100, see("8/8/4k3/3p4/8/8/3R4/3RK3 w - -", "d2d5"));
+    }
+
+    @Test
+    void boardAndSearchBoardAgree() {
+        for (Perft.ReferencePosition position : Perft.ReferencePosition.values()) {
+            final Board board = position.createBoard();
+            final SearchBoard searchBoard = new SearchBoard(board);
+            for (Move move : board.currentPlayer().getLegalMoves()) {
+                final int packedMove = Move.MoveFactory.toPackedMove(move);
+                final int value = board.staticExchangeEvaluation(move);
+                assertEquals(value, searchBoard.staticExchangeEvaluation(packedMove), PackedMove.toString(packedMove));
+                // the exchange can always be stopped after the move
+                if (PackedMove.getCapturedType(packedMove) != null) {
+                    assertTrue(value >= PackedMove.getCapturedType(packedMove).getPieceValue() -
+                            PackedMove.getPieceType(packedMove).getPieceValue());
+                }
+            }
+        }
+    }
+}
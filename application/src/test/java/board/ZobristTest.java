@@ -0,0 +1,79 @@
+package board;
+
+import org.junit.jupiter.api.Test;
+import player.MoveTransition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test that the Zobrist key calculated by the moves is the same as the key calculated from scratch
+ */
+class ZobristTest {
+
+    /**
+     * Makes a move in the notation of two coordinates, e.g. "g1", "f3"
+     */
+    private static Board makeMove(Board board, String from, String to) {
+        final Move move = Move.MoveFactory.createMove(board, BoardUtils.getInstance().getCoordinateFromAlgebraicNotation(from),
+                BoardUtils.getInstance().getCoordinateFromAlgebraicNotation(to));
+        final MoveTransition transition = board.currentPlayer().makeMove(move);
+        assertTrue(transition.getMoveStatus().isDone());
+        return transition.getTransitionBoard();
+    }
+
+    /**
+     * Plays random games and compares the key and the castling rights of every board with the ones calculated from
+     * scratch
+     */
+    @Test
+    void incrementalKeyMatchesFullKey() {
+        final Random random = new Random(42);
+        for (Board start : new Board[] {Board.createStandardBoard(), Board.createHordeBoard(), Board.createLightBrigadeBoard(),
+                Perft.ReferencePosition.KIWIPETE.createBoard()}) {
+            for (int game = 0; game < 5; game++) {
+                Board board = start;
+                for (int ply = 0; ply < 80; ply++) {
+                    final List<Board> children = new ArrayList<>();
+                    for (Move move : board.currentPlayer().getLegalMoves()) {
+                        final MoveTransition transition = board.currentPlayer().makeMove(move);
+                        if (transition.getMoveStatus().isDone()) children.add(transition.getTransitionBoard());
+                    }
+                    if (children.isEmpty()) break;
+                    board = children.get(random.nextInt(children.size()));
+                    assertEquals(Zobrist.calculateKey(board), board.getZobristKey());
+                    assertEquals(Zobrist.castlingRights(board), board.getCastlingRights());
+                }
+            }
+        }
+    }
+
+    /**
+     * Check that the same position reached by different moves has the same key, and that the side to move counts
+     */
+    @Test
+    void transpositionsHaveTheSameKey() {
+        final Board start = Board.createStandardBoard();
+        Board board = makeMove(start, "g1", "f3");
+        board = makeMove(board, "g8", "f6");
+        board = makeMove(board, "f3", "g1");
+        board = makeMove(board, "f6", "g8");
+        assertEquals(start.getZobristKey(), board.getZobristKey());
+        assertNotEquals(start.getZobristKey(), makeMove(start, "g1", "f3").getZobristKey());
+
+        // moving the rook there and back loses the castling right
+        board = makeMove(start, "g2", "g3");
+        board = makeMove(board, "g8", "f6");
+        board = makeMove(board, "g1", "f3");
+        board = makeMove(board, "f6", "g8");
+        board = makeMove(board, "h1", "g1");
+        board = makeMove(board, "g8", "f6");
+        board = makeMove(board, "g1", "h1");
+        final Board withRight = makeMove(makeMove(makeMove(start, "g2", "g3"), "g8", "f6"), "g1", "f3");
+        assertEquals(board.toString(), withRight.toString());
+        assertNotEquals(withRight.getZobristKey(), board.getZobristKey());
+    }
+}
@@ -2,11 +2,14 @@ package player;
 
 import board.Board;
 import board.BoardUtils;
+import board.Coordinate;
 import board.Move;
 import org.junit.jupiter.api.Test;
 import pieces.Alliance;
 import pieces.King;
+import pieces.Piece;
 import pieces.Pawn;
+import pieces.Queen;
 import pieces.Rook;
 
 import static board.Board.*;
@@ -115,7 +118,7 @@ class PlayerTest {
         builder.setMoveMaker(Alliance.BLACK);
         Board board = builder.build();
 
-        assertEquals(2, board.getBlackPlayer().calculateKingCastles(board.getWhitePlayer().getLegalMoves()).size());
+        assertEquals(2, board.getBlackPlayer().calculateKingCastles().size());
 
     }
 
@@ -134,8 +137,90 @@ class PlayerTest {
         builder.setMoveMaker(Alliance.WHITE);
         Board board = builder.build();
 
-        assertEquals(2, board.getWhitePlayer().calculateKingCastles(board.getBlackPlayer().getLegalMoves()).size());
+        assertEquals(2, board.getWhitePlayer().calculateKingCastles().size());
 
     }
 
-}
\ No newline at end of file
+    /**
+     * Check that the moves and check status of a player are calculated once and then kept
+     */
+    @Test
+    void legalMovesAreMemoised() {
+        Board board = createStandardBoard();
+        assertSame(board.getWhitePlayer().getLegalMoves(), board.getWhitePlayer().getLegalMoves());
+        assertEquals(20, board.getWhitePlayer().getLegalMoves().size());
+        assertEquals(20, board.getBlackPlayer().getLegalMoves().size());
+        assertFalse(board.currentPlayer().isInCheck());
+    }
+
+    /**
+     * Check that a king may not castle through a square attacked by a pawn, even though the pawn can not move there
+     */
+    @Test
+    void castlingThroughPawnAttackIsNotFound() {
+        Builder builder = new Builder();
+        builder.setPiece(new King(BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("e1"), Alliance.WHITE));
+        builder.setPiece(new Rook(BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("a1"), Alliance.WHITE));
+        builder.setPiece(new Rook(BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("h1"), Alliance.WHITE));
+        builder.setPiece(new Pawn(BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("g2"), Alliance.BLACK, false, false));
+        builder.setMoveMaker(Alliance.WHITE);
+        Board board = builder.build();
+
+        assertTrue(board.isSquareAttacked(BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("f1"), Alliance.BLACK));
+        assertFalse(board.isSquareAttacked(BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("g1"), Alliance.BLACK));
+        assertEquals(1, board.getWhitePlayer().calculateKingCastles().size());
+        assertTrue(board.getWhitePlayer().calculateKingCastles().iterator().next() instanceof Move.QueenSideCastleMove);
+    }
+
+    /**
+     * Check that the game status tells checkmate from stalemate, and is calculated once per position
+     */
+    @Test
+    void gameStatusIsMemoised() {
+        Board board = createStandardBoard();
+        assertEquals(GameStatus.ONGOING, board.currentPlayer().getGameStatus());
+        assertFalse(board.currentPlayer().getGameStatus().isGameOver());
+
+        Builder builder = new Builder();
+        builder.setPiece(new King(BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("c1"), Alliance.WHITE));
+        builder.setPiece(new Queen(BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("b6"), Alliance.WHITE));
+        builder.setPiece(new King(BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("a8"), Alliance.BLACK));
+        builder.setMoveMaker(Alliance.BLACK);
+        board = builder.build();
+
+        assertSame(board.currentPlayer().getGameStatus(), board.currentPlayer().getGameStatus());
+        assertEquals(GameStatus.STALEMATE, board.currentPlayer().getGameStatus());
+        assertTrue(board.currentPlayer().isInStalemate());
+        assertFalse(board.currentPlayer().isInCheckmate());
+    }
+
+    /**
+     * Check that the moves between two squares and the moves of a piece are found in the index of the legal moves
+     */
+    @Test
+    void legalMovesAreIndexed() {
+        final BoardUtils boardUtils = BoardUtils.getInstance();
+        Builder builder = new Builder();
+        builder.setPiece(new King(boardUtils.getCoordinateFromAlgebraicNotation("e1"), Alliance.WHITE, false, false));
+        builder.setPiece(new Pawn(boardUtils.getCoordinateFromAlgebraicNotation("b7"), Alliance.WHITE, false, false));
+        builder.setPiece(new King(boardUtils.getCoordinateFromAlgebraicNotation("h8"), Alliance.BLACK, false, false));
+        builder.setMoveMaker(Alliance.WHITE);
+        Board board = builder.build();
+        Player player = board.getWhitePlayer();
+
+        final Coordinate b7 = boardUtils.getCoordinateFromAlgebraicNotation("b7");
+        final Coordinate b8 = boardUtils.getCoordinateFromAlgebraicNotation("b8");
+        assertEquals(4, player.getLegalMovesBetween(b7, b8).size());
+        assertTrue(player.getLegalMovesBetween(b8, b7).isEmpty());
+        assertEquals(4, player.getLegalMovesForPiece(board.getTile(b7).getPiece()).size());
+        assertEquals(player.getLegalMoves().size(), player.getLegalMovesForPiece(board.getTile(b7).getPiece()).size() +
+                player.getLegalMovesForPiece(player.getPlayerKing()).size());
+
+        final Move knightPromotion = Move.MoveFactory.createMove(board, b7, b8, Piece.PieceType.KNIGHT);
+        assertTrue(knightPromotion instanceof Move.PawnPromotion);
+        assertEquals(Piece.PieceType.KNIGHT, ((Move.PawnPromotion) knightPromotion).getUpgradeType());
+        assertTrue(player.makeMove(knightPromotion).getMoveStatus().isDone());
+        assertFalse(player.makeMove(Move.MoveFactory.createMove(board, b8, b7)).getMoveStatus().isDone());
+    }
+
+}
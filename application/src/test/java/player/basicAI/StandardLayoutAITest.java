@@ -3,10 +3,15 @@ package player.basicAI;
 import board.Board;
 import board.BoardUtils;
 import board.Move;
+import board.Perft;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import player.MoveTransition;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
@@ -59,4 +64,197 @@ class StandardLayoutAITest {
         assertEquals(bestMove, AIMove);
     }
 
-}
\ No newline at end of file
+    /**
+     * Check that a search with a time limit stops at the limit and still returns a legal move
+     */
+    @Test
+    void timeLimitIsKept() {
+        final Board board = Perft.ReferencePosition.KIWIPETE.createBoard();
+        final MiniMax moveStrategy = new MiniMax(30, MiniMax.DEFAULT_MAX_QUIESCENCE, true, false, 1, 300);
+        final Move AIMove = moveStrategy.execute(board);
+        // the deadline stopped the search long before the search depth
+        assertTrue(moveStrategy.getCompletedDepth() >= 1);
+        assertTrue(moveStrategy.getCompletedDepth() < 30);
+        assertTrue(board.currentPlayer().makeMove(AIMove).getMoveStatus().isDone());
+    }
+
+    /**
+     * Check that splitting the root moves over several threads finds the same move as the search on one thread
+     */
+    @Test
+    void parallelSearchFindsSameMove() {
+        for (Perft.ReferencePosition position : Perft.ReferencePosition.values()) {
+            final Board board = position.createBoard();
+            final Move move = new MiniMax(3, 0, true, false, 0, 0, 1).execute(board);
+            final Move parallelMove = new MiniMax(3, 0, true, false, 0, 0, 4).execute(board);
+            assertEquals(move, parallelMove, position.name());
+        }
+    }
+
+    /**
+     * Check that searches with the same number of threads share one pool, instead of each starting its own threads
+     */
+    @Test
+    void searchesShareThePool() {
+        final MiniMax first = new MiniMax(3, 0, true, false, 0, 0, 4);
+        final MiniMax second = new MiniMax(3, 0, true, false, 0, 0, 4);
+        assertSame(first.getPool(), second.getPool());
+        assertEquals(4, first.getPool().getParallelism());
+        assertNotSame(first.getPool(), new LazySMP(3, 0, true, false, 1, 0, 2).getPool());
+    }
+
+    /**
+     * Check that the threads of a Lazy SMP search find the only mating move, and a legal move in every reference position
+     */
+    @Test
+    void lazySmpFindsMove() {
+        Board board = Board.createBoardFromFen("6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - -");
+        final Move mate = Move.MoveFactory.createMove(board, BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("d1"),
+                                                             BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("d8"));
+        assertEquals(mate, new LazySMP(3, 0, true, false, 1, 0, 4).execute(board));
+
+        final MoveStrategy moveStrategy = new LazySMP(3, 100, true, false, 1, 0, 3);
+        for (Perft.ReferencePosition position : Perft.ReferencePosition.values()) {
+            board = position.createBoard();
+            assertTrue(board.currentPlayer().makeMove(moveStrategy.execute(board)).getMoveStatus().isDone(), position.name());
+        }
+    }
+
+    /**
+     * Check that the quiescence search sees that a pawn defended by a pawn is not worth the queen
+     */
+    @Test
+    void quiescenceSeesRecapture() {
+        final Board board = Board.createBoardFromFen("4k3/8/4p3/3p4/8/8/8/3QK3 w - -");
+        final Move queenTakesPawn = Move.MoveFactory.createMove(board, BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("d1"),
+                                                                       BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("d5"));
+        assertEquals(queenTakesPawn, new MiniMax(1, 0, true, false, 0).execute(board));
+        assertNotEquals(queenTakesPawn, new MiniMax(1, 10, true, false, 0).execute(board));
+    }
+
+    /**
+     * Check that a player in check at the leaf can not stand pat: after the rook check the king has to step off the
+     * rank, and the rook takes the queen behind it
+     */
+    @Test
+    void quiescenceSearchesCheckEvasions() {
+        final Board board = Board.createBoardFromFen("8/2k4q/8/8/8/8/8/R5K1 w - -");
+        final Move skewer = Move.MoveFactory.createMove(board, BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("a1"),
+                                                               BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("a7"));
+        assertEquals(skewer, new MiniMax(1, 4, true, false, 0).execute(board));
+        assertEquals(skewer, new PrincipalVariationSearch(1, 4, true, false, 0, 0).execute(board));
+    }
+
+    /**
+     * Check that the principal variation search finds the mate, and that its principal variation is a line of
+     * legal moves as long as the search depth that starts with the move returned
+     */
+    @Test
+    void principalVariationSearchFindsMove() {
+        Board board = Board.createBoardFromFen("6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - -");
+        final Move mate = Move.MoveFactory.createMove(board, BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("d1"),
+                                                             BoardUtils.getInstance().getCoordinateFromAlgebraicNotation("d8"));
+        final PrincipalVariationSearch moveStrategy = new PrincipalVariationSearch(3, 0, true, false, 1, 0);
+        assertEquals(mate, moveStrategy.execute(board));
+        assertEquals(Collections.singletonList(mate), moveStrategy.getPrincipalVariation());
+
+        final PrincipalVariationSearch deeperStrategy = new PrincipalVariationSearch(4, 4, true, false, 1, 0);
+        for (Perft.ReferencePosition position : Perft.ReferencePosition.values()) {
+            board = position.createBoard();
+            final Move move = deeperStrategy.execute(board);
+            assertTrue(board.currentPlayer().makeMove(move).getMoveStatus().isDone(), position.name());
+            assertEquals(4, deeperStrategy.getPrincipalVariation().size(), position.name());
+            assertEquals(move, deeperStrategy.getPrincipalVariation().get(0), position.name());
+        }
+    }
+
+    /**
+     * A principal variation search that records the window of every search of the root moves
+     */
+    private static final class WindowRecordingSearch extends PrincipalVariationSearch {
+        // depth, alpha and beta of every search of the root moves
+        private final List<int[]> windows = new ArrayList<>();
+
+        WindowRecordingSearch(int searchDepth) {
+            super(searchDepth, 0, true, false, 1, 0, PruningSettings.NONE);
+        }
+
+        @Override
+        int[] searchRoot(Board board, Searcher searcher, int searchDepth, int previousBest, int alpha, int beta) {
+            this.windows.add(new int[]{searchDepth, alpha, beta});
+            return super.searchRoot(board, searcher, searchDepth, previousBest, alpha, beta);
+        }
+
+        /**
+         * @return alpha and beta of the searches of the root moves at the depth
+         */
+        List<int[]> windowsAt(int searchDepth) {
+            final List<int[]> windows = new ArrayList<>();
+            for (int[] window : this.windows) if (window[0] == searchDepth) windows.add(new int[]{window[1], window[2]});
+            return windows;
+        }
+    }
+
+    /**
+     * Check that the aspiration window is widened four times on the side the value falls outside of it. The knight
+     * fork is only seen at depth 3, which fails high, giving away the queen for a pawn is only seen at depth 2, which
+     * fails low
+     */
+    @Test
+    void aspirationWindowIsWidened() {
+        final WindowRecordingSearch fork = new WindowRecordingSearch(3);
+        fork.execute(Board.createBoardFromFen("q3k3/8/8/1N6/8/8/7K/8 w - -"));
+        List<int[]> windows = fork.windowsAt(3);
+        int center = windows.get(0)[0] + 200;
+        assertEquals(3, windows.size());
+        assertArrayEquals(new int[]{center - 200, center + 200}, windows.get(0));
+        assertArrayEquals(new int[]{center - 200, center + 800}, windows.get(1));
+        assertArrayEquals(new int[]{center - 200, center + 3200}, windows.get(2));
+
+        final WindowRecordingSearch queenTrade = new WindowRecordingSearch(2);
+        queenTrade.execute(Board.createBoardFromFen("4k3/8/3p4/2q5/8/8/8/2Q1K3 w - -"));
+        windows = queenTrade.windowsAt(2);
+        center = windows.get(0)[0] + 200;
+        assertEquals(3, windows.size());
+        assertArrayEquals(new int[]{center - 200, center + 200}, windows.get(0));
+        assertArrayEquals(new int[]{center - 800, center + 200}, windows.get(1));
+        assertArrayEquals(new int[]{center - 3200, center + 200}, windows.get(2));
+    }
+
+    /**
+     * Check that every pruning technique on its own searches fewer nodes than the search without pruning, and finds
+     * the same move
+     */
+    @Test
+    void pruningReducesNodes() {
+        final Board board = Perft.ReferencePosition.KIWIPETE.createBoard();
+        final PrincipalVariationSearch unpruned = new PrincipalVariationSearch(5, 4, true, false, 1, 0, PruningSettings.NONE);
+        final Move move = unpruned.execute(board);
+        final PruningSettings[] techniques = {
+                new PruningSettings.Builder().setLateMoveReductions(false).setFutilityPruning(false).setRazoring(false).build(),
+                new PruningSettings.Builder().setNullMove(false).setFutilityPruning(false).setRazoring(false).build(),
+                new PruningSettings.Builder().setNullMove(false).setLateMoveReductions(false).setRazoring(false).build(),
+                new PruningSettings.Builder().setNullMove(false).setLateMoveReductions(false).setFutilityPruning(false).build()};
+        for (PruningSettings settings : techniques) {
+            final PrincipalVariationSearch pruned = new PrincipalVariationSearch(5, 4, true, false, 1, 0, settings);
+            assertEquals(move, pruned.execute(board), settings.toString());
+            assertTrue(pruned.getNodeCount() < unpruned.getNodeCount(), settings.toString());
+        }
+    }
+
+    /**
+     * Both kings guard their own pawn and attack the other one, so the player to move has to give up its pawn
+     * (zugzwang). A null move would hand the zugzwang to black and fail high, so the null move is not tried when the
+     * player to move has only pawns: the search with null-move pruning is the same as the one without
+     */
+    @Test
+    void nullMoveIsSkippedInPawnEndings() {
+        final Board board = Board.createBoardFromFen("8/8/8/1Kp5/2Pk4/8/8/8 w - -");
+        final PruningSettings nullMoveOnly = new PruningSettings.Builder().setLateMoveReductions(false)
+                .setFutilityPruning(false).setRazoring(false).build();
+        final PrincipalVariationSearch unpruned = new PrincipalVariationSearch(5, 4, true, false, 1, 0, PruningSettings.NONE);
+        final PrincipalVariationSearch nullMove = new PrincipalVariationSearch(5, 4, true, false, 1, 0, nullMoveOnly);
+        assertEquals(unpruned.execute(board), nullMove.execute(board));
+        assertEquals(unpruned.getNodeCount(), nullMove.getNodeCount());
+    }
+}
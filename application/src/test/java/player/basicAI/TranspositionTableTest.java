@@ -0,0 +1,71 @@
+package player.basicAI;
+
+import board.Board;
+import board.Move;
+import board.PackedMove;
+import board.Perft;
+import org.junit.jupiter.api.Test;
+import pieces.Piece;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the transposition table and its use in the search
+ */
+class TranspositionTableTest {
+
+    /**
+     * Check that an entry is read back as it was stored
+     */
+    @Test
+    void entriesAreStored() {
+        final TranspositionTable table = new TranspositionTable(1);
+        final int move = PackedMove.create(52, 36, Piece.PieceType.PAWN, null, null, PackedMove.PAWN_JUMP_FLAG);
+        assertEquals(0, table.probe(42L));
+        assertEquals(1, table.getMisses());
+
+        table.store(42L, move, 5, TranspositionTable.UPPER_BOUND, -12345);
+        final long entry = table.probe(42L);
+        assertEquals(move, TranspositionTable.getMove(entry));
+        assertEquals(5, TranspositionTable.getDepth(entry));
+        assertEquals(TranspositionTable.UPPER_BOUND, TranspositionTable.getBound(entry));
+        assertEquals(-12345, TranspositionTable.getScore(entry));
+        assertEquals(1, table.getHits());
+    }
+
+    /**
+     * Check that a shallower search of another position does not replace an entry, and is counted as a collision
+     */
+    @Test
+    void deeperEntriesAreKept() {
+        final TranspositionTable table = new TranspositionTable(1);
+        final long key = 7L, otherKey = 7L + (1L << 40);
+        table.store(key, PackedMove.NO_MOVE, 6, TranspositionTable.EXACT, 100);
+        table.store(otherKey, PackedMove.NO_MOVE, 2, TranspositionTable.EXACT, 200);
+        assertEquals(100, TranspositionTable.getScore(table.probe(key)));
+        assertEquals(0, table.probe(otherKey));
+        assertEquals(1, table.getCollisions());
+
+        table.store(otherKey, PackedMove.NO_MOVE, 6, TranspositionTable.LOWER_BOUND, 200);
+        assertEquals(200, TranspositionTable.getScore(table.probe(otherKey)));
+        table.clear();
+        assertEquals(0, table.probe(otherKey));
+    }
+
+    /**
+     * Check that the search finds the same move with and without the table, and that the table is used
+     */
+    @Test
+    void searchFindsSameMove() {
+        long hits = 0;
+        for (Perft.ReferencePosition position : Perft.ReferencePosition.values()) {
+            final Board board = position.createBoard();
+            final MiniMax hashed = new MiniMax(3, 0, true, false, 1);
+            final Move hashedMove = hashed.execute(board);
+            final Move move = new MiniMax(3, 0, true, false, 0).execute(board);
+            assertEquals(move, hashedMove, position.name());
+            hits += hashed.getTranspositionTable().getHits();
+        }
+        assertTrue(hits > 0);
+    }
+}
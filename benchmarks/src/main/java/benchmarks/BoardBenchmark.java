@@ -0,0 +1,32 @@
+package benchmarks;
+
+import board.Board;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creation of the boards a game starts from
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BoardBenchmark {
+
+    @Benchmark
+    public Board createStandardBoard() {
+        return Board.createStandardBoard();
+    }
+
+    @Benchmark
+    public Board createHordeBoard() {
+        return Board.createHordeBoard();
+    }
+
+    @Benchmark
+    public Board createLightBrigadeBoard() {
+        return Board.createLightBrigadeBoard();
+    }
+}
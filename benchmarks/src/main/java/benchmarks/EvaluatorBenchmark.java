@@ -0,0 +1,45 @@
+package benchmarks;
+
+import board.Board;
+import board.SearchBoard;
+import org.openjdk.jmh.annotations.*;
+import player.basicAI.RegularBoardEvaluator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RegularBoardEvaluator.evaluate, on a search board the way the search calls it, and on a Board.
+ * The players of a Board keep their moves, so evaluateBoard works on a new board every time (see
+ * MoveBenchmark.createBoard for what that costs on its own).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class EvaluatorBenchmark {
+
+    @Param({"START", "MIDDLEGAME", "TACTICAL_MIDDLEGAME", "ENDGAME", "ROOK_ENDGAME", "HORDE", "LIGHT_BRIGADE"})
+    public Position position;
+
+    private RegularBoardEvaluator evaluator;
+    private SearchBoard searchBoard;
+
+    @Setup
+    public void setUp() {
+        this.evaluator = new RegularBoardEvaluator(true);
+        this.searchBoard = new SearchBoard(this.position.createBoard());
+    }
+
+    @Benchmark
+    public int evaluateSearchBoard() {
+        return this.evaluator.evaluate(this.searchBoard, 0);
+    }
+
+    @Benchmark
+    public int evaluateBoard() {
+        final Board board = this.position.createBoard();
+        return this.evaluator.evaluate(board, 0);
+    }
+}
@@ -0,0 +1,47 @@
+package benchmarks;
+
+import board.Board;
+import board.Move;
+import org.openjdk.jmh.annotations.*;
+import player.basicAI.MiniMax;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MiniMax.execute at fixed depths, with the quiescence ply limit of the AI and hints of the GUI.
+ * The strategy and its transposition table are made once per trial, the table is cleared before every invocation
+ * so that every search starts from an empty table without measuring the allocation of a new one
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MiniMaxBenchmark {
+
+    @Param({"START", "MIDDLEGAME", "TACTICAL_MIDDLEGAME", "ENDGAME", "ROOK_ENDGAME", "HORDE", "LIGHT_BRIGADE"})
+    public Position position;
+
+    @Param({"2", "3", "4"})
+    public int depth;
+
+    private Board board;
+    private MiniMax miniMax;
+
+    @Setup
+    public void setUp() {
+        this.board = this.position.createBoard();
+        this.miniMax = new MiniMax(this.depth, MiniMax.DEFAULT_MAX_QUIESCENCE, true, false, MiniMax.DEFAULT_HASH_SIZE_MB);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        this.miniMax.getTranspositionTable().clear();
+    }
+
+    @Benchmark
+    public Move execute() {
+        return this.miniMax.execute(this.board);
+    }
+}
@@ -0,0 +1,50 @@
+package benchmarks;
+
+import board.Board;
+import board.Move;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Making every legal move of a position.
+ * A Player keeps its moves once they are calculated, so makeMoves works on a new board every time to include
+ * the legality check; createBoard measures what that costs on its own.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class MoveBenchmark {
+
+    @Param({"START", "MIDDLEGAME", "TACTICAL_MIDDLEGAME", "ENDGAME", "ROOK_ENDGAME", "HORDE", "LIGHT_BRIGADE"})
+    public Position position;
+
+    private List<Move> moves;
+
+    @Setup
+    public void setUp() {
+        this.moves = new ArrayList<>(this.position.createBoard().currentPlayer().getStrictlyLegalMoves());
+    }
+
+    @Benchmark
+    public Board createBoard() {
+        return this.position.createBoard();
+    }
+
+    @Benchmark
+    public void executeMoves(Blackhole blackhole) {
+        for (Move move : this.moves) blackhole.consume(move.execute());
+    }
+
+    @Benchmark
+    public void makeMoves(Blackhole blackhole) {
+        final Board board = this.position.createBoard();
+        for (Move move : board.currentPlayer().getLegalMoves()) blackhole.consume(board.currentPlayer().makeMove(move));
+    }
+}
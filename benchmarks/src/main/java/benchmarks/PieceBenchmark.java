@@ -0,0 +1,45 @@
+package benchmarks;
+
+import board.Board;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import pieces.Piece;
+import pieces.Piece.PieceType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Piece.calculateLegalMoves for all pieces of one type, of both players
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class PieceBenchmark {
+
+    @Param({"START", "MIDDLEGAME", "TACTICAL_MIDDLEGAME", "ENDGAME", "ROOK_ENDGAME", "HORDE", "LIGHT_BRIGADE"})
+    public Position position;
+
+    @Param({"PAWN", "KNIGHT", "BISHOP", "ROOK", "QUEEN", "KING"})
+    public PieceType pieceType;
+
+    private Board board;
+    private List<Piece> pieces;
+
+    @Setup
+    public void setUp() {
+        this.board = this.position.createBoard();
+        this.pieces = new ArrayList<>();
+        for (Piece piece : this.board.getWhitePieces()) if (piece.getPieceType() == this.pieceType) this.pieces.add(piece);
+        for (Piece piece : this.board.getBlackPieces()) if (piece.getPieceType() == this.pieceType) this.pieces.add(piece);
+    }
+
+    @Benchmark
+    public void calculateLegalMoves(Blackhole blackhole) {
+        for (Piece piece : this.pieces) blackhole.consume(piece.calculateLegalMoves(this.board));
+    }
+}
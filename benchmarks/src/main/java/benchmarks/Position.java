@@ -0,0 +1,56 @@
+package benchmarks;
+
+import board.Board;
+
+/**
+ * Fixed set of positions the benchmarks run on, so that numbers from different runs can be compared
+ */
+public enum Position {
+    START {
+        @Override
+        public Board createBoard() {
+            return Board.createStandardBoard();
+        }
+    },
+    MIDDLEGAME {
+        @Override
+        public Board createBoard() {
+            return Board.createBoardFromFen("r1bq1rk1/pp1nbppp/2p1pn2/3p2B1/2PP4/2NBPN2/PP3PPP/R2QK2R w KQ -");
+        }
+    },
+    TACTICAL_MIDDLEGAME {
+        @Override
+        public Board createBoard() {
+            return Board.createBoardFromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -");
+        }
+    },
+    ENDGAME {
+        @Override
+        public Board createBoard() {
+            return Board.createBoardFromFen("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - -");
+        }
+    },
+    ROOK_ENDGAME {
+        @Override
+        public Board createBoard() {
+            return Board.createBoardFromFen("8/5pk1/6p1/8/3R4/6P1/5PK1/1r6 w - -");
+        }
+    },
+    HORDE {
+        @Override
+        public Board createBoard() {
+            return Board.createHordeBoard();
+        }
+    },
+    LIGHT_BRIGADE {
+        @Override
+        public Board createBoard() {
+            return Board.createLightBrigadeBoard();
+        }
+    };
+
+    /**
+     * @return a new board with the position, nothing about its players has been calculated yet
+     */
+    public abstract Board createBoard();
+}